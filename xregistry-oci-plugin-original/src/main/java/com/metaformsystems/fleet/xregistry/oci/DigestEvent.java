@@ -0,0 +1,38 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.oci;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for each digest computed by {@link ShaUtils}.
+ */
+@Name("com.metaformsystems.fleet.xregistry.Digest")
+@Label("Digest")
+@Category({ "Fleet Tooling", "OCI" })
+@Description("A SHA-256 digest computed while packaging an xRegistry")
+final class DigestEvent extends Event {
+    @Label("Source")
+    String source;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
@@ -33,7 +33,7 @@ public class ShaUtils {
      */
     public static String generateSha256(File file) {
         try (var stream = new FileInputStream(file)) {
-            return generateSha256(stream);
+            return generateSha256(stream, file.getPath());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -43,18 +43,31 @@ public static String generateSha256(File file) {
      * Generates a SHA256 hash for the given stream.
      */
     public static String generateSha256(InputStream stream) {
+        return generateSha256(stream, "stream");
+    }
+
+    private static String generateSha256(InputStream stream, String source) {
+        var event = new DigestEvent();
+        event.begin();
         try {
             var digest = MessageDigest.getInstance("SHA-256");
             var buffer = new byte[8192];
+            var total = 0L;
             int bytesRead;
             while ((bytesRead = stream.read(buffer)) != -1) {
                 digest.update(buffer, 0, bytesRead);
+                total += bytesRead;
             }
 
             var hexString = new StringBuilder();
             for (var b : digest.digest()) {
                 hexString.append(format("%02x", b));
             }
+            if (event.shouldCommit()) {
+                event.source = source;
+                event.bytes = total;
+                event.commit();
+            }
             return hexString.toString();
         } catch (NoSuchAlgorithmException | IOException e) {
             throw new RuntimeException("Failed to generate SHA256 hash", e);
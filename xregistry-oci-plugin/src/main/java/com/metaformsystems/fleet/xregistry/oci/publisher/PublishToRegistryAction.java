@@ -23,6 +23,7 @@
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.provider.Provider;
 
 import static com.metaformsystems.fleet.xregistry.oci.publisher.Constants.DISTRIBUTIONS;
@@ -59,11 +60,15 @@ public void execute(Task task) {
     }
 
     private void publishArtifact() {
+        var event = new PushEvent();
+        event.begin();
+        ContainerRef ref = null;
+        RegularFile distro = null;
         try {
-            var ref = ContainerRef.parse(ociArtifactProvider.get());
+            ref = ContainerRef.parse(ociArtifactProvider.get());
             var type = ArtifactType.from(XREGISTRY_CONTENT_TYPE);
 
-            var distro = project.getLayout().getBuildDirectory().dir(DISTRIBUTIONS).get().file(artifactNameProvider.get());
+            distro = project.getLayout().getBuildDirectory().dir(DISTRIBUTIONS).get().file(artifactNameProvider.get());
             var path = LocalPath.of(distro.toString());
 
             var registryBuilder = Registry.builder();
@@ -85,8 +90,20 @@ private void publishArtifact() {
             var annotations = Annotations.ofManifest(customAnnotations);
 
             registry.pushArtifact(ref, type, annotations, path);
+            event.succeeded = true;
         } catch (Exception e) {
             throw new GradleException("Failed to publish xRegistry archive", e);
+        } finally {
+            if (event.shouldCommit()) {
+                if (ref != null) {
+                    event.reference = ref.toString();
+                }
+                if (distro != null) {
+                    event.path = distro.toString();
+                    event.bytes = distro.getAsFile().length();
+                }
+                event.commit();
+            }
         }
     }
 }
\ No newline at end of file
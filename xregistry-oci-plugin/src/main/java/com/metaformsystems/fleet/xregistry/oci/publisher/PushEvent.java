@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.oci.publisher;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when {@link PublishToRegistryAction} pushes an xRegistry archive.
+ */
+@Name("com.metaformsystems.fleet.xregistry.OciPush")
+@Label("OCI Push")
+@Category({ "Fleet Tooling", "OCI" })
+@Description("An xRegistry archive pushed to a container registry")
+final class PushEvent extends Event {
+    @Label("Reference")
+    String reference;
+
+    @Label("Path")
+    String path;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -1,6 +1,20 @@
+plugins {
+    id("me.champeau.jmh") version "0.7.3"
+}
 
 dependencies {
     implementation(libs.bundles.eclipse.edc.xregistry)
 }
 
+jmh {
+    jmhVersion = "1.37"
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
 
+tasks.register<JavaExec>("footprintReport") {
+    description = "Prints the estimated heap footprint of indexes built from generated registries."
+    group = "verification"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.metaformsystems.fleet.xregistry.processor.IndexFootprintReport"
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures building a {@link DeploymentIndex} in memory and looking up artifacts in it.
+ * <p>
+ * Lookups use artifacts equal to, but not identical with, the indexed ones, in random order. Run with {@code -prof gc}
+ * and divide the {@code gc.alloc.rate.norm} of {@link #build()} by the artifact count of the shape for the allocation
+ * per artifact. {@link #diff()} compares the Merkle trees of two indexes differing in one of every thousand artifacts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DeploymentIndexBenchmark {
+    private static final Supplier<InputStream> CONTENT = () -> new ByteArrayInputStream(new byte[0]);
+    private static final Supplier<InputStream> MODIFIED = () -> new ByteArrayInputStream(new byte[1]);
+    private static final int PROBES = 1 << 16;
+
+    @Param({ "10x10x10", "100x100x10", "100x100x100" })
+    private String shape;
+
+    private Artifact[] artifacts;
+    private DeploymentIndex index;
+    private DeploymentIndex modified;
+    private Artifact[] hits;
+    private Artifact[] misses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        artifacts = RegistryGenerator.artifacts(shape);
+        index = build();
+        var random = new Random(42);
+        hits = new Artifact[PROBES];
+        misses = new Artifact[PROBES];
+        for (var i = 0; i < PROBES; i++) {
+            var artifact = artifacts[random.nextInt(artifacts.length)];
+            hits[i] = new Artifact(new String(artifact.group()), new String(artifact.name()), new String(artifact.version()));
+            misses[i] = new Artifact(artifact.group(), artifact.name(), "9." + i);
+        }
+        var builder = DeploymentIndex.Builder.newInstance(artifacts.length);
+        for (var i = 0; i < artifacts.length; i++) {
+            builder.put(RegistryGenerator.type(i), artifacts[i], i % 1000 == 0 ? MODIFIED : CONTENT);
+        }
+        modified = builder.build();
+        index.merkleTree();
+        modified.merkleTree();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public DeploymentIndex build() {
+        var builder = DeploymentIndex.Builder.newInstance(artifacts.length);
+        for (var i = 0; i < artifacts.length; i++) {
+            builder.put(RegistryGenerator.type(i), artifacts[i], CONTENT);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public Supplier<InputStream> findArtifact() {
+        return index.findArtifact(hits[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Supplier<InputStream> findArtifactMiss() {
+        return index.findArtifact(misses[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Artifact findLatest() {
+        var artifact = hits[next++ & (PROBES - 1)];
+        return index.findLatest(artifact.group(), artifact.name());
+    }
+
+    @Benchmark
+    public IndexDiff diff() {
+        return modified.diff(index);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares compact file name parsing with {@link FilenameGrammar} against the former {@code String.split} based parser.
+ * Run with {@code -prof gc} to compare allocation per parsed name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FileParserBenchmark {
+
+    @Param({ "dspacex.generic-access.1.0.json", "dspacex.membership.4.1.82.Final.20221201.json", "invalid.name" })
+    private String filename;
+
+    private byte[] filenameBytes;
+
+    @Setup
+    public void setUp() {
+        filenameBytes = filename.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public Artifact grammar() {
+        return FilenameGrammar.DEFAULT.parse(filename);
+    }
+
+    @Benchmark
+    public Artifact grammarBytes() {
+        return FilenameGrammar.DEFAULT.parse(filenameBytes, 0, filenameBytes.length);
+    }
+
+    @Benchmark
+    public Artifact split() {
+        return splitParse(filename);
+    }
+
+    /**
+     * The former implementation of {@link FileParser#parseFilename(String)}, kept as a baseline.
+     */
+    private static Artifact splitParse(String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return null;
+        }
+        var tokens = filename.split("\\.");
+        if (tokens.length < 4) {
+            return null;
+        }
+        var version = new StringBuilder();
+        for (var i = 2; i < tokens.length - 1; i++) {
+            if (i > 2) {
+                version.append(".");
+            }
+            version.append(tokens[i]);
+        }
+        return new Artifact(tokens[0], tokens[1], version.toString());
+    }
+}
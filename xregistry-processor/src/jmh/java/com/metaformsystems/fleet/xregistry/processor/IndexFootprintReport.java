@@ -0,0 +1,43 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.IOException;
+
+/**
+ * Prints the estimated heap footprint of indexes built by walking generated registries, before and after building the
+ * navigation hierarchy. Shapes are given as arguments and default to the shapes of the {@link WalkerBenchmark}.
+ */
+public class IndexFootprintReport {
+
+    public static void main(String[] args) throws IOException {
+        var shapes = args.length > 0 ? args : new String[]{ "10x10x10", "100x100x10", "100x100x100" };
+        for (var shape : shapes) {
+            for (var layout : RegistryLayout.values()) {
+                var visitor = new DeploymentIndexVisitor();
+                var root = RegistryGenerator.registry(layout, shape);
+                var walker = switch (layout) {
+                    case COMPACT -> new CompactFileSystemWalker(visitor);
+                    case EXPANDED -> new ExpandedFileSystemWalker(visitor);
+                };
+                walker.walk(root);
+                var index = visitor.getIndex();
+                System.out.printf("%s %s%n%s", layout, shape, IndexFootprint.of(index).report());
+                index.findLatest("", "");
+                System.out.printf("%s %s with hierarchy%n%s%n", layout, shape, IndexFootprint.of(index).report());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the latency distribution of lookups in pinned snapshots of a {@link DeploymentIndexHolder} while another
+ * thread continuously rebuilds and publishes the index. Compare the percentiles of {@code reload:lookup} with those of
+ * {@code steady:steadyLookup}, which runs without reloads.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IndexReloadBenchmark {
+    private static final Supplier<InputStream> CONTENT = () -> new ByteArrayInputStream(new byte[0]);
+    private static final int PROBES = 1 << 16;
+
+    @Param({ "10x10x10", "100x100x10" })
+    private String shape;
+
+    private Artifact[] artifacts;
+    private DeploymentIndexHolder holder;
+    private Artifact[] hits;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() {
+        artifacts = RegistryGenerator.artifacts(shape);
+        holder = new DeploymentIndexHolder();
+        holder.publish(build());
+        var random = new Random(42);
+        hits = new Artifact[PROBES];
+        for (var i = 0; i < PROBES; i++) {
+            var artifact = artifacts[random.nextInt(artifacts.length)];
+            hits[i] = new Artifact(new String(artifact.group()), new String(artifact.name()), new String(artifact.version()));
+        }
+    }
+
+    @Benchmark
+    @Group("reload")
+    @GroupThreads(3)
+    public Supplier<InputStream> lookup(Cursor cursor) {
+        try (var snapshot = holder.pin()) {
+            return snapshot.index().findArtifact(hits[cursor.next++ & (PROBES - 1)]);
+        }
+    }
+
+    @Benchmark
+    @Group("reload")
+    @GroupThreads(1)
+    public long publish() {
+        return holder.publish(build());
+    }
+
+    @Benchmark
+    @Group("steady")
+    @GroupThreads(3)
+    public Supplier<InputStream> steadyLookup(Cursor cursor) {
+        return lookup(cursor);
+    }
+
+    private DeploymentIndex build() {
+        var builder = DeploymentIndex.Builder.newInstance(artifacts.length);
+        for (var i = 0; i < artifacts.length; i++) {
+            builder.put(RegistryGenerator.type(i), artifacts[i], CONTENT);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.metaformsystems.fleet.xregistry.processor.RegistryLayout.VERSIONS;
+
+/**
+ * Generates synthetic registries for benchmarks.
+ * <p>
+ * A registry has the shape {@code groups x resources x versions}, for example {@code 100x100x100} for one million
+ * artifact files. Resources are assigned to the policy, schema and rule types in turn. Generated registries are kept
+ * below {@code java.io.tmpdir} and reused by later runs with the same layout and shape.
+ */
+final class RegistryGenerator {
+    private static final String COMPLETE_MARKER = ".complete";
+
+    private RegistryGenerator() {
+    }
+
+    /**
+     * Returns the root of a registry with the given layout and shape, generating it if needed.
+     */
+    static Path registry(RegistryLayout layout, String shape) throws IOException {
+        var dimensions = parseShape(shape);
+        var root = Path.of(System.getProperty("java.io.tmpdir"), "xregistry-benchmark", layout.name().toLowerCase() + "-" + shape);
+        if (Files.exists(root.resolve(COMPLETE_MARKER))) {
+            return root;
+        }
+        for (var group = 0; group < dimensions[0]; group++) {
+            for (var resource = 0; resource < dimensions[1]; resource++) {
+                var type = type(resource);
+                var directory = switch (layout) {
+                    case COMPACT -> root.resolve(type.resourcesName());
+                    case EXPANDED -> root.resolve(type.groupName()).resolve(group(group)).resolve(type.resourcesName())
+                            .resolve(name(resource)).resolve(VERSIONS);
+                };
+                Files.createDirectories(directory);
+                for (var version = 0; version < dimensions[2]; version++) {
+                    var file = switch (layout) {
+                        case COMPACT -> group(group) + "." + name(resource) + "." + version(version) + ".json";
+                        case EXPANDED -> version(version) + ".json";
+                    };
+                    Files.writeString(directory.resolve(file), content(group, resource, version));
+                }
+            }
+        }
+        Files.createFile(root.resolve(COMPLETE_MARKER));
+        return root;
+    }
+
+    /**
+     * Returns the artifacts of a registry with the given shape as they are indexed from a compact layout.
+     */
+    static Artifact[] artifacts(String shape) {
+        var dimensions = parseShape(shape);
+        var artifacts = new Artifact[dimensions[0] * dimensions[1] * dimensions[2]];
+        var i = 0;
+        for (var group = 0; group < dimensions[0]; group++) {
+            for (var resource = 0; resource < dimensions[1]; resource++) {
+                for (var version = 0; version < dimensions[2]; version++) {
+                    artifacts[i++] = new Artifact(group(group), name(resource), version(version));
+                }
+            }
+        }
+        return artifacts;
+    }
+
+    static ArtifactType type(int resource) {
+        return ArtifactType.values()[resource % ArtifactType.values().length];
+    }
+
+    /**
+     * Returns the number of artifacts of a registry with the given shape.
+     */
+    static int size(String shape) {
+        var dimensions = parseShape(shape);
+        return dimensions[0] * dimensions[1] * dimensions[2];
+    }
+
+    private static int[] parseShape(String shape) {
+        var parts = shape.split("x");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Shape must be groups x resources x versions: " + shape);
+        }
+        return new int[]{ Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]) };
+    }
+
+    private static String group(int group) {
+        return "group" + group;
+    }
+
+    private static String name(int resource) {
+        return "resource-" + resource;
+    }
+
+    private static String version(int version) {
+        return "1." + version;
+    }
+
+    private static String content(int group, int resource, int version) {
+        return "{\"versionid\": \"" + version(version) + "\", \"description\": \"" + group(group) + "/" + name(resource) + "\"}";
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures walks of generated registries, with and without building a {@link DeploymentIndex}.
+ * <p>
+ * The {@code artifacts} counter reports walk throughput in artifacts per second. Registries are generated on first use,
+ * which can take several minutes for the largest shape. Run with {@code -prof gc} and divide
+ * {@code gc.alloc.rate.norm} by the artifact count of the shape for the allocation per artifact.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class WalkerBenchmark {
+
+    @Param({ "COMPACT", "EXPANDED" })
+    private RegistryLayout layout;
+
+    @Param({ "10x10x10", "100x100x10", "100x100x100" })
+    private String shape;
+
+    /**
+     * The number of concurrent walk tasks, where 1 walks sequentially on the benchmark thread.
+     */
+    @Param({ "1", "8" })
+    private int parallelism;
+
+    private Path root;
+    private ForkJoinPool pool;
+    private WalkerConfiguration configuration;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long artifacts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            artifacts = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        root = RegistryGenerator.registry(layout, shape);
+        var builder = WalkerConfiguration.Builder.newInstance();
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism);
+            builder.executor(pool).parallelism(parallelism);
+        }
+        configuration = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public long walk(Counters counters) {
+        var visitor = new CountingVisitor();
+        walker(visitor).walk(root);
+        var count = visitor.count.sum();
+        counters.artifacts += count;
+        return count;
+    }
+
+    @Benchmark
+    public DeploymentIndex buildIndex(Counters counters) {
+        var visitor = new DeploymentIndexVisitor();
+        walker(visitor).walk(root);
+        var index = visitor.getIndex();
+        counters.artifacts += index.size();
+        return index;
+    }
+
+    @Benchmark
+    public DeploymentIndex buildIndexConcurrently(Counters counters) {
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+        walker(visitor).walk(root);
+        var index = visitor.getIndex();
+        counters.artifacts += index.size();
+        return index;
+    }
+
+    private AbstractFileSystemWalker walker(XRegistryVisitor visitor) {
+        return switch (layout) {
+            case COMPACT -> new CompactFileSystemWalker(visitor, configuration);
+            case EXPANDED -> new ExpandedFileSystemWalker(visitor, configuration);
+        };
+    }
+
+    private static class CountingVisitor implements XRegistryVisitor {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
+            count.increment();
+        }
+
+        @Override
+        public void onSchema(Artifact artifact, Supplier<InputStream> ref) {
+            count.increment();
+        }
+
+        @Override
+        public void onRule(Artifact artifact, Supplier<InputStream> ref) {
+            count.increment();
+        }
+
+        @Override
+        public void onError(String problem) {
+            throw new IllegalStateException(problem);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    }
+}
@@ -14,68 +14,340 @@
 
 package com.metaformsystems.fleet.xregistry.processor;
 
-import org.jetbrains.annotations.NotNull;
-
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.function.Supplier;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static java.nio.file.Files.exists;
-import static java.nio.file.Files.newInputStream;
 
 /**
  * Base walker implementation.
+ * <p>
+ * The registry is traversed in a single pass. The root directory is listed once and each entry is routed to its
+ * {@link ArtifactType} through the {@link #dispatchTable() dispatch table} of the layout. Directories are classified by
+ * opening them, and the attributes of each candidate file are read once, so no entry is stat'ed more than once. Artifacts
+ * of different types are reported in no particular order.
+ * <p>
+ * Subclasses split their traversal into units of work using {@link #fork(Runnable)}. Sequential walks run each unit
+ * inline. Parallel walks queue them and submit at most {@link WalkerConfiguration#getParallelism() parallelism} tasks to
+ * the configured executor, each running queued units until none are left, so no executor thread blocks waiting for its turn.
+ * {@link #walk(Path)} returns once all units have completed, including when listing the root fails. A walker instance
+ * performs one walk at a time.
+ * <p>
+ * Each walk returns {@link WalkStatistics}. Subclasses report errors with {@link #reportError(String, Throwable)} and
+ * files that do not denote an artifact with {@link #skipFile(Path)} so that they are counted.
+ * <p>
+ * The {@link ArtifactSelection} of the configuration is pushed down into the traversal: type directories of unselected
+ * types are not listed, and subclasses check the remaining criteria before listing or stat'ing the entries they apply to.
  */
 public abstract class AbstractFileSystemWalker {
     protected final XRegistryVisitor visitor;
+    protected final WalkerConfiguration configuration;
+
+    private final Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final MetadataExtractor metadataExtractor;
+    private final ThreadLocal<ArtifactType> currentType = new ThreadLocal<>();
+    private WalkStatistics.Recorder statistics = new WalkStatistics.Recorder();
+    private AtomicInteger pending;
+    private CompletableFuture<Void> completion;
 
     public AbstractFileSystemWalker(XRegistryVisitor visitor) {
-        this.visitor = visitor;
+        this(visitor, WalkerConfiguration.defaults());
+    }
+
+    public AbstractFileSystemWalker(XRegistryVisitor visitor, WalkerConfiguration configuration) {
+        this.configuration = configuration;
+        this.visitor = configuration.isParallel() && !visitor.isThreadSafe() ? new SynchronizedVisitor(visitor) : visitor;
+        this.metadataExtractor = configuration.readsContent()
+                ? new MetadataExtractor(configuration.getMetadataFields(), configuration.isDigestContent())
+                : null;
     }
 
     /**
      * Walk the file system starting from the given root path.
      *
      * @param rootPath the root directory to start walking from
+     * @return the statistics of the walk
      */
-    public void walk(Path rootPath) {
+    public WalkStatistics walk(Path rootPath) {
+        statistics = new WalkStatistics.Recorder();
         visitor.onStart();
 
         try {
             if (!exists(rootPath)) {
+                statistics.error(NoSuchFileException.class.getSimpleName());
                 visitor.onError("Path does not exist: " + rootPath);
-                return;
+                return finish();
             }
 
-            processPath(ArtifactType.SCHEMA, rootPath);
-            processPath(ArtifactType.RULE, rootPath);
-            processPath(ArtifactType.POLICY, rootPath);
+            pending = new AtomicInteger(1);
+            completion = new CompletableFuture<>();
+
+            var dispatchTable = dispatchTable();
+            var selection = configuration.getSelection();
+            try {
+                forEachEntry(rootPath, entry -> {
+                    var type = dispatchTable.get(entry.getFileName().toString());
+                    if (type != null && selection.includes(type)) {
+                        fork(() -> runAs(type, () -> processTypeDirectory(type, entry)));
+                    }
+                });
+            } finally {
+                // wait for forked units even if listing the root failed, so none of them reports after the walk
+                complete();
+                completion.join();
+            }
 
             visitor.onComplete();
         } catch (Exception e) {
-            visitor.onError(rootPath + ":" + e.getMessage());
+            reportError(rootPath + ":" + e.getMessage(), e);
         }
+        return finish();
     }
 
-    protected abstract void processPath(ArtifactType type, Path rootPath);
+    /**
+     * Returns the table that maps top-level directory names of the layout to artifact types.
+     */
+    protected abstract Map<String, ArtifactType> dispatchTable();
 
-    protected void processFile(ArtifactType type, Artifact artifact, Path filePath) {
-        switch (type) {
-            case POLICY -> visitor.onPolicy(artifact, createSupplier(filePath));
-            case SCHEMA -> visitor.onSchema(artifact, createSupplier(filePath));
-            case RULE -> visitor.onRule(artifact, createSupplier(filePath));
+    /**
+     * Processes the top-level directory containing artifacts of the given type.
+     */
+    protected abstract void processTypeDirectory(ArtifactType type, Path typePath);
+
+    /**
+     * Invokes the action for each entry of the directory without reading entry attributes. The time spent reading entries,
+     * excluding the action, is recorded as the listing latency of the directory.
+     */
+    protected void forEachEntry(Path directory, Consumer<Path> action) throws IOException {
+        var event = new DirectoryListingEvent();
+        event.begin();
+        var start = System.nanoTime();
+        var entries = 0;
+        try (var stream = Files.newDirectoryStream(directory)) {
+            var iterator = stream.iterator();
+            var listingNanos = 0L;
+            while (true) {
+                var hasNext = iterator.hasNext();
+                var entry = hasNext ? iterator.next() : null;
+                var now = System.nanoTime();
+                listingNanos += now - start;
+                if (!hasNext) {
+                    break;
+                }
+                entries++;
+                action.accept(entry);
+                start = System.nanoTime();
+            }
+            statistics.directoryListed(directory, entries, listingNanos);
+            if (event.shouldCommit()) {
+                event.directory = directory.toString();
+                event.entries = entries;
+                event.listingTime = listingNanos;
+                event.commit();
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
         }
     }
 
-    private @NotNull Supplier<InputStream> createSupplier(Path filePath) {
-        return () -> {
+    /**
+     * Invokes the action for each regular file in the directory. The attributes of each entry are read once and passed to
+     * the action. Entries that disappear while listing are skipped.
+     */
+    protected void forEachFile(Path directory, BiConsumer<Path, BasicFileAttributes> action) throws IOException {
+        forEachEntry(directory, entry -> {
+            var attributes = readFileAttributes(entry);
+            if (attributes != null) {
+                action.accept(entry, attributes);
+            }
+        });
+    }
+
+    /**
+     * Reads the attributes of a directory entry and counts it as a visited file if it is a regular file. Returns null for
+     * entries that are not regular files, have disappeared or cannot be read, reporting the latter as errors.
+     */
+    protected BasicFileAttributes readFileAttributes(Path entry) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            reportError(entry + ":" + e.getMessage(), e);
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        statistics.fileVisited();
+        return attributes;
+    }
+
+    /**
+     * Runs a unit of traversal work. In parallel mode, the work is queued for a task on the configured executor and
+     * failures are reported to the visitor; otherwise, it runs on the calling thread. Queued work is timed as work for the
+     * artifact type of the submitting unit.
+     */
+    protected void fork(Runnable work) {
+        if (configuration.getExecutor() == null) {
+            work.run();
+            return;
+        }
+        var type = currentType.get();
+        pending.incrementAndGet();
+        queued.add(() -> runAs(type, work));
+        startWorker();
+    }
+
+    protected void processFile(ArtifactType type, Artifact artifact, Path filePath, BasicFileAttributes attributes) {
+        var event = new FileDispatchEvent();
+        event.begin();
+        var ref = FileReference.of(filePath, attributes);
+        var metadata = ArtifactMetadata.EMPTY;
+        if (metadataExtractor != null) {
             try {
-                return newInputStream(filePath);
+                metadata = metadataExtractor.extract(open(filePath));
             } catch (IOException e) {
-                throw new RuntimeException(e);
+                reportError(filePath + ":" + e.getMessage(), e);
+                return;
             }
-        };
+        }
+        visitor.onArtifact(type, artifact, ref, metadata);
+        if (event.shouldCommit()) {
+            event.path = filePath.toString();
+            event.artifact = artifact.group() + "/" + artifact.name() + "/" + artifact.version();
+            event.artifactType = type.name();
+            event.bytes = attributes.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Opens a file read during the walk, counting the bytes read if {@link ProcessorMetrics} are active.
+     */
+    private static InputStream open(Path filePath) throws IOException {
+        var stream = Files.newInputStream(filePath);
+        var instruments = Instruments.get();
+        return instruments.metered ? new MeteredInputStream(stream, instruments) : stream;
+    }
+
+    /**
+     * Records that a visited file does not denote an artifact.
+     */
+    protected void skipFile(Path filePath) {
+        statistics.fileSkipped();
+    }
+
+    /**
+     * Reports a problem to the visitor and counts it by the type of its cause.
+     */
+    protected void reportError(String problem, Throwable cause) {
+        statistics.error(cause);
+        visitor.onError(problem);
+    }
+
+    /**
+     * Runs work on behalf of an artifact type and records its duration, or just runs it if the type is unknown.
+     */
+    private void runAs(ArtifactType type, Runnable work) {
+        if (type == null) {
+            work.run();
+            return;
+        }
+        var previous = currentType.get();
+        currentType.set(type);
+        var start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            statistics.typeWork(type, System.nanoTime() - start);
+            currentType.set(previous);
+        }
+    }
+
+    /**
+     * Returns the statistics of the walk and records them to the active {@link ProcessorMetrics}.
+     */
+    private WalkStatistics finish() {
+        var snapshot = statistics.snapshot();
+        var instruments = Instruments.get();
+        instruments.walkDirectories.add(snapshot.directoriesListed());
+        instruments.walkFiles.add(snapshot.filesVisited());
+        instruments.walkErrors.add(snapshot.errorCount());
+        instruments.walkDuration.record(snapshot.elapsed().toNanos());
+        return snapshot;
+    }
+
+    /**
+     * Submits a task draining the queue unless the parallelism is exhausted. If the executor rejects the task and no other
+     * task is running, the queued units are reported as rejected.
+     */
+    private void startWorker() {
+        if (!tryStartWorker()) {
+            return;
+        }
+        try {
+            configuration.getExecutor().execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            if (workers.decrementAndGet() == 0) {
+                for (var work = queued.poll(); work != null; work = queued.poll()) {
+                    reportError("Walk task rejected: " + e.getMessage(), e);
+                    complete();
+                }
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            for (var work = queued.poll(); work != null; work = queued.poll()) {
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    reportError("Walk task failed: " + e.getMessage(), e);
+                } finally {
+                    complete();
+                }
+            }
+            workers.decrementAndGet();
+            // a unit queued after the last poll may have found all workers busy
+        } while (!queued.isEmpty() && tryStartWorker());
+    }
+
+    /**
+     * Counts a new worker if the parallelism allows it.
+     */
+    private boolean tryStartWorker() {
+        while (true) {
+            var running = workers.get();
+            if (running >= configuration.getParallelism()) {
+                return false;
+            }
+            if (workers.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void complete() {
+        if (pending.decrementAndGet() == 0) {
+            completion.complete(null);
+        }
     }
 
 }
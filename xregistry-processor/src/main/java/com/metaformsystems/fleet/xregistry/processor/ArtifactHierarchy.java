@@ -0,0 +1,259 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * The artifacts of a {@link DeploymentIndex} arranged as a group, resource name and version hierarchy in sorted arrays.
+ * <p>
+ * Groups are sorted by name. The names of each group and the versions of each name are sorted and stored contiguously,
+ * so all artifacts of a group or name form a single range. Every level is located by binary search and exposed as a list
+ * view over its range, so counts take logarithmic time and iteration is proportional to the result. Versions are ordered
+ * by {@link Version}.
+ * <p>
+ * A hierarchy is built by its index on the first query. Resolved version ranges are memoized. Since an index never
+ * changes, memoized results are discarded together with the hierarchy when a new index replaces it.
+ */
+final class ArtifactHierarchy {
+    private static final int MAX_MEMOIZED = 4096;
+
+    private record Query(String group, String name, VersionRange range) {
+    }
+
+    private final DeploymentIndex index;
+    private final String[] groups;
+    private final int[] groupStarts; // group -> first name, with a trailing end marker
+    private final String[] names;
+    private final int[] nameStarts; // name -> first version, with a trailing end marker
+    private final Version[] versions;
+    private final int[] ids;
+    private final Map<Query, Integer> resolved = new ConcurrentHashMap<>();
+
+    ArtifactHierarchy(DeploymentIndex index) {
+        this.index = index;
+        var size = index.size();
+        var parsed = new Version[size];
+        var order = new Integer[size];
+        for (var id = 0; id < size; id++) {
+            parsed[id] = Version.parse(index.artifact(id).version());
+            order[id] = id;
+        }
+        Arrays.sort(order, (left, right) -> {
+            var leftArtifact = index.artifact(left);
+            var rightArtifact = index.artifact(right);
+            var result = leftArtifact.group().compareTo(rightArtifact.group());
+            if (result == 0) {
+                result = leftArtifact.name().compareTo(rightArtifact.name());
+            }
+            return result != 0 ? result : parsed[left].compareTo(parsed[right]);
+        });
+
+        var groupList = new String[size];
+        var groupStartList = new int[size + 1];
+        var nameList = new String[size];
+        var nameStartList = new int[size + 1];
+        versions = new Version[size];
+        ids = new int[size];
+        var groupCount = 0;
+        var nameCount = 0;
+        for (var i = 0; i < size; i++) {
+            var id = order[i];
+            var artifact = index.artifact(id);
+            var newGroup = groupCount == 0 || !groupList[groupCount - 1].equals(artifact.group());
+            if (newGroup) {
+                groupList[groupCount] = artifact.group();
+                groupStartList[groupCount++] = nameCount;
+            }
+            if (newGroup || !nameList[nameCount - 1].equals(artifact.name())) {
+                nameList[nameCount] = artifact.name();
+                nameStartList[nameCount++] = i;
+            }
+            versions[i] = parsed[id];
+            ids[i] = id;
+        }
+        groupStartList[groupCount] = nameCount;
+        nameStartList[nameCount] = size;
+        groups = Arrays.copyOf(groupList, groupCount);
+        groupStarts = Arrays.copyOf(groupStartList, groupCount + 1);
+        names = Arrays.copyOf(nameList, nameCount);
+        nameStarts = Arrays.copyOf(nameStartList, nameCount + 1);
+    }
+
+    List<String> groups(String prefix) {
+        return slice(groups, 0, groups.length, prefix);
+    }
+
+    List<String> names(String group, String prefix) {
+        var g = findGroup(group);
+        return g < 0 ? List.of() : slice(names, groupStarts[g], groupStarts[g + 1], prefix);
+    }
+
+    /**
+     * Returns the artifacts of a group ordered by name and version.
+     */
+    List<Artifact> artifacts(String group) {
+        var g = findGroup(group);
+        return g < 0 ? List.of() : artifacts(nameStarts[groupStarts[g]], nameStarts[groupStarts[g + 1]]);
+    }
+
+    List<Artifact> versions(String group, String name) {
+        var n = findName(group, name);
+        return n < 0 ? List.of() : artifacts(nameStarts[n], nameStarts[n + 1]);
+    }
+
+    List<Artifact> versions(String group, String name, VersionRange range) {
+        var n = findName(group, name);
+        if (n < 0) {
+            return List.of();
+        }
+        var from = search(nameStarts[n], nameStarts[n + 1], version -> !range.isAboveLower(version));
+        var to = search(from, nameStarts[n + 1], range::isBelowUpper);
+        return artifacts(from, to);
+    }
+
+    /**
+     * Returns the id of the highest version of the name or -1.
+     */
+    int latest(String group, String name) {
+        var n = findName(group, name);
+        return n < 0 ? -1 : ids[nameStarts[n + 1] - 1];
+    }
+
+    /**
+     * Returns the id of the highest version of the name within the range or -1.
+     */
+    int resolve(String group, String name, VersionRange range) {
+        var query = new Query(group, name, range);
+        var id = resolved.get(query);
+        if (id != null) {
+            return id;
+        }
+        var n = findName(group, name);
+        id = -1;
+        if (n >= 0) {
+            // versions below the upper bound form a prefix of the name's range; check the last one
+            var candidate = search(nameStarts[n], nameStarts[n + 1], range::isBelowUpper) - 1;
+            if (candidate >= nameStarts[n] && range.isAboveLower(versions[candidate])) {
+                id = ids[candidate];
+            }
+        }
+        if (resolved.size() < MAX_MEMOIZED) {
+            resolved.put(query, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the estimated size of the hierarchy, including parsed versions and memoized results but excluding the
+     * group and name strings, which are shared with the artifacts.
+     */
+    long footprint(ObjectSizes sizes) {
+        var size = sizes.shallowSize(ArtifactHierarchy.class) + sizes.referenceArray(groups.length)
+                + sizes.array(groupStarts.length, Integer.BYTES) + sizes.referenceArray(names.length)
+                + sizes.array(nameStarts.length, Integer.BYTES) + sizes.referenceArray(versions.length)
+                + sizes.array(ids.length, Integer.BYTES);
+        for (var version : versions) {
+            size += version.footprint(sizes);
+        }
+        // memoized entries: a map node holding a query and a boxed id, and a table slot
+        var entries = resolved.size();
+        var entry = sizes.instance(3, Integer.BYTES) + sizes.shallowSize(Query.class) + sizes.shallowSize(Integer.class);
+        return size + sizes.shallowSize(ConcurrentHashMap.class) + entries * (entry + 2L * sizes.referenceSize());
+    }
+
+    private int findGroup(String group) {
+        var g = Arrays.binarySearch(groups, group);
+        return g >= 0 ? g : -1;
+    }
+
+    private int findName(String group, String name) {
+        var g = findGroup(group);
+        if (g < 0) {
+            return -1;
+        }
+        var n = Arrays.binarySearch(names, groupStarts[g], groupStarts[g + 1], name);
+        return n >= 0 ? n : -1;
+    }
+
+    /**
+     * Returns the first position in the range whose version does not match the predicate, which must hold for a prefix of
+     * the range only.
+     */
+    private int search(int from, int to, Predicate<Version> predicate) {
+        var low = from;
+        var high = to;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (predicate.test(versions[middle])) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Artifact> artifacts(int from, int to) {
+        return view(to - from, i -> index.artifact(ids[from + i]));
+    }
+
+    /**
+     * Returns the strings of a sorted range that start with the prefix.
+     */
+    private static List<String> slice(String[] values, int from, int to, String prefix) {
+        if (prefix.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(values).subList(from, to));
+        }
+        var start = Arrays.binarySearch(values, from, to, prefix);
+        start = start >= 0 ? start : -start - 1;
+        // values below the prefix or starting with it form a prefix of the sorted range
+        var low = start;
+        var high = to;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            if (values[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(values).subList(start, low));
+    }
+
+    private static <T> List<T> view(int size, IntFunction<T> element) {
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return element.apply(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
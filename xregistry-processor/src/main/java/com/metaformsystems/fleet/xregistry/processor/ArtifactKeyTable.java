@@ -0,0 +1,187 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Assigns dense {@code int} ids to artifacts and interns their group, name and version strings.
+ * <p>
+ * Each distinct artifact is stored once as a canonical {@link Artifact} whose strings are shared with all other artifacts
+ * of the same group, name or version. Ids are assigned in insertion order starting at zero and are never reused, so they
+ * can index plain arrays. Lookups probe an open-addressing table of ids and compare the cached hash of each candidate
+ * before comparing strings.
+ * <p>
+ * This class is not thread-safe. Once fully populated and safely published, it may be read from multiple threads.
+ * {@link #compact(IntPredicate)} produces read-only copies sized exactly to their content.
+ */
+public class ArtifactKeyTable {
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    private final Map<String, String> strings;
+    private Artifact[] artifacts;
+    private int[] hashes;
+    private int[] slots; // id + 1, 0 marks an empty slot
+    private int size;
+
+    public ArtifactKeyTable() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public ArtifactKeyTable(int expectedSize) {
+        var capacity = Math.max(expectedSize, 1);
+        strings = new HashMap<>();
+        artifacts = new Artifact[capacity];
+        hashes = new int[capacity];
+        slots = new int[tableSizeFor(capacity)];
+    }
+
+    private ArtifactKeyTable(Artifact[] artifacts, int[] hashes, int size) {
+        this.strings = null;
+        this.artifacts = artifacts;
+        this.hashes = hashes;
+        this.size = size;
+        rehash(tableSizeFor(Math.max(size, 1)));
+    }
+
+    /**
+     * Returns the id of the artifact or -1 if the artifact has not been added.
+     */
+    public int idOf(Object key) {
+        if (!(key instanceof Artifact artifact)) {
+            return -1;
+        }
+        var hash = hash(artifact);
+        var mask = slots.length - 1;
+        for (var slot = hash & mask; ; slot = (slot + 1) & mask) {
+            var id = slots[slot] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (hashes[id] == hash && artifacts[id].equals(artifact)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Adds the artifact if absent and returns its id.
+     */
+    public int add(Artifact artifact) {
+        var id = idOf(artifact);
+        if (id >= 0) {
+            return id;
+        }
+        if (isReadOnly()) {
+            throw new UnsupportedOperationException("Key table is read-only");
+        }
+        if (size == artifacts.length) {
+            var capacity = artifacts.length * 2;
+            artifacts = Arrays.copyOf(artifacts, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        id = size++;
+        artifacts[id] = new Artifact(intern(artifact.group()), intern(artifact.name()), intern(artifact.version()));
+        hashes[id] = hash(artifact);
+        insert(id);
+        return id;
+    }
+
+    /**
+     * Returns the canonical artifact for the given id.
+     */
+    public Artifact artifact(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(id);
+        }
+        return artifacts[id];
+    }
+
+    /**
+     * Returns the number of artifacts, which is also the next id to be assigned.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if artifacts cannot be added to this table.
+     */
+    public boolean isReadOnly() {
+        return strings == null;
+    }
+
+    /**
+     * Returns a read-only copy holding the artifacts whose ids match the predicate. Retained artifacts keep their relative
+     * order and are renumbered densely from zero; the copy is presized to exactly the retained count.
+     */
+    public ArtifactKeyTable compact(IntPredicate retain) {
+        var retainedArtifacts = new Artifact[size];
+        var retainedHashes = new int[size];
+        var count = 0;
+        for (var id = 0; id < size; id++) {
+            if (retain.test(id)) {
+                retainedArtifacts[count] = artifacts[id];
+                retainedHashes[count] = hashes[id];
+                count++;
+            }
+        }
+        return new ArtifactKeyTable(Arrays.copyOf(retainedArtifacts, count), Arrays.copyOf(retainedHashes, count), count);
+    }
+
+    /**
+     * Returns the estimated size of this table and its arrays, excluding the artifacts and the intern map.
+     */
+    long footprint(ObjectSizes sizes) {
+        return sizes.shallowSize(ArtifactKeyTable.class) + sizes.referenceArray(artifacts.length)
+                + sizes.array(hashes.length, Integer.BYTES) + sizes.array(slots.length, Integer.BYTES);
+    }
+
+    private String intern(String value) {
+        var interned = strings.putIfAbsent(value, value);
+        return interned != null ? interned : value;
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        for (var id = 0; id < size; id++) {
+            insert(id);
+        }
+    }
+
+    private void insert(int id) {
+        var mask = slots.length - 1;
+        var slot = hashes[id] & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    private static int hash(Artifact artifact) {
+        var hash = artifact.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A map keyed by artifact ids from an {@link ArtifactKeyTable}. Values are stored in an array indexed by id, so there are
+ * no per-entry node objects. Several maps may share one key table, in which case each artifact key is stored only once.
+ * <p>
+ * Null values are not permitted. Like {@link java.util.HashMap}, this class is not thread-safe.
+ */
+public class ArtifactMap<V> extends AbstractMap<Artifact, V> {
+    private final ArtifactKeyTable keys;
+    private Object[] values;
+    private int size;
+    private int modifications;
+
+    public ArtifactMap(ArtifactKeyTable keys) {
+        this.keys = keys;
+        this.values = new Object[Math.max(keys.size(), 16)];
+    }
+
+    /**
+     * Returns the value stored for the artifact id or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        return id >= 0 && id < values.length ? (V) values[id] : null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return get(keys.idOf(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(Artifact key, V value) {
+        requireNonNull(value, "value cannot be null");
+        var id = keys.add(key);
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+        }
+        var previous = (V) values[id];
+        values[id] = value;
+        if (previous == null) {
+            size++;
+            modifications++;
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        var id = keys.idOf(key);
+        var previous = get(id);
+        if (previous != null) {
+            values[id] = null;
+            size--;
+            modifications++;
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        modifications++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Artifact, ? super V> action) {
+        var expected = modifications;
+        for (var id = 0; id < values.length; id++) {
+            if (values[id] != null) {
+                action.accept(keys.artifact(id), (V) values[id]);
+            }
+        }
+        if (expected != modifications) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<Artifact, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Entry<Artifact, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<Artifact, V>> {
+        private int expected = modifications;
+        private int next = advance(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<Artifact, V> next() {
+            if (expected != modifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new SimpleImmutableEntry<>(keys.artifact(last), (V) values[last]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            ArtifactMap.this.remove(keys.artifact(last));
+            expected = modifications;
+            last = -1;
+        }
+
+        private int advance(int from) {
+            var id = from;
+            while (id < values.length && values[id] == null) {
+                id++;
+            }
+            return id;
+        }
+    }
+}
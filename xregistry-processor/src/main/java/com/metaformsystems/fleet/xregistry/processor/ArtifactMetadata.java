@@ -0,0 +1,123 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Top-level fields extracted from the content of an artifact. Scalar values are kept as text and arrays of scalars as
+ * lists of text; object values are not extracted.
+ * <p>
+ * Metadata created by a {@link MetadataExtractor} also records which fields were looked up, so consumers can tell a field
+ * that is absent from the content from one that was never extracted, and only read the content in the latter case. If
+ * the walk {@link WalkerConfiguration#isDigestContent() digests content}, the metadata also carries the SHA-256 of the
+ * whole content, which {@link MerkleTree} uses instead of reading the content again.
+ *
+ * @see MetadataExtractor
+ */
+public final class ArtifactMetadata {
+    public static final ArtifactMetadata EMPTY = new ArtifactMetadata(Map.of());
+
+    private final Map<String, Object> fields;
+    private final Set<String> extracted;
+    private final byte @Nullable [] sha256;
+
+    ArtifactMetadata(Map<String, Object> fields) {
+        this(fields, fields.keySet());
+    }
+
+    /**
+     * Creates metadata holding the values found for the extracted fields, which should be a set shared by all metadata
+     * of one extractor.
+     */
+    ArtifactMetadata(Map<String, Object> fields, Set<String> extracted) {
+        this(fields, extracted, null);
+    }
+
+    ArtifactMetadata(Map<String, Object> fields, Set<String> extracted, byte @Nullable [] sha256) {
+        this.fields = Map.copyOf(fields);
+        this.extracted = extracted;
+        this.sha256 = sha256;
+    }
+
+    /**
+     * Returns the text of a scalar field, or null if the field is absent or is an array.
+     */
+    @Nullable
+    public String get(String field) {
+        return fields.get(field) instanceof String value ? value : null;
+    }
+
+    /**
+     * Returns the values of an array field, a scalar field as a single value, or an empty list if the field is absent.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getAll(String field) {
+        var value = fields.get(field);
+        if (value == null) {
+            return List.of();
+        }
+        return value instanceof String text ? List.of(text) : (List<String>) value;
+    }
+
+    public Set<String> fields() {
+        return fields.keySet();
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+
+    /**
+     * Returns true if all the given fields were looked up when this metadata was extracted, so that any of them missing
+     * here is also missing from the content.
+     */
+    public boolean covers(Set<String> fieldNames) {
+        return extracted.containsAll(fieldNames);
+    }
+
+    /**
+     * Returns the digest of the content in the form {@code sha256:[hex]}, or null if the content was not digested.
+     */
+    @Nullable
+    public String contentDigest() {
+        return sha256 != null ? "sha256:" + HexFormat.of().formatHex(sha256) : null;
+    }
+
+    /**
+     * Returns the raw digest of the content or null. The array must not be modified.
+     */
+    byte @Nullable [] sha256() {
+        return sha256;
+    }
+
+    /**
+     * Returns true if this metadata holds no values, records no extracted fields and carries no digest, so it need not
+     * be stored.
+     */
+    boolean isBlank() {
+        return fields.isEmpty() && extracted.isEmpty() && sha256 == null;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Selects the artifacts a walk reports by type, group, resource name and version.
+ * <p>
+ * Walkers apply each criterion at the level of the registry where it is known, before listing the directory beneath it:
+ * type directories of unselected types, group directories of unselected groups and resource directories of unselected
+ * names are never listed, and files of unselected versions are never stat'ed. In compact registries the parsed file name
+ * is checked before the file is stat'ed or a reference is created.
+ * <p>
+ * Groups are matched exactly and names by glob patterns, in which {@code *} matches any sequence of characters and
+ * {@code ?} a single character. Versions are matched with a {@link VersionRange}. Criteria that are not set match
+ * everything. The {@link #ALL default selection} selects all artifacts.
+ */
+public final class ArtifactSelection {
+    public static final ArtifactSelection ALL = Builder.newInstance().build();
+
+    private Set<ArtifactType> types = Collections.unmodifiableSet(EnumSet.allOf(ArtifactType.class));
+    private Set<String> groups = Set.of();
+    private List<Pattern> names = List.of();
+    private VersionRange versions = VersionRange.ANY;
+    private boolean all;
+
+    private ArtifactSelection() {
+    }
+
+    /**
+     * Returns true if all artifacts are selected, so walkers can skip checking each one.
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    public boolean includes(ArtifactType type) {
+        return types.contains(type);
+    }
+
+    public boolean includesGroup(String group) {
+        return groups.isEmpty() || groups.contains(group);
+    }
+
+    public boolean includesName(String name) {
+        if (names.isEmpty()) {
+            return true;
+        }
+        for (var pattern : names) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean includesVersion(String version) {
+        return VersionRange.ANY.equals(versions) || versions.contains(Version.parse(version));
+    }
+
+    /**
+     * Returns true if the artifact of the given type is selected.
+     */
+    public boolean matches(ArtifactType type, Artifact artifact) {
+        return includes(type) && includesGroup(artifact.group()) && includesName(artifact.name()) && includesVersion(artifact.version());
+    }
+
+    public Set<ArtifactType> getTypes() {
+        return types;
+    }
+
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public VersionRange getVersions() {
+        return versions;
+    }
+
+    /**
+     * Converts a glob to a pattern matching the whole name.
+     */
+    private static Pattern glob(String glob) {
+        var regex = new StringBuilder();
+        var literal = new StringBuilder();
+        for (var i = 0; i < glob.length(); i++) {
+            var c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    public static class Builder {
+        private final ArtifactSelection selection;
+
+        private Builder() {
+            selection = new ArtifactSelection();
+        }
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Restricts the selection to the given types.
+         */
+        public Builder types(Set<ArtifactType> types) {
+            if (types.isEmpty()) {
+                throw new IllegalArgumentException("types must not be empty");
+            }
+            selection.types = Collections.unmodifiableSet(EnumSet.copyOf(types));
+            return this;
+        }
+
+        /**
+         * Restricts the selection to the given groups.
+         */
+        public Builder groups(Set<String> groups) {
+            selection.groups = Set.copyOf(groups);
+            return this;
+        }
+
+        /**
+         * Restricts the selection to resource names matching any of the glob patterns.
+         */
+        public Builder names(Set<String> globs) {
+            var patterns = new ArrayList<Pattern>();
+            for (var name : globs) {
+                patterns.add(glob(requireNonNull(name, "glob cannot be null")));
+            }
+            selection.names = List.copyOf(patterns);
+            return this;
+        }
+
+        /**
+         * Restricts the selection to versions within the range.
+         */
+        public Builder versions(VersionRange versions) {
+            selection.versions = requireNonNull(versions, "versions cannot be null");
+            return this;
+        }
+
+        /**
+         * Restricts the selection to versions within a range in one of the notations supported by
+         * {@link VersionRange#parse(String)}.
+         */
+        public Builder versions(String range) {
+            return versions(VersionRange.parse(range));
+        }
+
+        public ArtifactSelection build() {
+            selection.all = selection.types.size() == ArtifactType.values().length && selection.groups.isEmpty()
+                    && selection.names.isEmpty() && VersionRange.ANY.equals(selection.versions);
+            return selection;
+        }
+    }
+}
@@ -15,11 +15,12 @@
 package com.metaformsystems.fleet.xregistry.processor;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
-import static com.metaformsystems.fleet.xregistry.processor.FileParser.parseFilename;
-import static java.nio.file.Files.exists;
+import static java.util.Arrays.stream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Walks a file-system-based xRegistry that is in compact format.
@@ -31,31 +32,50 @@
  * <li>SCHEMA - under /schemas</li>
  * <li>RULE - under /rules</li>
  * </ul>
+ * In parallel mode, each resource type directory is processed as a separate task. File names are parsed before their
+ * attributes are read, so files outside the {@link ArtifactSelection} of the configuration are never stat'ed.
  */
 public class CompactFileSystemWalker extends AbstractFileSystemWalker {
+    private static final Map<String, ArtifactType> DISPATCH_TABLE = stream(ArtifactType.values())
+            .collect(toMap(ArtifactType::resourcesName, identity()));
 
     public CompactFileSystemWalker(XRegistryVisitor visitor) {
         super(visitor);
     }
 
-    protected void processPath(ArtifactType type, Path rootPath) {
-        var resourcePath = rootPath.resolve(type.resourcesName());
-        if (exists(resourcePath)) {
-            try (var paths = Files.list(resourcePath)) {
-                paths.filter(Files::isRegularFile)
-                        .forEach(filePath -> processFile(type, filePath));
-            } catch (IOException e) {
-                visitor.onError(resourcePath.toString());
-            }
+    public CompactFileSystemWalker(XRegistryVisitor visitor, WalkerConfiguration configuration) {
+        super(visitor, configuration);
+    }
+
+    @Override
+    protected Map<String, ArtifactType> dispatchTable() {
+        return DISPATCH_TABLE;
+    }
+
+    @Override
+    protected void processTypeDirectory(ArtifactType type, Path resourcePath) {
+        try {
+            var selection = configuration.getSelection();
+            forEachEntry(resourcePath, filePath -> processEntry(type, selection, filePath));
+        } catch (IOException e) {
+            reportError(resourcePath.toString(), e);
         }
     }
 
-    private void processFile(ArtifactType type, Path filePath) {
-        var artifact = parseFilename(filePath.getFileName().toString());
+    private void processEntry(ArtifactType type, ArtifactSelection selection, Path filePath) {
+        var artifact = configuration.getFilenameGrammar().parse(filePath.getFileName().toString());
+        if (artifact != null && !selection.isAll() && !selection.matches(type, artifact)) {
+            return;
+        }
+        var attributes = readFileAttributes(filePath);
+        if (attributes == null) {
+            return;
+        }
         if (artifact == null) {
+            skipFile(filePath);
             return;
         }
-        processFile(type, artifact, filePath);
+        processFile(type, artifact, filePath, attributes);
     }
 
 }
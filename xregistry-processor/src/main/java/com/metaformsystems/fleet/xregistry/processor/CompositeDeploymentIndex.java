@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Overlays the indexes of several registries, such as a base registry, a regional overlay and tenant overrides, in a
+ * declared order of precedence.
+ * <p>
+ * Layers are indexed concurrently, each on its own virtual thread, and then merged into a single {@link DeploymentIndex}
+ * in which an artifact of a layer replaces the artifact of any layer declared before it, including its type and
+ * metadata. Lookups in the {@link #index() merged index} are therefore a single hash probe regardless of the number of
+ * layers. The index of each layer is retained to answer per-layer queries, and the layer providing each merged artifact
+ * is recorded. Per-layer queries probe the in-memory index of each layer directly, which costs a single hash probe.
+ * <p>
+ * Instances are created with a {@link Builder} and may be shared by any number of threads without synchronization.
+ */
+public final class CompositeDeploymentIndex {
+    private static final int MAX_LAYERS = 256;
+
+    private final List<String> names;
+    private final DeploymentIndex[] layers;
+    private final DeploymentIndex index;
+    private final byte[] origins;
+    private final List<String> problems;
+    private final Map<String, WalkStatistics> statistics;
+
+    private CompositeDeploymentIndex(List<String> names, DeploymentIndex[] layers, List<String> problems,
+                                     Map<String, WalkStatistics> statistics) {
+        this.names = List.copyOf(names);
+        this.layers = layers;
+        this.problems = List.copyOf(problems);
+        this.statistics = Collections.unmodifiableMap(statistics);
+        var size = 0;
+        for (var layer : layers) {
+            size += layer.size();
+        }
+        var builder = DeploymentIndex.Builder.newInstance(size);
+        for (var layer : layers) {
+            for (var id = 0; id < layer.size(); id++) {
+                builder.put(layer.type(id), layer.artifact(id), layer.ref(id), layer.metadata(id));
+            }
+        }
+        index = builder.build();
+        origins = new byte[index.size()];
+        for (var layer = 1; layer < layers.length; layer++) {
+            for (var id = 0; id < layers[layer].size(); id++) {
+                origins[index.idOf(layers[layer].artifact(id))] = (byte) layer;
+            }
+        }
+    }
+
+    /**
+     * Returns the merged index.
+     */
+    public DeploymentIndex index() {
+        return index;
+    }
+
+    /**
+     * Returns the reference for the artifact from the layer with the highest precedence defining it, or null if no layer
+     * defines the artifact.
+     */
+    public Supplier<InputStream> findArtifact(Artifact artifact) {
+        return index.findArtifact(artifact);
+    }
+
+    /**
+     * Returns the reference for the artifact as defined by the named layer, or null if the layer does not define it.
+     */
+    public @Nullable Supplier<InputStream> findArtifact(String layer, Artifact artifact) {
+        return layers[position(layer)].findArtifact(artifact);
+    }
+
+    /**
+     * Returns the name of the layer providing the artifact in the merged index, or null if no layer defines it.
+     */
+    public @Nullable String layerOf(Artifact artifact) {
+        var id = index.idOf(artifact);
+        return id >= 0 ? names.get(origins[id] & 0xFF) : null;
+    }
+
+    /**
+     * Returns the names of all layers defining the artifact, highest precedence first. All but the first are shadowed in
+     * the merged index.
+     */
+    public List<String> layersDefining(Artifact artifact) {
+        var result = new ArrayList<String>();
+        for (var position = layers.length - 1; position >= 0; position--) {
+            if (layers[position].idOf(artifact) >= 0) {
+                result.add(names.get(position));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the layer names in ascending order of precedence.
+     */
+    public List<String> layers() {
+        return names;
+    }
+
+    /**
+     * Returns the index of the named layer.
+     */
+    public DeploymentIndex layer(String name) {
+        return layers[position(name)];
+    }
+
+    /**
+     * Returns the statistics of the layers that were walked, keyed by layer name.
+     */
+    public Map<String, WalkStatistics> statistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns the problems reported while indexing the layers, each prefixed with the name of its layer.
+     */
+    public ValidationResult validate() {
+        return new ValidationResult(problems.isEmpty(), problems.isEmpty() ? emptyList() : problems);
+    }
+
+    private int position(String layer) {
+        var position = names.indexOf(layer);
+        if (position < 0) {
+            throw new IllegalArgumentException("Unknown layer: " + layer);
+        }
+        return position;
+    }
+
+    private record LayerResult(DeploymentIndex index, List<String> problems, @Nullable WalkStatistics statistics) {
+    }
+
+    public static class Builder {
+        private final Map<String, Callable<LayerResult>> layers = new LinkedHashMap<>();
+        private WalkerConfiguration configuration = WalkerConfiguration.defaults();
+
+        private Builder() {
+        }
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Adds a registry root as a layer taking precedence over all layers added before it.
+         */
+        public Builder layer(String name, Path root, RegistryLayout layout) {
+            requireNonNull(root, "root cannot be null");
+            requireNonNull(layout, "layout cannot be null");
+            return add(name, () -> {
+                var visitor = new DeploymentIndexVisitor();
+                var walker = switch (layout) {
+                    case COMPACT -> new CompactFileSystemWalker(visitor, configuration);
+                    case EXPANDED -> new ExpandedFileSystemWalker(visitor, configuration);
+                };
+                var statistics = walker.walk(root);
+                return new LayerResult(visitor.getIndex(), visitor.validate().problems(), statistics);
+            });
+        }
+
+        /**
+         * Adds an existing index as a layer taking precedence over all layers added before it.
+         */
+        public Builder layer(String name, DeploymentIndex index) {
+            requireNonNull(index, "index cannot be null");
+            return add(name, () -> new LayerResult(index, emptyList(), null));
+        }
+
+        /**
+         * Sets the configuration of the walks of registry roots.
+         */
+        public Builder configuration(WalkerConfiguration configuration) {
+            this.configuration = requireNonNull(configuration, "configuration cannot be null");
+            return this;
+        }
+
+        /**
+         * Indexes the layers concurrently and merges them. Problems of a layer do not prevent the merge; they are
+         * reported by {@link CompositeDeploymentIndex#validate()}.
+         */
+        public CompositeDeploymentIndex build() {
+            var futures = new LinkedHashMap<String, Future<LayerResult>>();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                layers.forEach((name, layer) -> futures.put(name, executor.submit(layer)));
+            }
+            var indexes = new DeploymentIndex[futures.size()];
+            var problems = new ArrayList<String>();
+            var statistics = new LinkedHashMap<String, WalkStatistics>();
+            var position = 0;
+            for (var entry : futures.entrySet()) {
+                var name = entry.getKey();
+                var future = entry.getValue();
+                if (future.state() == Future.State.SUCCESS) {
+                    var result = future.resultNow();
+                    indexes[position] = result.index();
+                    result.problems().forEach(problem -> problems.add(name + ": " + problem));
+                    if (result.statistics() != null) {
+                        statistics.put(name, result.statistics());
+                    }
+                } else {
+                    indexes[position] = DeploymentIndex.Builder.newInstance().build();
+                    problems.add(name + ": Layer failed: " + future.exceptionNow().getMessage());
+                }
+                position++;
+            }
+            return new CompositeDeploymentIndex(new ArrayList<>(futures.keySet()), indexes, problems, statistics);
+        }
+
+        private Builder add(String name, Callable<LayerResult> layer) {
+            requireNonNull(name, "name cannot be null");
+            if (layers.containsKey(name)) {
+                throw new IllegalArgumentException("Duplicate layer: " + name);
+            }
+            if (layers.size() == MAX_LAYERS) {
+                throw new IllegalArgumentException("At most " + MAX_LAYERS + " layers are supported");
+            }
+            layers.put(name, layer);
+            return this;
+        }
+    }
+}
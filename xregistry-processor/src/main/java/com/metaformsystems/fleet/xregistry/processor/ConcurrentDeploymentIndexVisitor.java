@@ -0,0 +1,212 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Provides a {@link DeploymentIndex} by visiting the xRegistry from any number of threads, for example in a parallel walk
+ * or when several walkers feed one index.
+ * <p>
+ * Each producing thread appends artifacts and problems to a buffer of its own, so callbacks neither lock nor contend on
+ * shared state. A thread registers its buffer once, on its first callback. The buffers are merged into a
+ * {@link DeploymentIndex.Builder} when the walk completes, or when the index or validation result is requested, and
+ * the index is the same as the one a {@link DeploymentIndexVisitor} builds from the same callbacks. If an artifact is
+ * reported more than once from different threads, which report is kept is unspecified. Artifact and problem counts are
+ * recorded to the active {@link ProcessorMetrics} when buffers are merged.
+ * <p>
+ * A merged buffer releases its content, so threads of a shared pool that took part in a walk retain only an empty
+ * buffer, not the artifacts they reported. Merging must not overlap with callbacks: {@link #getIndex()} and {@link #validate()} may only be called once all
+ * callbacks have completed, as is the case after {@link #onComplete()}. Walkers that start a thread per task create a
+ * buffer per task; the buffers start small to keep this cheap.
+ */
+public class ConcurrentDeploymentIndexVisitor implements XRegistryVisitor {
+    private static final ArtifactType[] TYPES = ArtifactType.values();
+
+    private final ReferenceValidator referenceValidator;
+    private final DeploymentIndex.Builder builder = DeploymentIndex.Builder.newInstance();
+    private final List<String> problems = new ArrayList<>();
+    private final ThreadLocal<Buffer> buffer = new ThreadLocal<>();
+    private volatile Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private DeploymentIndex index;
+
+    public ConcurrentDeploymentIndexVisitor() {
+        this(null);
+    }
+
+    public ConcurrentDeploymentIndexVisitor(@Nullable ReferenceValidator referenceValidator) {
+        this.referenceValidator = referenceValidator;
+    }
+
+    @Override
+    public void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
+        buffer().add(ArtifactType.POLICY, artifact, ref, ArtifactMetadata.EMPTY);
+    }
+
+    @Override
+    public void onSchema(Artifact artifact, Supplier<InputStream> ref) {
+        buffer().add(ArtifactType.SCHEMA, artifact, ref, ArtifactMetadata.EMPTY);
+    }
+
+    @Override
+    public void onRule(Artifact artifact, Supplier<InputStream> ref) {
+        buffer().add(ArtifactType.RULE, artifact, ref, ArtifactMetadata.EMPTY);
+    }
+
+    @Override
+    public void onArtifact(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata metadata) {
+        buffer().add(type, artifact, ref, metadata);
+    }
+
+    @Override
+    public void onError(String problem) {
+        buffer().problems.add(problem);
+    }
+
+    @Override
+    public void onComplete() {
+        merge();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    public ValidationResult validate() {
+        var currentIndex = getIndex();
+        var referenceProblems = referenceValidator != null ? referenceValidator.validate(currentIndex) : List.<String>of();
+        synchronized (this) {
+            if (problems.isEmpty() && referenceProblems.isEmpty()) {
+                return new ValidationResult(true, emptyList());
+            }
+            var allProblems = new ArrayList<>(problems);
+            allProblems.addAll(referenceProblems);
+            return new ValidationResult(false, allProblems);
+        }
+    }
+
+    public synchronized DeploymentIndex getIndex() {
+        merge();
+        if (index == null) {
+            index = builder.build();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the buffer of the calling thread, registering a new one if the thread has none or its buffer was merged.
+     */
+    private Buffer buffer() {
+        var current = buffer.get();
+        if (current == null || current.merged) {
+            current = new Buffer();
+            buffers.add(current);
+            buffer.set(current);
+        }
+        return current;
+    }
+
+    /**
+     * Moves the content of all registered buffers into the builder. Threads register new buffers afterwards.
+     */
+    private synchronized void merge() {
+        var merged = buffers;
+        if (merged.isEmpty()) {
+            return;
+        }
+        buffers = new ConcurrentLinkedQueue<>();
+        var artifacts = 0L;
+        var problemCount = 0L;
+        for (var current : merged) {
+            for (var i = 0; i < current.size; i++) {
+                var metadata = current.metadata != null && current.metadata[i] != null ? current.metadata[i] : ArtifactMetadata.EMPTY;
+                builder.put(TYPES[current.types[i]], current.artifacts[i], current.refs[i], metadata);
+            }
+            problems.addAll(current.problems);
+            artifacts += current.size;
+            problemCount += current.problems.size();
+            current.release();
+        }
+        if (artifacts > 0) {
+            index = null;
+        }
+        var instruments = Instruments.get();
+        instruments.visitorArtifacts.add(artifacts);
+        instruments.visitorProblems.add(problemCount);
+    }
+
+    /**
+     * The artifacts and problems reported by one thread, in the order they were reported. Metadata is only allocated
+     * once an artifact has any.
+     */
+    private static final class Buffer {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private List<String> problems = new ArrayList<>(0);
+        private byte[] types = new byte[INITIAL_CAPACITY];
+        private Artifact[] artifacts = new Artifact[INITIAL_CAPACITY];
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Supplier<InputStream>[] refs = (Supplier<InputStream>[]) new Supplier[INITIAL_CAPACITY];
+        private ArtifactMetadata @Nullable [] metadata;
+        private int size;
+        private volatile boolean merged;
+
+        /**
+         * Drops the content once it has been merged, since the buffer stays referenced by its thread.
+         */
+        private void release() {
+            types = null;
+            artifacts = null;
+            refs = null;
+            metadata = null;
+            problems = null;
+            size = 0;
+            merged = true;
+        }
+
+        private void add(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata artifactMetadata) {
+            if (size == artifacts.length) {
+                var capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                artifacts = Arrays.copyOf(artifacts, capacity);
+                refs = Arrays.copyOf(refs, capacity);
+                if (metadata != null) {
+                    metadata = Arrays.copyOf(metadata, capacity);
+                }
+            }
+            if (!artifactMetadata.isBlank()) {
+                if (metadata == null) {
+                    metadata = new ArtifactMetadata[artifacts.length];
+                }
+                metadata[size] = artifactMetadata;
+            }
+            types[size] = (byte) type.ordinal();
+            artifacts[size] = artifact;
+            refs[size] = ref;
+            size++;
+        }
+    }
+}
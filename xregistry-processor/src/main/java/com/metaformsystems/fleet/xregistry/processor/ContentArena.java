@@ -0,0 +1,201 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Holds artifact content copied from a stream, such as an archive, and serves it through references.
+ * <p>
+ * Content is appended to large shared chunks in memory until the memory limit is reached; further content is spilled to a
+ * temporary file, which is deleted when the arena is closed. References remain valid until then. Content is stored by a
+ * single thread at a time, while references may be read concurrently.
+ */
+public class ContentArena implements Closeable {
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private final long memoryLimit;
+    private final Path spillDirectory;
+    private byte[] chunk = new byte[0];
+    private int chunkPosition;
+    private long memoryBytes;
+    private @Nullable FileChannel spill;
+    private long spilledBytes;
+
+    /**
+     * Creates an arena holding up to the given number of bytes in memory and spilling to the directory beyond that.
+     */
+    public ContentArena(long memoryLimit, Path spillDirectory) {
+        if (memoryLimit < 0) {
+            throw new IllegalArgumentException("memoryLimit must not be negative: " + memoryLimit);
+        }
+        this.memoryLimit = memoryLimit;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Creates an arena that holds all content in memory.
+     */
+    public static ContentArena inMemory() {
+        return new ContentArena(Long.MAX_VALUE, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Copies exactly {@code length} bytes from the stream and returns a reference serving them.
+     *
+     * @throws EOFException if the stream ends early
+     */
+    public ArenaReference store(InputStream stream, long length) throws IOException {
+        if (length <= Integer.MAX_VALUE - 8 && memoryBytes + length <= memoryLimit) {
+            return storeInMemory(stream, (int) length);
+        }
+        return spill(stream, length);
+    }
+
+    /**
+     * Returns the number of content bytes held in memory.
+     */
+    public long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Returns the number of content bytes spilled to disk.
+     */
+    public long spilledBytes() {
+        return spilledBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunk = new byte[0];
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    private ArenaReference storeInMemory(InputStream stream, int length) throws IOException {
+        byte[] target;
+        int offset;
+        if (length > CHUNK_SIZE / 4) {
+            // large content gets its own array rather than wasting the rest of a chunk
+            target = new byte[length];
+            offset = 0;
+        } else {
+            if (CHUNK_SIZE - chunkPosition < length || chunk.length == 0) {
+                chunk = new byte[CHUNK_SIZE];
+                chunkPosition = 0;
+            }
+            target = chunk;
+            offset = chunkPosition;
+            chunkPosition += length;
+        }
+        if (stream.readNBytes(target, offset, length) != length) {
+            throw new EOFException("Unexpected end of content");
+        }
+        memoryBytes += length;
+        return new MemoryReference(target, offset, length);
+    }
+
+    private ArenaReference spill(InputStream stream, long length) throws IOException {
+        if (spill == null) {
+            var file = Files.createTempFile(spillDirectory, "xregistry-arena", ".bin");
+            spill = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+        }
+        var position = spilledBytes;
+        var buffer = new byte[(int) Math.min(length, 64 * 1024)];
+        var remaining = length;
+        while (remaining > 0) {
+            var count = stream.readNBytes(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (count == 0) {
+                throw new EOFException("Unexpected end of content");
+            }
+            var written = ByteBuffer.wrap(buffer, 0, count);
+            while (written.hasRemaining()) {
+                spill.write(written, position + length - remaining + written.position());
+            }
+            remaining -= count;
+        }
+        spilledBytes += length;
+        return new SpilledReference(spill, position, length);
+    }
+
+    /**
+     * A reference to content held by an arena.
+     */
+    public sealed interface ArenaReference extends Supplier<InputStream> permits MemoryReference, SpilledReference {
+
+        /**
+         * Returns the length of the content.
+         */
+        long length();
+    }
+
+    private record MemoryReference(byte[] bytes, int offset, int size) implements ArenaReference {
+        @Override
+        public long length() {
+            return size;
+        }
+
+        @Override
+        public InputStream get() {
+            return new ByteArrayInputStream(bytes, offset, size);
+        }
+    }
+
+    private record SpilledReference(FileChannel channel, long position, long length) implements ArenaReference {
+        @Override
+        public InputStream get() {
+            return new InputStream() {
+                private long offset;
+
+                @Override
+                public int read() throws IOException {
+                    var single = new byte[1];
+                    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte @NotNull [] buffer, int off, int len) throws IOException {
+                    if (offset >= length) {
+                        return -1;
+                    }
+                    var count = channel.read(ByteBuffer.wrap(buffer, off, (int) Math.min(len, length - offset)), position + offset);
+                    if (count < 0) {
+                        throw new EOFException("Spilled content truncated");
+                    }
+                    offset += count;
+                    return count;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, in-memory cache of artifact content read through {@link FileReference}s.
+ * <p>
+ * Content is keyed by its SHA-256 digest, so files with identical content, such as policies copied across groups, are
+ * held once. Each file is mapped to the digest of the content last read from it, together with its size and
+ * last-modified time. Content is held as byte arrays up to a total byte budget, and the least recently used entries are
+ * evicted first. Files larger than the budget are never cached.
+ * <p>
+ * A file is revalidated against its size and last-modified time once the revalidation interval has elapsed since it was
+ * last checked. If it changed, its mapping is dropped and the file is read and hashed again, so a changed file is never
+ * served the content of its previous digest. Hits within the interval are served from memory without touching the file
+ * system. References wrapped with a digest computed during the walk, see {@link WalkerConfiguration#isDigestContent()},
+ * map their file to that digest up front, so content already cached for another file is served without reading the file.
+ * <p>
+ * The cache is safe for use from multiple threads. Content is loaded outside the cache lock, so concurrent misses for the
+ * same file may each read it once.
+ */
+public class ContentCache {
+    private static final Duration DEFAULT_REVALIDATION_INTERVAL = Duration.ofSeconds(1);
+
+    private final long maxBytes;
+    private final long revalidationNanos;
+    private final LinkedHashMap<ByteBuffer, byte[]> contents = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Version> versions = new ConcurrentHashMap<>();
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ContentCache(long maxBytes) {
+        this(maxBytes, DEFAULT_REVALIDATION_INTERVAL);
+    }
+
+    public ContentCache(long maxBytes, Duration revalidationInterval) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.revalidationNanos = revalidationInterval.toNanos();
+    }
+
+    /**
+     * Returns an index whose file-backed references serve content through this cache, using the content digests of its
+     * metadata if present. Other references are kept as is.
+     */
+    public DeploymentIndex wrap(DeploymentIndex index) {
+        var builder = DeploymentIndex.Builder.newInstance(index.size());
+        for (var id = 0; id < index.size(); id++) {
+            var ref = index.ref(id);
+            var metadata = index.metadata(id);
+            builder.put(index.type(id), index.artifact(id), ref instanceof FileReference fileReference ? wrap(fileReference, metadata.sha256()) : ref, metadata);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a reference that serves the content of the given file through this cache.
+     */
+    public Supplier<InputStream> wrap(FileReference ref) {
+        return wrap(ref, null);
+    }
+
+    /**
+     * Returns a reference that serves the content of the given file through this cache, where the digest, if not null,
+     * is the SHA-256 of the content the reference was created for.
+     */
+    Supplier<InputStream> wrap(FileReference ref, byte @Nullable [] sha256) {
+        if (sha256 != null) {
+            // checked on first use, which costs an attribute read but no content read if the digest is cached
+            versions.put(ref.path(), new Version(ref.size(), ref.lastModified(), sha256, System.nanoTime() - revalidationNanos));
+        }
+        return () -> open(ref);
+    }
+
+    public CacheStatistics statistics() {
+        synchronized (contents) {
+            return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), contents.size(), bytes);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        synchronized (contents) {
+            contents.clear();
+            versions.clear();
+            bytes = 0;
+        }
+    }
+
+    private InputStream open(FileReference ref) {
+        try {
+            var content = content(ref.path());
+            return content != null ? new ByteArrayInputStream(content) : ref.get();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the cached content of a file, loading it if absent or stale, or null if the file is too large to cache.
+     */
+    private byte @Nullable [] content(Path path) throws IOException {
+        var version = versions.get(path);
+        var current = version != null && isCurrent(path, version);
+        if (current) {
+            byte[] content;
+            synchronized (contents) {
+                content = contents.get(ByteBuffer.wrap(version.sha256));
+            }
+            if (content != null) {
+                hits.increment();
+                return content;
+            }
+        }
+        misses.increment();
+
+        var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (attributes.size() > maxBytes) {
+            return null;
+        }
+        var content = Files.readAllBytes(path);
+        Instruments.get().bytesRead.add(content.length);
+        if (current && content.length == version.size) {
+            // the file still matches the version whose digest is known
+            put(version.sha256, content);
+            return content;
+        }
+        var sha256 = sha256().digest(content);
+        versions.put(path, new Version(attributes.size(), attributes.lastModifiedTime().toMillis(), sha256, System.nanoTime()));
+        put(sha256, content);
+        return content;
+    }
+
+    private boolean isCurrent(Path path, Version version) throws IOException {
+        var now = System.nanoTime();
+        if (now - version.checked < revalidationNanos) {
+            return true;
+        }
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.size() == version.size && attributes.lastModifiedTime().toMillis() == version.lastModified) {
+                version.checked = now;
+                return true;
+            }
+        } catch (NoSuchFileException e) {
+            // fall through and invalidate
+        }
+        // the content of the previous digest stays cached for other files sharing it
+        invalidations.increment();
+        versions.remove(path, version);
+        return false;
+    }
+
+    private void put(byte[] sha256, byte[] content) {
+        synchronized (contents) {
+            var previous = contents.put(ByteBuffer.wrap(sha256), content);
+            bytes += content.length - (previous != null ? previous.length : 0);
+            var iterator = contents.values().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                var eldest = iterator.next();
+                iterator.remove();
+                bytes -= eldest.length;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The digest of the content last read from a file, with the size and last-modified time of the file at that point.
+     */
+    private static class Version {
+        final long size;
+        final long lastModified;
+        final byte[] sha256;
+        volatile long checked;
+
+        Version(long size, long lastModified, byte[] sha256, long checked) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha256 = sha256;
+            this.checked = checked;
+        }
+    }
+}
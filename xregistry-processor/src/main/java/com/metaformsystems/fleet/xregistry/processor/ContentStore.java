@@ -0,0 +1,213 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory, content-addressed store of artifact bodies.
+ * <p>
+ * Each body is read and hashed with SHA-256 once and kept once per distinct digest as {@link StoredContent}, which is
+ * shared by every artifact with the same content, for example policies that differ only in their version or schemas
+ * copied across groups. Consumers of the index can then key derived data by digest: {@link ReferenceValidator} parses
+ * each distinct body once, and {@link MerkleTree} reuses the stored digests instead of reading content again.
+ * <p>
+ * If the walk computed content digests, see {@link WalkerConfiguration#isDigestContent()}, the digest in the
+ * {@link ArtifactMetadata} of an artifact is used instead of hashing its body again, and a body whose digest is already
+ * stored is not read at all.
+ * <p>
+ * Bodies are stored either while walking, by {@link #wrap(XRegistryVisitor) wrapping} the visitor, or from an existing
+ * index. All distinct bodies stay in memory for the lifetime of the store. The store is safe for use from multiple
+ * threads; a visitor wrapper reports itself thread-safe if its delegate is, so parallel walks into a
+ * {@link ConcurrentDeploymentIndexVisitor} hash bodies in parallel.
+ */
+public class ContentStore {
+    private final Map<ByteBuffer, StoredContent> contents = new ConcurrentHashMap<>();
+    private final LongAdder artifacts = new LongAdder();
+    private final LongAdder bytesStored = new LongAdder();
+    private final LongAdder bytesDeduplicated = new LongAdder();
+
+    /**
+     * The usage of a store.
+     *
+     * @param artifacts          the number of artifact bodies stored, including duplicates
+     * @param contents           the number of distinct bodies held
+     * @param bytes              the size of the distinct bodies held
+     * @param bytesDeduplicated  the size of the duplicate bodies that were not held again
+     */
+    public record Usage(long artifacts, int contents, long bytes, long bytesDeduplicated) {
+
+        /**
+         * Returns the ratio of stored artifact bodies to distinct bodies, or zero for an empty store.
+         */
+        public double duplicationRatio() {
+            return contents == 0 ? 0 : (double) artifacts / contents;
+        }
+    }
+
+    /**
+     * Reads the content and returns the stored content with the same digest, storing it if it is new.
+     */
+    public StoredContent store(Supplier<InputStream> ref) throws IOException {
+        return store(ref, null);
+    }
+
+    /**
+     * Returns the stored content with the given digest of the content, reading and storing the content if it is new. If
+     * the digest is null, the content is read and hashed.
+     */
+    StoredContent store(Supplier<InputStream> ref, byte @Nullable [] knownSha256) throws IOException {
+        if (ref instanceof StoredContent stored && contents.get(ByteBuffer.wrap(stored.sha256())) == stored) {
+            artifacts.increment();
+            bytesDeduplicated.add(stored.size());
+            return stored;
+        }
+        if (knownSha256 != null) {
+            var existing = contents.get(ByteBuffer.wrap(knownSha256));
+            if (existing != null) {
+                artifacts.increment();
+                bytesDeduplicated.add(existing.size());
+                return existing;
+            }
+        }
+        byte[] content;
+        try (var stream = ref.get()) {
+            content = stream.readAllBytes();
+        }
+        var sha256 = knownSha256 != null ? knownSha256 : sha256().digest(content);
+        var candidate = new StoredContent(sha256, content);
+        var existing = contents.putIfAbsent(ByteBuffer.wrap(sha256), candidate);
+        artifacts.increment();
+        if (existing != null) {
+            bytesDeduplicated.add(content.length);
+            return existing;
+        }
+        bytesStored.add(content.length);
+        return candidate;
+    }
+
+    /**
+     * Returns an index whose references serve content from this store. Artifacts whose content cannot be read keep their
+     * references.
+     */
+    public DeploymentIndex wrap(DeploymentIndex index) {
+        var builder = DeploymentIndex.Builder.newInstance(index.size());
+        for (var id = 0; id < index.size(); id++) {
+            Supplier<InputStream> ref = index.ref(id);
+            try {
+                ref = store(ref, index.metadata(id).sha256());
+            } catch (IOException | RuntimeException e) {
+                // keep the original reference, which reports the failure when read
+            }
+            builder.put(index.type(id), index.artifact(id), ref, index.metadata(id));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a visitor that stores the content of each artifact and passes the stored content to the delegate. Content
+     * that cannot be read is reported as an error instead.
+     */
+    public XRegistryVisitor wrap(XRegistryVisitor delegate) {
+        return new StoringVisitor(delegate);
+    }
+
+    public Usage usage() {
+        return new Usage(artifacts.sum(), contents.size(), bytesStored.sum(), bytesDeduplicated.sum());
+    }
+
+    /**
+     * Removes all contents. Stored content remains usable by the indexes referencing it.
+     */
+    public void clear() {
+        contents.clear();
+        artifacts.reset();
+        bytesStored.reset();
+        bytesDeduplicated.reset();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class StoringVisitor implements XRegistryVisitor {
+        private final XRegistryVisitor delegate;
+
+        StoringVisitor(XRegistryVisitor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onStart() {
+            delegate.onStart();
+        }
+
+        @Override
+        public void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
+            onArtifact(ArtifactType.POLICY, artifact, ref, ArtifactMetadata.EMPTY);
+        }
+
+        @Override
+        public void onSchema(Artifact artifact, Supplier<InputStream> ref) {
+            onArtifact(ArtifactType.SCHEMA, artifact, ref, ArtifactMetadata.EMPTY);
+        }
+
+        @Override
+        public void onRule(Artifact artifact, Supplier<InputStream> ref) {
+            onArtifact(ArtifactType.RULE, artifact, ref, ArtifactMetadata.EMPTY);
+        }
+
+        @Override
+        public void onArtifact(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata metadata) {
+            StoredContent stored;
+            try {
+                stored = store(ref, metadata.sha256());
+            } catch (IOException | RuntimeException e) {
+                delegate.onError((ref instanceof FileReference file ? file.path() : artifact) + ":" + e.getMessage());
+                return;
+            }
+            delegate.onArtifact(type, artifact, stored, metadata);
+        }
+
+        @Override
+        public void onError(String problem) {
+            delegate.onError(problem);
+        }
+
+        @Override
+        public void onComplete() {
+            delegate.onComplete();
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return delegate.isThreadSafe();
+        }
+    }
+}
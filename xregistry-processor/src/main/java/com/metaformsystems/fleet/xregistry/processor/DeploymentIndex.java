@@ -14,30 +14,600 @@
 
 package com.metaformsystems.fleet.xregistry.processor;
 
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * An index of xRegistry supported artifacts.
+ * An immutable index of xRegistry supported artifacts.
+ * <p>
+ * Artifacts are held in a single read-only {@link ArtifactKeyTable} sized to the index content. The reference and type of
+ * each artifact are stored in arrays indexed by its id. The map returned by {@link #artifacts()} and the per-type maps
+ * are unmodifiable views over these arrays and do not copy entries. An artifact has exactly one type. Metadata extracted
+ * during the walk is held in a further array, which is only allocated if any artifact has metadata.
+ * <p>
+ * Version and navigation queries such as {@link #findLatest(String, String)} or {@link #listGroups(String)} use an
+ * {@link ArtifactHierarchy} built on first use. Lists returned by navigation queries are unmodifiable views, so their size
+ * is available without iterating them.
+ * <p>
+ * Content digests for {@link #diff(DeploymentIndex)} are held in a {@link MerkleTree} built on first use. Leaves use the
+ * digests computed during the walk if it {@link WalkerConfiguration#isDigestContent() digested content}, and otherwise
+ * read the content of the artifact once.
+ * <p>
+ * An index built {@link Builder#buildIncremental() incrementally} shares the arrays of the last fully built index and
+ * overlays the changes made since, so that publishing a small change does not copy the whole index.
+ * <p>
+ * Instances are created with a {@link Builder} and may be shared by any number of threads without synchronization.
  */
-public record DeploymentIndex(
-        Map<Artifact, Supplier<InputStream>> artifacts,
-        Map<Artifact, Supplier<InputStream>> policies,
-        Map<Artifact, Supplier<InputStream>> schemas,
-        Map<Artifact, Supplier<InputStream>> rules) {
+public final class DeploymentIndex {
+    private static final ArtifactType[] TYPES = ArtifactType.values();
+
+    private final ArtifactKeyTable keys;
+    private final Supplier<InputStream>[] refs;
+    private final byte[] types;
+    private final ArtifactMetadata @Nullable [] metadata;
+    private final @Nullable IndexOverlay overlay;
+    private final int size;
+    private final int[] counts;
+    private final View artifacts;
+    private final View[] views;
+    private volatile ArtifactHierarchy hierarchy;
+    private volatile MerkleTree merkleTree;
+
+    private DeploymentIndex(ArtifactKeyTable keys, Supplier<InputStream>[] refs, byte[] types, ArtifactMetadata @Nullable [] metadata) {
+        this.keys = keys;
+        this.refs = refs;
+        this.types = types;
+        this.metadata = metadata;
+        this.overlay = null;
+        this.size = refs.length;
+        this.counts = new int[TYPES.length];
+        for (var type : types) {
+            counts[type]++;
+        }
+        this.artifacts = new View(-1);
+        this.views = views();
+    }
 
-    public DeploymentIndex {
-        requireNonNull(artifacts, "artifacts cannot be null");
-        requireNonNull(policies, "policies cannot be null");
-        requireNonNull(schemas, "schemas cannot be null");
-        requireNonNull(rules, "rules cannot be null");
+    private DeploymentIndex(DeploymentIndex base, IndexOverlay overlay) {
+        this.keys = base.keys;
+        this.refs = base.refs;
+        this.types = base.types;
+        this.metadata = base.metadata;
+        this.overlay = overlay;
+        this.size = overlay.size();
+        this.counts = overlay.counts(base.counts);
+        this.artifacts = new View(-1);
+        this.views = views();
     }
 
+    /**
+     * Returns the reference for the artifact or null if the artifact is not indexed. Hits, misses and latency of lookups
+     * are recorded to the active {@link ProcessorMetrics}.
+     */
     public Supplier<InputStream> findArtifact(Artifact artifact) {
-        return artifacts.get(artifact);
+        var instruments = Instruments.get();
+        var start = instruments.timed ? System.nanoTime() : 0;
+        var id = idOf(artifact);
+        if (instruments.timed) {
+            instruments.lookupLatency.record(System.nanoTime() - start);
+        }
+        if (id < 0) {
+            instruments.lookupMisses.increment();
+            return null;
+        }
+        instruments.lookupHits.increment();
+        return ref(id);
+    }
+
+    /**
+     * Returns the type of the artifact or null if the artifact is not indexed.
+     */
+    public @Nullable ArtifactType typeOf(Artifact artifact) {
+        var id = idOf(artifact);
+        return id >= 0 ? type(id) : null;
+    }
+
+    /**
+     * Returns the metadata of the artifact, which is empty if the artifact is not indexed or no metadata was extracted.
+     */
+    public ArtifactMetadata metadata(Artifact artifact) {
+        var id = idOf(artifact);
+        return id >= 0 ? metadata(id) : ArtifactMetadata.EMPTY;
+    }
+
+    /**
+     * Returns the number of indexed artifacts.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the highest version of the artifact with the given group and name, or null if there is none.
+     */
+    public @Nullable Artifact findLatest(String group, String name) {
+        var id = hierarchy().latest(group, name);
+        return id >= 0 ? artifact(id) : null;
+    }
+
+    /**
+     * Returns the highest version of the artifact with the given group and name that lies within the range, or null if
+     * there is none.
+     *
+     * @param range a range in one of the notations supported by {@link VersionRange#parse(String)}
+     */
+    public @Nullable Artifact resolve(String group, String name, String range) {
+        return resolve(group, name, VersionRange.parse(range));
+    }
+
+    public @Nullable Artifact resolve(String group, String name, VersionRange range) {
+        var id = hierarchy().resolve(group, name, range);
+        return id >= 0 ? artifact(id) : null;
+    }
+
+    /**
+     * Returns the sorted groups starting with the prefix, or all groups if the prefix is empty.
+     */
+    public List<String> listGroups(String prefix) {
+        return hierarchy().groups(prefix);
+    }
+
+    /**
+     * Returns the sorted resource names of a group starting with the prefix, or all names if the prefix is empty.
+     */
+    public List<String> listNames(String group, String prefix) {
+        return hierarchy().names(group, prefix);
+    }
+
+    /**
+     * Returns the artifacts of a group ordered by name and version.
+     */
+    public List<Artifact> listArtifacts(String group) {
+        return hierarchy().artifacts(group);
+    }
+
+    /**
+     * Returns the versions of an artifact in ascending order.
+     */
+    public List<Artifact> listVersions(String group, String name) {
+        return hierarchy().versions(group, name);
+    }
+
+    /**
+     * Returns the versions of an artifact within the range in ascending order.
+     */
+    public List<Artifact> listVersions(String group, String name, VersionRange range) {
+        return hierarchy().versions(group, name, range);
+    }
+
+    /**
+     * Returns the Merkle tree over the content of the index, building it on first use.
+     *
+     * @throws java.io.UncheckedIOException if the tree is built and the content of an artifact cannot be read
+     */
+    public MerkleTree merkleTree() {
+        var current = merkleTree;
+        if (current == null) {
+            // racing readers may each build a tree; they are equivalent and the last one wins
+            current = MerkleTree.of(this);
+            merkleTree = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the changes from the previous index to this one, comparing only the subtrees whose content digests differ.
+     */
+    public IndexDiff diff(DeploymentIndex previous) {
+        return merkleTree().diff(previous.merkleTree());
+    }
+
+    public Map<Artifact, Supplier<InputStream>> artifacts() {
+        return artifacts;
+    }
+
+    /**
+     * Returns the artifacts of the given type.
+     */
+    public Map<Artifact, Supplier<InputStream>> artifacts(ArtifactType type) {
+        return views[type.ordinal()];
+    }
+
+    public Map<Artifact, Supplier<InputStream>> policies() {
+        return artifacts(ArtifactType.POLICY);
+    }
+
+    public Map<Artifact, Supplier<InputStream>> schemas() {
+        return artifacts(ArtifactType.SCHEMA);
+    }
+
+    public Map<Artifact, Supplier<InputStream>> rules() {
+        return artifacts(ArtifactType.RULE);
+    }
+
+    /**
+     * Returns the id of the artifact within this index or -1. Ids are dense and range from zero to {@link #size()}.
+     */
+    int idOf(Object artifact) {
+        return overlay == null ? keys.idOf(artifact) : overlay.idOf(artifact);
+    }
+
+    Artifact artifact(int id) {
+        return overlay == null ? keys.artifact(id) : overlay.artifact(id);
+    }
+
+    ArtifactType type(int id) {
+        return TYPES[typeOrdinal(id)];
     }
 
+    Supplier<InputStream> ref(int id) {
+        return overlay == null ? refs[id] : overlay.ref(id);
+    }
+
+    ArtifactMetadata metadata(int id) {
+        if (overlay != null) {
+            return overlay.metadata(id);
+        }
+        return metadata != null && metadata[id] != null ? metadata[id] : ArtifactMetadata.EMPTY;
+    }
+
+    /**
+     * Returns the number of artifacts overlaid on the base index this index was built from, or zero if it was built in
+     * full.
+     */
+    int overlaidChanges() {
+        return overlay != null ? overlay.changes() : 0;
+    }
+
+    /**
+     * Returns the hierarchy if a query has built it, or null.
+     */
+    @Nullable ArtifactHierarchy builtHierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Returns the estimated size of the index structure: the key table, the arrays indexed by id and the map views,
+     * excluding the objects held in the arrays. An incrementally built index includes the structure it shares with its
+     * base.
+     */
+    long footprint(ObjectSizes sizes) {
+        var bytes = sizes.shallowSize(DeploymentIndex.class) + keys.footprint(sizes) + sizes.referenceArray(refs.length)
+                + sizes.array(types.length, Byte.BYTES) + sizes.array(counts.length, Integer.BYTES)
+                + sizes.referenceArray(views.length) + sizes.shallowSize(View.class) * (views.length + 1);
+        if (metadata != null) {
+            bytes += sizes.referenceArray(metadata.length);
+        }
+        return overlay != null ? bytes + overlay.footprint(sizes) : bytes;
+    }
+
+    private int typeOrdinal(int id) {
+        return overlay == null ? types[id] : overlay.type(id);
+    }
+
+    private View[] views() {
+        var result = new View[TYPES.length];
+        for (var type : TYPES) {
+            result[type.ordinal()] = new View(type.ordinal());
+        }
+        return result;
+    }
+
+    private ArtifactHierarchy hierarchy() {
+        var current = hierarchy;
+        if (current == null) {
+            // racing readers may each build a hierarchy; they are equivalent and the last one wins
+            current = new ArtifactHierarchy(this);
+            hierarchy = current;
+        }
+        return current;
+    }
+
+    /**
+     * An unmodifiable map over the entries of one type, or over all entries if the type is negative.
+     */
+    private class View extends AbstractMap<Artifact, Supplier<InputStream>> {
+        private final int type;
+
+        View(int type) {
+            this.type = type;
+        }
+
+        @Override
+        public Supplier<InputStream> get(Object key) {
+            var id = idOf(key);
+            return id >= 0 && matches(id) ? ref(id) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return type < 0 ? size : counts[type];
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super Artifact, ? super Supplier<InputStream>> action) {
+            for (var id = 0; id < size; id++) {
+                if (matches(id)) {
+                    action.accept(artifact(id), ref(id));
+                }
+            }
+        }
+
+        @Override
+        public @NotNull Set<Entry<Artifact, Supplier<InputStream>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<Artifact, Supplier<InputStream>>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        public Entry<Artifact, Supplier<InputStream>> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            var id = next;
+                            next = advance(id + 1);
+                            return new SimpleImmutableEntry<>(artifact(id), ref(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+
+        private boolean matches(int id) {
+            return type < 0 || typeOrdinal(id) == type;
+        }
+
+        private int advance(int from) {
+            var id = from;
+            while (id < size && !matches(id)) {
+                id++;
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Collects artifacts for indexes. A builder can be kept and updated across builds; once removed artifacts outnumber the
+     * live ones, it discards their ids and interned strings so that its size follows the live content.
+     * <p>
+     * A builder kept across many small updates, such as the one of a {@link DeploymentIndexWatcher}, publishes with
+     * {@link #buildIncremental()}, which overlays the changes since the last full build on the index of that build.
+     */
+    public static class Builder {
+        private static final int MIN_COMPACTION = 64;
+        private static final int MIN_OVERLAY = 64;
+
+        private ArtifactKeyTable keys;
+        private ArtifactMap<Supplier<InputStream>> refs;
+        private ArtifactMap<ArtifactMetadata> metadata;
+        private byte[] types;
+        // the last index built in full by buildIncremental() and the artifacts changed since, tracked only once it is set
+        private @Nullable DeploymentIndex base;
+        private final Set<Artifact> changed = new LinkedHashSet<>();
+
+        private Builder(int expectedSize) {
+            keys = new ArtifactKeyTable(expectedSize);
+            refs = new ArtifactMap<>(keys);
+            metadata = new ArtifactMap<>(keys);
+            types = new byte[Math.max(expectedSize, 16)];
+        }
+
+        public static Builder newInstance() {
+            return new Builder(16);
+        }
+
+        /**
+         * Creates a builder presized for the expected number of artifacts.
+         */
+        public static Builder newInstance(int expectedSize) {
+            return new Builder(expectedSize);
+        }
+
+        /**
+         * Adds the artifact or replaces its type and reference.
+         */
+        public Builder put(ArtifactType type, Artifact artifact, Supplier<InputStream> ref) {
+            return put(type, artifact, ref, ArtifactMetadata.EMPTY);
+        }
+
+        /**
+         * Adds the artifact or replaces its type, reference and metadata.
+         */
+        public Builder put(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata artifactMetadata) {
+            requireNonNull(type, "type cannot be null");
+            requireNonNull(ref, "ref cannot be null");
+            var id = keys.add(artifact);
+            if (id >= types.length) {
+                types = Arrays.copyOf(types, Math.max(id + 1, types.length * 2));
+            }
+            types[id] = (byte) type.ordinal();
+            refs.put(keys.artifact(id), ref);
+            track(keys.artifact(id));
+            if (artifactMetadata.isBlank()) {
+                metadata.remove(artifact);
+            } else {
+                metadata.put(keys.artifact(id), artifactMetadata);
+            }
+            return this;
+        }
+
+        /**
+         * Returns the type of the artifact or null if the artifact has not been added.
+         */
+        public @Nullable ArtifactType typeOf(Artifact artifact) {
+            var id = keys.idOf(artifact);
+            return id >= 0 && refs.get(id) != null ? TYPES[types[id]] : null;
+        }
+
+        public Builder remove(Artifact artifact) {
+            if (refs.remove(artifact) != null) {
+                track(artifact);
+            }
+            metadata.remove(artifact);
+            compactIfSparse();
+            return this;
+        }
+
+        /**
+         * Removes the artifacts matching the predicate.
+         */
+        public Builder removeIf(BiPredicate<ArtifactType, Artifact> predicate) {
+            refs.keySet().removeIf(artifact -> {
+                if (predicate.test(TYPES[types[keys.idOf(artifact)]], artifact)) {
+                    metadata.remove(artifact);
+                    track(artifact);
+                    return true;
+                }
+                return false;
+            });
+            compactIfSparse();
+            return this;
+        }
+
+        public int size() {
+            return refs.size();
+        }
+
+        /**
+         * Returns the number of ids assigned, including those of removed artifacts.
+         */
+        int capacity() {
+            return keys.size();
+        }
+
+        /**
+         * Creates an index from the current content. The builder remains usable and later changes do not affect the
+         * index.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public DeploymentIndex build() {
+            var event = new IndexBuildEvent();
+            event.begin();
+            var compacted = keys.compact(id -> refs.get(id) != null);
+            var indexRefs = (Supplier<InputStream>[]) new Supplier[compacted.size()];
+            var indexTypes = new byte[compacted.size()];
+            var indexMetadata = metadata.isEmpty() ? null : new ArtifactMetadata[compacted.size()];
+            var count = 0;
+            for (var id = 0; id < keys.size(); id++) {
+                var ref = refs.get(id);
+                if (ref != null) {
+                    indexRefs[count] = ref;
+                    indexTypes[count] = types[id];
+                    if (indexMetadata != null) {
+                        indexMetadata[count] = metadata.get(id);
+                    }
+                    count++;
+                }
+            }
+            var index = new DeploymentIndex(compacted, indexRefs, indexTypes, indexMetadata);
+            if (event.shouldCommit()) {
+                event.artifacts = index.size();
+                event.policies = index.counts[ArtifactType.POLICY.ordinal()];
+                event.schemas = index.counts[ArtifactType.SCHEMA.ordinal()];
+                event.rules = index.counts[ArtifactType.RULE.ordinal()];
+                event.commit();
+            }
+            return index;
+        }
+
+        /**
+         * Creates an index from the current content without copying it in full. The first call builds the index in full
+         * and keeps it as the base; later calls overlay the artifacts changed since on the base, taking time proportional
+         * to their number. Once the changes exceed the square root of the base size, scaled by a constant, the index is
+         * built in full again and becomes the new base, so the cost per change amortizes to the square root of the index
+         * size in either case. The builder remains usable and later changes do not affect the index.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public DeploymentIndex buildIncremental() {
+            if (base == null || changed.size() > Math.max(MIN_OVERLAY, 8 * (int) Math.sqrt(base.size()))) {
+                changed.clear();
+                base = build();
+                return base;
+            }
+            var artifacts = changed.toArray(Artifact[]::new);
+            var changedRefs = (Supplier<InputStream>[]) new Supplier[artifacts.length];
+            var changedTypes = new byte[artifacts.length];
+            var changedMetadata = new ArtifactMetadata[artifacts.length];
+            for (var i = 0; i < artifacts.length; i++) {
+                var id = keys.idOf(artifacts[i]);
+                changedRefs[i] = refs.get(id);
+                if (changedRefs[i] != null) {
+                    changedTypes[i] = types[id];
+                    var artifactMetadata = metadata.get(id);
+                    changedMetadata[i] = artifactMetadata != null ? artifactMetadata : ArtifactMetadata.EMPTY;
+                }
+            }
+            return new DeploymentIndex(base, new IndexOverlay(base, artifacts, changedRefs, changedTypes, changedMetadata));
+        }
+
+        private void track(Artifact artifact) {
+            if (base != null) {
+                changed.add(artifact);
+            }
+        }
+
+        /**
+         * Renumbers the live artifacts into new tables once removed ones outnumber them, as ids are never reused.
+         */
+        private void compactIfSparse() {
+            var live = refs.size();
+            if (keys.size() - live <= Math.max(live, MIN_COMPACTION)) {
+                return;
+            }
+            var previousKeys = keys;
+            var previousRefs = refs;
+            var previousMetadata = metadata;
+            var previousTypes = types;
+            keys = new ArtifactKeyTable(live);
+            refs = new ArtifactMap<>(keys);
+            metadata = new ArtifactMap<>(keys);
+            types = new byte[Math.max(live, 16)];
+            for (var id = 0; id < previousKeys.size(); id++) {
+                var ref = previousRefs.get(id);
+                if (ref != null) {
+                    var newId = keys.add(previousKeys.artifact(id));
+                    var artifact = keys.artifact(newId);
+                    types[newId] = previousTypes[id];
+                    refs.put(artifact, ref);
+                    var artifactMetadata = previousMetadata.get(id);
+                    if (artifactMetadata != null) {
+                        metadata.put(artifact, artifactMetadata);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds the current version of a {@link DeploymentIndex} that is rebuilt or updated while being read.
+ * <p>
+ * A new index is built aside, for example by a background reload or a {@link DeploymentIndexWatcher}, and published with
+ * a single atomic reference swap, so readers never observe a partially built index and never wait for a rebuild. A reader
+ * that needs a consistent view across several lookups {@link #pin() pins} the current snapshot for the duration of a
+ * request and closes it afterwards. Pinning and releasing each update a counter of the snapshot with a compare-and-set
+ * and never block. A snapshot replaced by a newer one is retired: it can no longer be pinned, and once its last pin is
+ * released the release listener is called with its index, for example to close resources backing its references.
+ * <p>
+ * Only pinned snapshots are protected from the release listener. Readers that only perform single lookups can use
+ * {@link #getIndex()} without pinning, but if the release listener frees resources, an index obtained that way must not
+ * be used after a newer one is published, since it may be released while still in use.
+ * <p>
+ * Instances are thread-safe. Concurrent publications are ordered by the swap, and versions increase in that order.
+ */
+public class DeploymentIndexHolder {
+    private final AtomicReference<Snapshot> current;
+    private final AtomicInteger retained = new AtomicInteger();
+    private final Consumer<DeploymentIndex> releaseListener;
+
+    /**
+     * Creates a holder of an empty index.
+     */
+    public DeploymentIndexHolder() {
+        this(DeploymentIndex.Builder.newInstance().build(), index -> {
+        });
+    }
+
+    /**
+     * Creates a holder of the initial index.
+     *
+     * @param releaseListener called once for each replaced index when it is no longer pinned
+     */
+    public DeploymentIndexHolder(DeploymentIndex initial, Consumer<DeploymentIndex> releaseListener) {
+        this.releaseListener = requireNonNull(releaseListener, "releaseListener cannot be null");
+        current = new AtomicReference<>(new Snapshot(requireNonNull(initial, "initial cannot be null"), 0));
+    }
+
+    /**
+     * Returns the current index without pinning it. The index is not protected from the release listener: if the
+     * listener frees resources backing its references, the index must not be used once a newer one is published, and
+     * readers should {@link #pin()} it instead.
+     */
+    public DeploymentIndex getIndex() {
+        return current.get().index;
+    }
+
+    /**
+     * Returns the version of the current index, which starts at zero and increases with each publication.
+     */
+    public long version() {
+        return current.get().version;
+    }
+
+    /**
+     * Pins the current snapshot until the returned snapshot is closed.
+     */
+    public Snapshot pin() {
+        while (true) {
+            var snapshot = current.get();
+            if (snapshot.tryAcquire()) {
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * Publishes the index as the current snapshot and retires the previous one. The size of the index is recorded to the
+     * active {@link ProcessorMetrics}.
+     *
+     * @return the version of the published index
+     */
+    public long publish(DeploymentIndex index) {
+        requireNonNull(index, "index cannot be null");
+        while (true) {
+            var previous = current.get();
+            var snapshot = new Snapshot(index, previous.version + 1);
+            if (current.compareAndSet(previous, snapshot)) {
+                retained.incrementAndGet();
+                Instruments.get().indexSize.set(index.size());
+                previous.retire();
+                return snapshot.version;
+            }
+        }
+    }
+
+    /**
+     * Builds an index on the executor and publishes it. If building fails, the current snapshot remains in place and the
+     * returned future completes exceptionally.
+     *
+     * @return the version of the published index
+     */
+    public CompletableFuture<Long> reload(Supplier<DeploymentIndex> loader, Executor executor) {
+        return CompletableFuture.supplyAsync(loader, executor).thenApply(this::publish);
+    }
+
+    /**
+     * Returns the number of replaced snapshots that are still pinned by readers.
+     */
+    public int retainedSnapshots() {
+        return retained.get();
+    }
+
+    /**
+     * A published index with its version, pinned until closed. Closing a snapshot more than once is not allowed.
+     */
+    public final class Snapshot implements AutoCloseable {
+        private static final int RETIRED = 1 << 30;
+        private static final int RELEASED = -1;
+
+        private final DeploymentIndex index;
+        private final long version;
+        // the number of pins, with the RETIRED bit set once replaced, or RELEASED
+        private final AtomicInteger state = new AtomicInteger();
+
+        private Snapshot(DeploymentIndex index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+
+        public DeploymentIndex index() {
+            return index;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public void close() {
+            if (state.decrementAndGet() == RETIRED && state.compareAndSet(RETIRED, RELEASED)) {
+                release();
+            }
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                var value = state.get();
+                if (value < 0 || (value & RETIRED) != 0) {
+                    return false;
+                }
+                if (state.compareAndSet(value, value + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void retire() {
+            var value = state.getAndUpdate(pins -> pins | RETIRED);
+            if (value == 0 && state.compareAndSet(RETIRED, RELEASED)) {
+                release();
+            }
+        }
+
+        private void release() {
+            retained.decrementAndGet();
+            releaseListener.accept(index);
+        }
+    }
+}
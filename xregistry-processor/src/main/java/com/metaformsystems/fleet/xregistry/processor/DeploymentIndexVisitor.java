@@ -1,56 +1,80 @@
 package com.metaformsystems.fleet.xregistry.processor;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Supplier;
 
 import static java.util.Collections.emptyList;
 
 /**
- * Provides a {@link DeploymentIndex} by visiting the xRegistry.
+ * Provides a {@link DeploymentIndex} by visiting the xRegistry. If created with a {@link ReferenceValidator}, validation
+ * also checks that the references between the visited artifacts are complete.
  */
 public class DeploymentIndexVisitor implements XRegistryVisitor {
-    private Map<Artifact, Supplier<InputStream>> artifacts = new HashMap<>();
-    private Map<Artifact, Supplier<InputStream>> policies = new HashMap<>();
-    private Map<Artifact, Supplier<InputStream>> schemas = new HashMap<>();
-    private Map<Artifact, Supplier<InputStream>> rules = new HashMap<>();
+    private final ReferenceValidator referenceValidator;
+    private DeploymentIndex.Builder builder = DeploymentIndex.Builder.newInstance();
+    private DeploymentIndex index;
     private List<String> problems = new ArrayList<>();
 
+    public DeploymentIndexVisitor() {
+        this(null);
+    }
+
+    public DeploymentIndexVisitor(@Nullable ReferenceValidator referenceValidator) {
+        this.referenceValidator = referenceValidator;
+    }
+
     @Override
     public void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
-        artifacts.put(artifact, ref);
-        policies.put(artifact, ref);
+        put(ArtifactType.POLICY, artifact, ref);
     }
 
     @Override
     public void onSchema(Artifact artifact, Supplier<InputStream> ref) {
-        artifacts.put(artifact, ref);
-        schemas.put(artifact, ref);
+        put(ArtifactType.SCHEMA, artifact, ref);
     }
 
     @Override
     public void onRule(Artifact artifact, Supplier<InputStream> ref) {
-        artifacts.put(artifact, ref);
-        rules.put(artifact, ref);
+        put(ArtifactType.RULE, artifact, ref);
+    }
+
+    @Override
+    public void onArtifact(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata metadata) {
+        builder.put(type, artifact, ref, metadata);
+        index = null;
+        Instruments.get().visitorArtifacts.increment();
     }
 
     @Override
     public void onError(String problem) {
         problems.add(problem);
+        Instruments.get().visitorProblems.increment();
     }
 
     public ValidationResult validate() {
-        if (!problems.isEmpty()) {
-            return new ValidationResult(false, problems);
+        var referenceProblems = referenceValidator != null ? referenceValidator.validate(getIndex()) : List.<String>of();
+        if (problems.isEmpty() && referenceProblems.isEmpty()) {
+            return new ValidationResult(true, emptyList());
         }
-        // TODO: scan that all references are complete
-        return new ValidationResult(true, emptyList());
+        var allProblems = new ArrayList<>(problems);
+        allProblems.addAll(referenceProblems);
+        return new ValidationResult(false, allProblems);
     }
 
     public DeploymentIndex getIndex() {
-        return new DeploymentIndex(artifacts, policies, schemas, rules);
+        if (index == null) {
+            index = builder.build();
+        }
+        return index;
+    }
+
+    private void put(ArtifactType type, Artifact artifact, Supplier<InputStream> ref) {
+        builder.put(type, artifact, ref);
+        index = null;
+        Instruments.get().visitorArtifacts.increment();
     }
 }
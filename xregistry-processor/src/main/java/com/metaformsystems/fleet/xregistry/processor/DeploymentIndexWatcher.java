@@ -0,0 +1,258 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Maintains a {@link DeploymentIndex} incrementally by watching the registry directories for changes.
+ * <p>
+ * Every directory of the layout down to the directories containing artifact files is registered with a
+ * {@link WatchService}, for example the {@code policies}, {@code schemas} and {@code rules} directories of a compact
+ * registry or the {@code versions} directories of an expanded registry. Events arriving within the coalescing window are
+ * collected into a single batch. Each changed path in a batch is then reconciled with the file system once, so a
+ * one-file change costs a single attribute read rather than a walk. Newly created directories are registered and scanned.
+ * Removed directories drop the artifacts they contained. If the watch service reports an {@code OVERFLOW}, the registry
+ * is rescanned in full.
+ * <p>
+ * Changes are applied in place to a working {@link DeploymentIndex.Builder} owned by the watcher thread, which compacts
+ * itself as artifacts are deleted, so its size follows the live registry under churn. After each batch an immutable
+ * index is built {@link DeploymentIndex.Builder#buildIncremental() incrementally}, overlaying the changes on the last
+ * fully built index rather than copying the registry, and published to a {@link DeploymentIndexHolder}, so readers of
+ * {@link #getIndex()} always see a consistent index and never contend with updates. A rescan builds a fresh index and
+ * replaces the working one only once it has succeeded, so a failed rescan leaves the previous index in place. Readers needing one index across several lookups pin a snapshot of the
+ * {@link #getHolder() holder}. Note that each watched directory consumes an operating system watch handle.
+ */
+public class DeploymentIndexWatcher implements AutoCloseable {
+    private static final Duration DEFAULT_COALESCE_WINDOW = Duration.ofMillis(50);
+    private static final int MAX_COALESCE_WINDOWS = 10;
+
+    private final Path root;
+    private final RegistryLayout layout;
+    private final Duration coalesceWindow;
+    private final Consumer<String> errorHandler;
+    private final LayoutScanner scanner;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private final DeploymentIndexHolder holder;
+    private DeploymentIndex.Builder state;
+
+    public DeploymentIndexWatcher(Path root, RegistryLayout layout) {
+        this(root, layout, DEFAULT_COALESCE_WINDOW, problem -> {
+        });
+    }
+
+    public DeploymentIndexWatcher(Path root, RegistryLayout layout, Duration coalesceWindow, Consumer<String> errorHandler) {
+        this(root, layout, coalesceWindow, errorHandler, new DeploymentIndexHolder());
+    }
+
+    /**
+     * Creates a watcher publishing each index to the holder.
+     */
+    public DeploymentIndexWatcher(Path root, RegistryLayout layout, Duration coalesceWindow, Consumer<String> errorHandler,
+                                  DeploymentIndexHolder holder) {
+        this.root = root;
+        this.layout = layout;
+        this.coalesceWindow = coalesceWindow;
+        this.errorHandler = errorHandler;
+        this.scanner = new LayoutScanner(root, layout);
+        this.holder = holder;
+    }
+
+    /**
+     * Scans the registry and starts watching it for changes.
+     */
+    public void start() throws IOException {
+        watchService = root.getFileSystem().newWatchService();
+        rescan();
+        thread = Thread.ofPlatform().daemon().name("xregistry-watcher").start(this::run);
+    }
+
+    /**
+     * Returns the most recently published index without pinning it, with the caveats of
+     * {@link DeploymentIndexHolder#getIndex()}.
+     */
+    public DeploymentIndex getIndex() {
+        return holder.getIndex();
+    }
+
+    /**
+     * Returns the holder the indexes are published to.
+     */
+    public DeploymentIndexHolder getHolder() {
+        return holder;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                var key = watchService.take();
+                var changes = new LinkedHashSet<Path>();
+                var overflow = false;
+                var deadline = System.nanoTime() + coalesceWindow.toNanos() * MAX_COALESCE_WINDOWS;
+                do {
+                    overflow |= collect(key, changes);
+                    key = System.nanoTime() < deadline ? watchService.poll(coalesceWindow.toNanos(), NANOSECONDS) : null;
+                } while (key != null);
+
+                if (overflow) {
+                    rescan();
+                } else {
+                    apply(changes);
+                }
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                errorHandler.accept(root + ":" + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Collects the changed paths of a key and returns true if events were lost.
+     */
+    private boolean collect(WatchKey key, Set<Path> changes) {
+        var overflow = false;
+        var directory = directories.get(key);
+        for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+            } else if (directory != null) {
+                changes.add(directory.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Reconciles each changed path with its current state on the file system.
+     */
+    private void apply(Set<Path> changes) {
+        for (var path : changes) {
+            var location = layout.locate(root.relativize(path));
+            if (location == null) {
+                continue;
+            }
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                remove(location);
+                continue;
+            } catch (IOException e) {
+                errorHandler.accept(path + ":" + e.getMessage());
+                continue;
+            }
+            if (location.isArtifact()) {
+                if (attributes.isRegularFile()) {
+                    put(location.type(), location.artifact(), path, attributes);
+                }
+            } else if (attributes.isDirectory()) {
+                try {
+                    scan(path);
+                } catch (IOException e) {
+                    errorHandler.accept(path + ":" + e.getMessage());
+                }
+            }
+        }
+        holder.publish(state.buildIncremental());
+    }
+
+    private void rescan() throws IOException {
+        var fresh = DeploymentIndex.Builder.newInstance(state != null ? state.size() : 16);
+        scan(root, fresh);
+        state = fresh;
+        holder.publish(state.buildIncremental());
+    }
+
+    private void scan(Path directory) throws IOException {
+        scan(directory, state);
+    }
+
+    /**
+     * Registers the layout directories beneath the given directory and indexes the artifacts they contain into the
+     * builder.
+     */
+    private void scan(Path directory, DeploymentIndex.Builder builder) throws IOException {
+        scanner.scan(directory, true, new LayoutScanner.Listener() {
+            @Override
+            public void onDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+            }
+
+            @Override
+            public void onArtifact(RegistryLocation location, Path file, BasicFileAttributes attributes) {
+                builder.put(location.type(), location.artifact(), FileReference.of(file, attributes));
+            }
+
+            @Override
+            public void onError(String problem) {
+                errorHandler.accept(problem);
+            }
+        });
+    }
+
+    private void put(ArtifactType type, Artifact artifact, Path file, BasicFileAttributes attributes) {
+        state.put(type, artifact, FileReference.of(file, attributes));
+    }
+
+    private void remove(RegistryLocation location) {
+        if (location.isArtifact()) {
+            if (state.typeOf(location.artifact()) == location.type()) {
+                state.remove(location.artifact());
+            }
+            return;
+        }
+        state.removeIf(location::contains);
+    }
+}
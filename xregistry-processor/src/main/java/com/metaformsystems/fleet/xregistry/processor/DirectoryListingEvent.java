@@ -0,0 +1,44 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted for each directory read by a walker. The event spans the processing of the directory, of which reading the
+ * entries takes {@link #listingTime}.
+ */
+@Name("com.metaformsystems.fleet.xregistry.DirectoryListing")
+@Label("Directory Listing")
+@Category({ "Fleet Tooling", "xRegistry" })
+@Description("A directory read while walking an xRegistry")
+@StackTrace(false)
+final class DirectoryListingEvent extends Event {
+    @Label("Directory")
+    String directory;
+
+    @Label("Entries")
+    int entries;
+
+    @Label("Listing Time")
+    @Timespan
+    long listingTime;
+}
@@ -14,10 +14,14 @@
 package com.metaformsystems.fleet.xregistry.processor;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
 
-import static java.nio.file.Files.exists;
+import static java.util.Arrays.stream;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Walks an expanded file-system-based xRegistry. Expanded form consists of a directory structure containing versioned resources:
@@ -30,48 +34,81 @@
  * <li>SCHEMA - under /schemagroups</li>
  * <li>RULE - under /rulegroups</li>
  * </ul>
+ * In parallel mode, each group and each resource is processed as a separate task. Groups and resources outside the
+ * {@link ArtifactSelection} of the configuration are pruned before their directories are listed, and version files of
+ * unselected versions are not stat'ed.
  */
 public class ExpandedFileSystemWalker extends AbstractFileSystemWalker {
     private static final String VERSIONS = "versions";
+    private static final Map<String, ArtifactType> DISPATCH_TABLE = stream(ArtifactType.values())
+            .collect(toMap(ArtifactType::groupName, identity()));
 
     public ExpandedFileSystemWalker(XRegistryVisitor visitor) {
         super(visitor);
     }
 
-    protected void processPath(ArtifactType type, Path rootPath) {
-        var policyGroupPath = rootPath.resolve(type.groupName());
-        if (exists(policyGroupPath)) {
-            try (var paths = Files.list(policyGroupPath)) {
-                paths.filter(Files::isDirectory)
-                        .forEach(groupPath -> processGroup(type, groupPath));
-            } catch (IOException e) {
-                visitor.onError(policyGroupPath.toString());
-            }
+    public ExpandedFileSystemWalker(XRegistryVisitor visitor, WalkerConfiguration configuration) {
+        super(visitor, configuration);
+    }
+
+    @Override
+    protected Map<String, ArtifactType> dispatchTable() {
+        return DISPATCH_TABLE;
+    }
+
+    @Override
+    protected void processTypeDirectory(ArtifactType type, Path groupTypePath) {
+        try {
+            var selection = configuration.getSelection();
+            forEachEntry(groupTypePath, groupPath -> {
+                if (selection.includesGroup(groupPath.getFileName().toString())) {
+                    fork(() -> processGroup(type, groupPath));
+                }
+            });
+        } catch (IOException e) {
+            reportError(groupTypePath.toString(), e);
         }
     }
 
     private void processGroup(ArtifactType type, Path groupPath) {
         var resourcesPath = groupPath.resolve(type.resourcesName());
-        try (var resourcePath = Files.list(resourcesPath)) {
-            resourcePath.filter(Files::isDirectory)
-                    .forEach(p -> processResource(type, groupPath.getFileName().toString(), p));
+        try {
+            var selection = configuration.getSelection();
+            var group = groupPath.getFileName().toString();
+            forEachEntry(resourcesPath, p -> {
+                if (selection.includesName(p.getFileName().toString())) {
+                    fork(() -> processResource(type, group, p));
+                }
+            });
+        } catch (NotDirectoryException e) {
+            // not a group directory
         } catch (IOException e) {
-            visitor.onError(resourcesPath + ":" + e.getMessage());
+            reportError(resourcesPath + ":" + e.getMessage(), e);
         }
     }
 
     private void processResource(ArtifactType type, String group, Path resourcePath) {
         var versionsPath = resourcePath.resolve(VERSIONS);
-        try (var version = Files.list(versionsPath)) {
-            version.filter(Files::isRegularFile)
-                    .forEach(p -> processResourceVersion(type, group, resourcePath.toFile().getName(), p));
+        try {
+            var selection = configuration.getSelection();
+            var name = resourcePath.getFileName().toString();
+            forEachEntry(versionsPath, p -> {
+                if (selection.includesVersion(p.getFileName().toString())) {
+                    var attributes = readFileAttributes(p);
+                    if (attributes != null) {
+                        processResourceVersion(type, group, name, p, attributes);
+                    }
+                }
+            });
+        } catch (NotDirectoryException e) {
+            // not a resource directory
         } catch (IOException e) {
-            visitor.onError(versionsPath + ":" + e.getMessage());
+            reportError(versionsPath + ":" + e.getMessage(), e);
         }
     }
 
-    private void processResourceVersion(ArtifactType type, String group, String name, Path filePath) {
-        processFile(type, new Artifact(group, name, filePath.toFile().getName()), filePath);
+    private void processResourceVersion(ArtifactType type, String group, String name, Path filePath, BasicFileAttributes attributes) {
+        processFile(type, new Artifact(group, name, filePath.getFileName().toString()), filePath, attributes);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted for each artifact file reported to a visitor. The event spans metadata extraction and the visitor callback.
+ */
+@Name("com.metaformsystems.fleet.xregistry.FileDispatch")
+@Label("File Dispatch")
+@Category({ "Fleet Tooling", "xRegistry" })
+@Description("An artifact file dispatched to the visitor of a walk")
+@StackTrace(false)
+final class FileDispatchEvent extends Event {
+    @Label("Path")
+    String path;
+
+    @Label("Artifact")
+    String artifact;
+
+    @Label("Artifact Type")
+    String artifactType;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
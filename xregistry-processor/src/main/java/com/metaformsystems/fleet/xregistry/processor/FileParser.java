@@ -18,11 +18,10 @@
 
 /**
  * Parses compact file names
+ *
+ * @see FilenameGrammar
  */
 public class FileParser {
-    private static final int TOKEN_COUNT = 4;  // group, resource name, version, extension
-    private static final int GROUP = 0;
-    private static final int RESOURCE_NAME = 1;
 
     /**
      * Parse a filename in the format "group.resource-name.version.extension" and return the artifact.
@@ -32,26 +31,6 @@ public class FileParser {
      */
     @Nullable
     public static Artifact parseFilename(String filename) {
-        if (filename == null || filename.isEmpty()) {
-            return null;
-        }
-
-        var tokens = filename.split("\\.");
-        if (tokens.length < TOKEN_COUNT) {
-            return null; // Need at least group.resource.version.extension
-        }
-
-        var group = tokens[GROUP];
-        var resourceName = tokens[RESOURCE_NAME];
-
-        // everything from third token to second-to-last token is the version
-        var version = new StringBuilder();
-        for (var i = 2; i < tokens.length - 1; i++) {
-            if (i > 2) {
-                version.append(".");
-            }
-            version.append(tokens[i]);
-        }
-        return new Artifact(group, resourceName, version.toString());
+        return FilenameGrammar.DEFAULT.parse(filename);
     }
 }
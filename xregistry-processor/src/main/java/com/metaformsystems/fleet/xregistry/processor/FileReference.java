@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Supplier;
+
+import static java.nio.file.Files.newInputStream;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A reference to artifact content stored in a file. The size and last-modified time (in milliseconds) are captured when
+ * the file is visited and identify the version of the content the reference was created for. If {@link ProcessorMetrics}
+ * are active, opened streams count the bytes read and are tracked as open files until closed.
+ */
+public record FileReference(Path path, long size, long lastModified) implements Supplier<InputStream> {
+
+    public FileReference {
+        requireNonNull(path, "path cannot be null");
+    }
+
+    public static FileReference of(Path path, BasicFileAttributes attributes) {
+        return new FileReference(path, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    @Override
+    public InputStream get() {
+        var event = new ContentOpenEvent();
+        event.begin();
+        try {
+            var stream = newInputStream(path);
+            event.succeeded = true;
+            var instruments = Instruments.get();
+            return instruments.metered ? new MeteredInputStream(stream, instruments) : stream;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.path = path.toString();
+                event.bytes = size;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the file was removed or its size or last-modified time no longer match this reference.
+     */
+    public boolean isStale() throws IOException {
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() != size || attributes.lastModifiedTime().toMillis() != lastModified;
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Describes how compact file names are split into group, resource name, version and extension, and parses them.
+ * <p>
+ * A name is scanned once by index, without regular expressions or intermediate token arrays, and only the group, name
+ * and version strings of the resulting {@link Artifact} are allocated. The group and resource name are the first two
+ * tokens. The extension is the last token or, if extensions are configured, the longest matching configured suffix, which
+ * may itself contain separators ({@code schema.json}). Everything between the resource name and the extension is the
+ * version, unless versions are restricted to a single token. Trailing separators are ignored.
+ * <p>
+ * The {@link #DEFAULT default grammar} uses {@code .} as the separator, accepts any extension and allows dotted versions.
+ */
+public class FilenameGrammar {
+    public static final FilenameGrammar DEFAULT = Builder.newInstance().build();
+
+    private char separator = '.';
+    private List<String> extensions = List.of();
+    private boolean dottedVersions = true;
+
+    private FilenameGrammar() {
+    }
+
+    /**
+     * Parses a file name.
+     *
+     * @return the artifact or null if the name does not match the grammar
+     */
+    @Nullable
+    public Artifact parse(CharSequence filename) {
+        if (filename == null) {
+            return null;
+        }
+        var end = filename.length();
+        while (end > 0 && filename.charAt(end - 1) == separator) {
+            end--;
+        }
+        var groupEnd = indexOf(filename, 0, end);
+        var nameEnd = groupEnd < 0 ? -1 : indexOf(filename, groupEnd + 1, end);
+        if (nameEnd < 0) {
+            return null;
+        }
+        var versionEnd = versionEnd(filename, nameEnd + 1, end);
+        if (versionEnd < 0) {
+            return null;
+        }
+        return new Artifact(
+                filename.subSequence(0, groupEnd).toString(),
+                filename.subSequence(groupEnd + 1, nameEnd).toString(),
+                filename.subSequence(nameEnd + 1, versionEnd).toString());
+    }
+
+    /**
+     * Parses a UTF-8 encoded file name, for example from an archive entry, without decoding it as a whole. The separator
+     * and extensions must be ASCII.
+     *
+     * @return the artifact or null if the name does not match the grammar
+     */
+    @Nullable
+    public Artifact parse(byte[] filename, int offset, int length) {
+        return parse(new Utf8Sequence(filename, offset, length));
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    public List<String> getExtensions() {
+        return extensions;
+    }
+
+    public boolean allowsDottedVersions() {
+        return dottedVersions;
+    }
+
+    /**
+     * Returns the end of the version, which starts at the given index, or -1 if there is no version and extension.
+     */
+    private int versionEnd(CharSequence filename, int versionStart, int end) {
+        int versionEnd;
+        if (extensions.isEmpty()) {
+            versionEnd = lastIndexOf(filename, versionStart, end);
+        } else {
+            versionEnd = -1;
+            for (var extension : extensions) { // sorted longest first
+                var candidate = end - extension.length() - 1;
+                if (candidate >= versionStart && filename.charAt(candidate) == separator && regionMatches(filename, candidate + 1, extension)) {
+                    versionEnd = candidate;
+                    break;
+                }
+            }
+        }
+        if (versionEnd < versionStart) {
+            return -1;
+        }
+        if (!dottedVersions && indexOf(filename, versionStart, versionEnd) >= 0) {
+            return -1;
+        }
+        return versionEnd;
+    }
+
+    private int indexOf(CharSequence filename, int from, int to) {
+        for (var i = from; i < to; i++) {
+            if (filename.charAt(i) == separator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastIndexOf(CharSequence filename, int from, int to) {
+        for (var i = to - 1; i >= from; i--) {
+            if (filename.charAt(i) == separator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence filename, int offset, String value) {
+        for (var i = 0; i < value.length(); i++) {
+            if (filename.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exposes UTF-8 bytes as characters for scanning, decoding only the subsequences that are requested. Bytes of
+     * multibyte sequences never match an ASCII separator.
+     */
+    private record Utf8Sequence(byte[] bytes, int offset, int length) implements CharSequence {
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(bytes, offset + start, end - start, UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, UTF_8);
+        }
+    }
+
+    public static class Builder {
+        private final FilenameGrammar grammar;
+
+        private Builder() {
+            grammar = new FilenameGrammar();
+        }
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        public Builder separator(char separator) {
+            grammar.separator = separator;
+            return this;
+        }
+
+        /**
+         * Restricts names to the given extensions, given without a leading separator. By default, any last token is
+         * accepted as the extension.
+         */
+        public Builder extensions(Set<String> extensions) {
+            var sorted = new ArrayList<>(extensions);
+            sorted.sort((left, right) -> Integer.compare(right.length(), left.length()));
+            grammar.extensions = List.copyOf(sorted);
+            return this;
+        }
+
+        /**
+         * Sets whether versions may span several tokens, as in {@code 1.0.0}. If not, a version is a single token.
+         */
+        public Builder dottedVersions(boolean dottedVersions) {
+            grammar.dottedVersions = dottedVersions;
+            return this;
+        }
+
+        public FilenameGrammar build() {
+            for (var extension : grammar.extensions) {
+                if (extension.isEmpty()) {
+                    throw new IllegalArgumentException("extensions must not be empty");
+                }
+            }
+            return grammar;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a {@link DeploymentIndex} is built.
+ */
+@Name("com.metaformsystems.fleet.xregistry.IndexBuild")
+@Label("Index Build")
+@Category({ "Fleet Tooling", "xRegistry" })
+@Description("A deployment index built from its builder")
+final class IndexBuildEvent extends Event {
+    @Label("Artifacts")
+    int artifacts;
+
+    @Label("Policies")
+    int policies;
+
+    @Label("Schemas")
+    int schemas;
+
+    @Label("Rules")
+    int rules;
+}
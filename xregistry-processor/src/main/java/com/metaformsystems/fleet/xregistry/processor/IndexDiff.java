@@ -0,0 +1,45 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.List;
+
+/**
+ * The changes between two versions of a {@link DeploymentIndex}, as computed by {@link MerkleTree#diff(MerkleTree)}.
+ * An artifact whose content or type changed is listed as changed.
+ *
+ * @param added   the artifacts only in the newer index
+ * @param removed the artifacts only in the older index
+ * @param changed the artifacts in both indexes whose content or type differs
+ */
+public record IndexDiff(List<Artifact> added, List<Artifact> removed, List<Artifact> changed) {
+
+    public IndexDiff {
+        added = List.copyOf(added);
+        removed = List.copyOf(removed);
+        changed = List.copyOf(changed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    /**
+     * Returns the number of added, removed and changed artifacts.
+     */
+    public int size() {
+        return added.size() + removed.size() + changed.size();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The estimated retained heap size of a {@link DeploymentIndex}, broken down by component.
+ * <p>
+ * Sizes are derived from the object layout of the running JVM, accounting for headers, reference width and alignment.
+ * Objects shared between artifacts, such as interned strings, are counted once. Content served by references is not part
+ * of the footprint; references are sized by their own fields, and the paths of {@link FileReference}s are counted
+ * separately. Estimates are meant to track regressions and size heaps, not to match a heap dump exactly.
+ */
+public record IndexFootprint(int artifacts, Map<Component, Long> bytes) {
+
+    public enum Component {
+        /**
+         * The canonical {@link Artifact} instances.
+         */
+        KEYS,
+        /**
+         * The distinct group, name and version strings of the artifacts.
+         */
+        STRINGS,
+        /**
+         * The paths of file-backed references.
+         */
+        PATHS,
+        /**
+         * The reference objects supplying artifact content.
+         */
+        REFERENCES,
+        /**
+         * Extracted metadata, including its maps and values.
+         */
+        METADATA,
+        /**
+         * The key table, the arrays indexed by artifact id and the map views.
+         */
+        STRUCTURE,
+        /**
+         * The navigation hierarchy, if a query has built it.
+         */
+        HIERARCHY
+    }
+
+    public IndexFootprint {
+        var copy = new EnumMap<Component, Long>(Component.class);
+        copy.putAll(bytes);
+        bytes = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Estimates the footprint of the index using the object layout of the running JVM.
+     */
+    public static IndexFootprint of(DeploymentIndex index) {
+        return of(index, ObjectSizes.current());
+    }
+
+    static IndexFootprint of(DeploymentIndex index, ObjectSizes sizes) {
+        var seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        var bytes = new EnumMap<Component, Long>(Component.class);
+        for (var component : Component.values()) {
+            bytes.put(component, 0L);
+        }
+        var artifactSize = sizes.shallowSize(Artifact.class);
+        for (var id = 0; id < index.size(); id++) {
+            var artifact = index.artifact(id);
+            bytes.merge(Component.KEYS, artifactSize, Long::sum);
+            bytes.merge(Component.STRINGS, string(artifact.group(), seen, sizes)
+                    + string(artifact.name(), seen, sizes) + string(artifact.version(), seen, sizes), Long::sum);
+            var ref = index.ref(id);
+            if (seen.add(ref)) {
+                bytes.merge(Component.REFERENCES, sizes.shallowSize(ref.getClass()), Long::sum);
+                if (ref instanceof FileReference fileReference && seen.add(fileReference.path())) {
+                    bytes.merge(Component.PATHS, sizes.path(fileReference.path()), Long::sum);
+                }
+            }
+            bytes.merge(Component.METADATA, metadata(index.metadata(id), seen, sizes), Long::sum);
+        }
+        bytes.put(Component.STRUCTURE, index.footprint(sizes));
+        var hierarchy = index.builtHierarchy();
+        if (hierarchy != null) {
+            bytes.put(Component.HIERARCHY, hierarchy.footprint(sizes));
+        }
+        return new IndexFootprint(index.size(), bytes);
+    }
+
+    public long bytes(Component component) {
+        return bytes.getOrDefault(component, 0L);
+    }
+
+    public long total() {
+        return bytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns the average number of bytes per artifact, or zero for an empty index.
+     */
+    public double bytesPerArtifact() {
+        return artifacts == 0 ? 0 : (double) total() / artifacts;
+    }
+
+    /**
+     * Returns a table of the components with their size and share of the total.
+     */
+    public String report() {
+        var total = total();
+        var report = new StringBuilder(String.format("%,d artifacts, %,d bytes, %.1f bytes per artifact%n", artifacts, total, bytesPerArtifact()));
+        bytes.forEach((component, size) -> report.append(String.format("  %-10s %,14d %5.1f%%%n",
+                component.name().toLowerCase(), size, total == 0 ? 0.0 : 100.0 * size / total)));
+        return report.toString();
+    }
+
+    private static long string(String value, Set<Object> seen, ObjectSizes sizes) {
+        return seen.add(value) ? sizes.string(value) : 0;
+    }
+
+    /**
+     * Estimates metadata held in the immutable maps and lists created by {@link ArtifactMetadata}.
+     */
+    private static long metadata(ArtifactMetadata metadata, Set<Object> seen, ObjectSizes sizes) {
+        if (metadata.isBlank() || !seen.add(metadata)) {
+            return 0;
+        }
+        var fields = metadata.fields();
+        var size = sizes.shallowSize(ArtifactMetadata.class);
+        if (metadata.sha256() != null) {
+            size += sizes.array(metadata.sha256().length, Byte.BYTES);
+        }
+        if (!fields.isEmpty()) {
+            // immutable maps with several entries probe a table of twice their capacity holding keys and values
+            size += fields.size() == 1
+                    ? sizes.instance(2, 0)
+                    : sizes.instance(1, Integer.BYTES) + sizes.referenceArray(fields.size() * 4);
+        }
+        for (var field : fields) {
+            size += string(field, seen, sizes);
+            var scalar = metadata.get(field);
+            if (scalar != null) {
+                size += string(scalar, seen, sizes);
+                continue;
+            }
+            List<String> values = metadata.getAll(field);
+            size += sizes.instance(1, 1) + sizes.referenceArray(values.size());
+            for (var value : values) {
+                size += string(value, seen, sizes);
+            }
+        }
+        return size;
+    }
+}
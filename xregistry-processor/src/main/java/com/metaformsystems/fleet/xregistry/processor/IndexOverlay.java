@@ -0,0 +1,193 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The changes of a {@link DeploymentIndex} relative to a base index, used to publish an updated index without copying
+ * the content of the base.
+ * <p>
+ * Changed artifacts are held in a small {@link ArtifactKeyTable} of their own and shadow the base entries of the same
+ * artifacts; removed artifacts only shadow them. Ids stay dense: unshadowed base entries keep their ids if they are below
+ * the new size, and the positions left free by shadowed entries are filled with the changed entries and with the base
+ * entries beyond the new size. These relocations are held in sorted arrays, so resolving an id or an artifact costs a
+ * binary search over the changes in addition to the base lookup. Building an overlay takes time proportional to the
+ * number of changes.
+ */
+final class IndexOverlay {
+    private final DeploymentIndex base;
+    private final int size;
+    private final int changes;
+    private final ArtifactKeyTable entryKeys;
+    private final Supplier<InputStream>[] entryRefs;
+    private final byte[] entryTypes;
+    private final ArtifactMetadata[] entryMetadata;
+    private final int[] entryPositions;
+    private final int[] shadowed;
+    // free positions in ascending order and the entries moved there: a base id or, if negative, -(entry + 1)
+    private final int[] positions;
+    private final int[] sources;
+    // base ids beyond the size in ascending order and their positions
+    private final int[] movedIds;
+    private final int[] movedTo;
+
+    /**
+     * Creates an overlay of the base index. For each changed artifact, {@code refs} holds its reference or null if it was
+     * removed, and {@code types} and {@code metadata} its type ordinal and metadata.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    IndexOverlay(DeploymentIndex base, Artifact[] changed, Supplier<InputStream>[] refs, byte[] types, ArtifactMetadata[] metadata) {
+        this.base = base;
+        this.changes = changed.length;
+        var shadowedIds = new int[changed.length];
+        var shadowedCount = 0;
+        var entries = 0;
+        for (var i = 0; i < changed.length; i++) {
+            var id = base.idOf(changed[i]);
+            if (id >= 0) {
+                shadowedIds[shadowedCount++] = id;
+            }
+            if (refs[i] != null) {
+                entries++;
+            }
+        }
+        shadowed = Arrays.copyOf(shadowedIds, shadowedCount);
+        Arrays.sort(shadowed);
+        size = base.size() - shadowedCount + entries;
+
+        entryKeys = new ArtifactKeyTable(entries);
+        entryRefs = (Supplier<InputStream>[]) new Supplier[entries];
+        entryTypes = new byte[entries];
+        entryMetadata = new ArtifactMetadata[entries];
+        for (var i = 0; i < changed.length; i++) {
+            if (refs[i] != null) {
+                var entry = entryKeys.add(changed[i]);
+                entryRefs[entry] = refs[i];
+                entryTypes[entry] = types[i];
+                entryMetadata[entry] = metadata[i];
+            }
+        }
+
+        // free positions are the shadowed ids below the size followed by the positions beyond the base
+        var free = 0;
+        while (free < shadowed.length && shadowed[free] < size) {
+            free++;
+        }
+        positions = new int[free + Math.max(size - base.size(), 0)];
+        System.arraycopy(shadowed, 0, positions, 0, free);
+        for (var position = base.size(); position < size; position++) {
+            positions[free++] = position;
+        }
+
+        // the changed entries are placed first, then the unshadowed base entries beyond the size
+        sources = new int[positions.length];
+        entryPositions = new int[entries];
+        var next = 0;
+        for (var entry = 0; entry < entries; entry++) {
+            entryPositions[entry] = positions[next];
+            sources[next++] = -(entry + 1);
+        }
+        movedIds = new int[positions.length - next];
+        movedTo = new int[movedIds.length];
+        var moved = 0;
+        for (var id = size; id < base.size(); id++) {
+            if (Arrays.binarySearch(shadowed, id) < 0) {
+                movedIds[moved] = id;
+                movedTo[moved++] = positions[next];
+                sources[next++] = id;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of changed artifacts, including removed ones.
+     */
+    int changes() {
+        return changes;
+    }
+
+    int idOf(Object key) {
+        var entry = entryKeys.idOf(key);
+        if (entry >= 0) {
+            return entryPositions[entry];
+        }
+        var id = base.idOf(key);
+        if (id < 0 || Arrays.binarySearch(shadowed, id) >= 0) {
+            return -1;
+        }
+        return id < size ? id : movedTo[Arrays.binarySearch(movedIds, id)];
+    }
+
+    Artifact artifact(int id) {
+        var source = source(id);
+        return source >= 0 ? base.artifact(source) : entryKeys.artifact(-source - 1);
+    }
+
+    int type(int id) {
+        var source = source(id);
+        return source >= 0 ? base.type(source).ordinal() : entryTypes[-source - 1];
+    }
+
+    Supplier<InputStream> ref(int id) {
+        var source = source(id);
+        return source >= 0 ? base.ref(source) : entryRefs[-source - 1];
+    }
+
+    ArtifactMetadata metadata(int id) {
+        var source = source(id);
+        return source >= 0 ? base.metadata(source) : entryMetadata[-source - 1];
+    }
+
+    /**
+     * Adds the entries of this overlay to the per-type counts of the base.
+     */
+    int[] counts(int[] baseCounts) {
+        var counts = baseCounts.clone();
+        for (var id : shadowed) {
+            counts[base.type(id).ordinal()]--;
+        }
+        for (var type : entryTypes) {
+            counts[type]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the estimated size of the overlay, excluding the base index.
+     */
+    long footprint(ObjectSizes sizes) {
+        return sizes.shallowSize(IndexOverlay.class) + entryKeys.footprint(sizes) + sizes.referenceArray(entryRefs.length)
+                + sizes.array(entryTypes.length, Byte.BYTES) + sizes.referenceArray(entryMetadata.length)
+                + sizes.array(entryPositions.length + shadowed.length + positions.length * 2 + movedIds.length * 2, Integer.BYTES);
+    }
+
+    /**
+     * Returns the id of the base entry at the position, or {@code -(entry + 1)} for a changed entry.
+     */
+    private int source(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(id);
+        }
+        var position = Arrays.binarySearch(positions, id);
+        return position >= 0 ? sources[position] : id;
+    }
+}
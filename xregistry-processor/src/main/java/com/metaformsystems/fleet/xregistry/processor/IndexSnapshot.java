@@ -0,0 +1,406 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A persistent, memory-mapped snapshot of a {@link DeploymentIndex} for fast startup.
+ * <p>
+ * For each file-backed artifact, the snapshot records the group, name, version and type together with the path relative to
+ * the registry root, the size and the last-modified time of its file. It also records the last-modified time of every
+ * layout directory. An opened snapshot answers {@link #findArtifact(Artifact)} in place through an embedded hash table
+ * without deserializing entries onto the heap, so lookups are available immediately after the file is mapped.
+ * <p>
+ * {@link #refresh(XRegistryVisitor)} reconciles the snapshot with the registry. Directories whose modification time
+ * changed are rescanned, since entries were added, removed or renamed in them. Each remaining entry is checked against the
+ * size and modification time of its file. Only the stale parts of the registry are walked again.
+ * <p>
+ * The file consists of a header, fixed-size entry records, an open-addressing hash table of entry numbers, fixed-size
+ * directory records and a table of length-prefixed UTF-8 strings referenced by offset. Snapshots are written to a
+ * temporary file and moved into place atomically.
+ */
+public class IndexSnapshot {
+    private static final int MAGIC = 0x58524958; // "XRIX"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int ENTRY_SIZE = 40;
+    private static final int SLOT_SIZE = 4;
+    private static final int DIRECTORY_SIZE = 12;
+
+    // entry record layout
+    private static final int GROUP = 0;
+    private static final int NAME = 4;
+    private static final int VERSION = 8;
+    private static final int PATH = 12;
+    private static final int TYPE = 16;
+    private static final int HASH = 20;
+    private static final int SIZE = 24;
+    private static final int LAST_MODIFIED = 32;
+
+    // directory record layout
+    private static final int DIRECTORY_PATH = 0;
+    private static final int DIRECTORY_LAST_MODIFIED = 4;
+
+    private static final ArtifactType[] TYPES = ArtifactType.values();
+
+    private final Path root;
+    private final RegistryLayout layout;
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int tableMask;
+    private final int directoryCount;
+    private final int tableOffset;
+    private final int directoriesOffset;
+    private final int stringsOffset;
+
+    private IndexSnapshot(Path root, RegistryLayout layout, ByteBuffer buffer) throws IOException {
+        this.root = root;
+        this.layout = layout;
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an index snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported index snapshot version: " + buffer.getInt(4));
+        }
+        entryCount = buffer.getInt(8);
+        var tableSize = buffer.getInt(12);
+        directoryCount = buffer.getInt(16);
+        tableMask = tableSize - 1;
+        tableOffset = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        directoriesOffset = tableOffset + tableSize * SLOT_SIZE;
+        stringsOffset = directoriesOffset + directoryCount * DIRECTORY_SIZE;
+        if (stringsOffset + buffer.getInt(20) != buffer.limit()) {
+            throw new IOException("Truncated index snapshot");
+        }
+    }
+
+    /**
+     * Maps a snapshot file. The registry root and layout are used to resolve entry paths and rescan directories.
+     */
+    public static IndexSnapshot open(Path snapshotFile, Path root, RegistryLayout layout) throws IOException {
+        try (var channel = FileChannel.open(snapshotFile, READ)) {
+            return new IndexSnapshot(root, layout, channel.map(READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a snapshot of the file-backed artifacts of an index that was built from the given registry. Directory
+     * modification times are read while writing, so the snapshot should be written right after the index is built.
+     */
+    public static void write(DeploymentIndex index, Path root, RegistryLayout layout, Path snapshotFile) throws IOException {
+        var entries = new ArrayList<Entry>();
+        for (var id = 0; id < index.size(); id++) {
+            if (index.ref(id) instanceof FileReference fileReference) {
+                entries.add(new Entry(index.type(id), index.artifact(id), fileReference));
+            }
+        }
+
+        var directories = new LinkedHashMap<String, Long>();
+        new LayoutScanner(root, layout).scan(root, false, new LayoutScanner.Listener() {
+            @Override
+            public void onDirectory(Path directory, BasicFileAttributes attributes) {
+                directories.put(relativize(root, directory), attributes.lastModifiedTime().to(NANOSECONDS));
+            }
+
+            @Override
+            public void onError(String problem) {
+                // unreadable directories are not recorded; their entries are validated individually on refresh
+            }
+        });
+
+        var strings = new StringTable();
+        var tableSize = Integer.highestOneBit(Math.max(1, entries.size()) * 2 - 1) << 1;
+        var tableOffset = HEADER_SIZE + entries.size() * ENTRY_SIZE;
+        var directoriesOffset = tableOffset + tableSize * SLOT_SIZE;
+        var stringsOffset = directoriesOffset + directories.size() * DIRECTORY_SIZE;
+
+        var entryRecords = ByteBuffer.allocate(entries.size() * ENTRY_SIZE);
+        var table = ByteBuffer.allocate(tableSize * SLOT_SIZE);
+        for (var i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
+            var artifact = entry.artifact();
+            var hash = hash(artifact);
+            var record = i * ENTRY_SIZE;
+            entryRecords.putInt(record + GROUP, strings.add(artifact.group()));
+            entryRecords.putInt(record + NAME, strings.add(artifact.name()));
+            entryRecords.putInt(record + VERSION, strings.add(artifact.version()));
+            entryRecords.putInt(record + PATH, strings.add(relativize(root, entry.ref().path())));
+            entryRecords.putInt(record + TYPE, entry.type().ordinal());
+            entryRecords.putInt(record + HASH, hash);
+            entryRecords.putLong(record + SIZE, entry.ref().size());
+            entryRecords.putLong(record + LAST_MODIFIED, entry.ref().lastModified());
+
+            var slot = hash & (tableSize - 1);
+            while (table.getInt(slot * SLOT_SIZE) != 0) {
+                slot = (slot + 1) & (tableSize - 1);
+            }
+            table.putInt(slot * SLOT_SIZE, i + 1);
+        }
+
+        var directoryRecords = ByteBuffer.allocate(directories.size() * DIRECTORY_SIZE);
+        var record = 0;
+        for (var directory : directories.entrySet()) {
+            directoryRecords.putInt(record + DIRECTORY_PATH, strings.add(directory.getKey()));
+            directoryRecords.putLong(record + DIRECTORY_LAST_MODIFIED, directory.getValue());
+            record += DIRECTORY_SIZE;
+        }
+
+        var stringBytes = strings.bytes();
+        var header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(entries.size())
+                .putInt(tableSize)
+                .putInt(directories.size())
+                .putInt(stringBytes.length);
+
+        var temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            var mapped = channel.map(READ_WRITE, 0, (long) stringsOffset + stringBytes.length);
+            mapped.put(header.flip());
+            mapped.put(entryRecords.clear());
+            mapped.put(table.clear());
+            mapped.put(directoryRecords.clear());
+            mapped.put(stringBytes);
+            mapped.force();
+        }
+        Files.move(temporary, snapshotFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the number of artifacts in the snapshot.
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Looks up an artifact directly in the mapped snapshot.
+     *
+     * @return a reference to the artifact file as recorded in the snapshot or null if the artifact is not present
+     */
+    @Nullable
+    public FileReference findArtifact(Artifact artifact) {
+        var hash = hash(artifact);
+        for (var slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            var number = buffer.getInt(tableOffset + slot * SLOT_SIZE);
+            if (number == 0) {
+                return null;
+            }
+            var record = HEADER_SIZE + (number - 1) * ENTRY_SIZE;
+            if (buffer.getInt(record + HASH) == hash
+                    && stringEquals(buffer.getInt(record + VERSION), artifact.version())
+                    && stringEquals(buffer.getInt(record + NAME), artifact.name())
+                    && stringEquals(buffer.getInt(record + GROUP), artifact.group())) {
+                return reference(record);
+            }
+        }
+    }
+
+    /**
+     * Reconciles the snapshot with the registry and reports the current artifacts to the visitor. Directories that changed
+     * since the snapshot was written are rescanned; all other entries are validated against the size and modification
+     * time of their file.
+     */
+    public void refresh(XRegistryVisitor visitor) {
+        visitor.onStart();
+        try {
+            var changed = new HashSet<String>();
+            for (var i = 0; i < directoryCount; i++) {
+                var record = directoriesOffset + i * DIRECTORY_SIZE;
+                var directory = string(buffer.getInt(record + DIRECTORY_PATH));
+                if (lastModified(root.resolve(directory)) != buffer.getLong(record + DIRECTORY_LAST_MODIFIED)) {
+                    changed.add(directory);
+                }
+            }
+
+            var scanner = new LayoutScanner(root, layout);
+            for (var directory : changed) {
+                var path = root.resolve(directory);
+                if ((directory.isEmpty() || !isBeneath(directory, changed)) && Files.isDirectory(path)) {
+                    scanner.scan(path, true, new LayoutScanner.Listener() {
+                        @Override
+                        public void onArtifact(RegistryLocation location, Path file, BasicFileAttributes attributes) {
+                            dispatch(visitor, location.type(), location.artifact(), FileReference.of(file, attributes));
+                        }
+
+                        @Override
+                        public void onError(String problem) {
+                            visitor.onError(problem);
+                        }
+                    });
+                }
+            }
+
+            var decoded = new HashMap<Integer, String>();
+            for (var i = 0; i < entryCount; i++) {
+                var record = HEADER_SIZE + i * ENTRY_SIZE;
+                var relativePath = string(buffer.getInt(record + PATH));
+                if (isBeneath(relativePath, changed)) {
+                    continue;
+                }
+                var ref = reference(record);
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(ref.path(), BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.size() != ref.size() || attributes.lastModifiedTime().toMillis() != ref.lastModified()) {
+                    ref = FileReference.of(ref.path(), attributes);
+                }
+                var artifact = new Artifact(
+                        decoded.computeIfAbsent(buffer.getInt(record + GROUP), this::string),
+                        decoded.computeIfAbsent(buffer.getInt(record + NAME), this::string),
+                        string(buffer.getInt(record + VERSION)));
+                dispatch(visitor, TYPES[buffer.getInt(record + TYPE)], artifact, ref);
+            }
+
+            visitor.onComplete();
+        } catch (IOException | RuntimeException e) {
+            visitor.onError(root + ":" + e.getMessage());
+        }
+    }
+
+    private FileReference reference(int record) {
+        return new FileReference(root.resolve(string(buffer.getInt(record + PATH))),
+                buffer.getLong(record + SIZE),
+                buffer.getLong(record + LAST_MODIFIED));
+    }
+
+    private String string(int offset) {
+        var position = stringsOffset + offset;
+        var bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Compares a string in the table with the given value without decoding it.
+     */
+    private boolean stringEquals(int offset, String value) {
+        var position = stringsOffset + offset;
+        var length = buffer.getInt(position);
+        if (length < value.length()) {
+            return false;
+        }
+        for (var i = 0; i < length; i++) {
+            var b = buffer.get(position + 4 + i);
+            if (b < 0) {
+                return string(offset).equals(value);
+            }
+            if (i >= value.length() || value.charAt(i) != b) {
+                return false;
+            }
+        }
+        return length == value.length();
+    }
+
+    private static void dispatch(XRegistryVisitor visitor, ArtifactType type, Artifact artifact, FileReference ref) {
+        switch (type) {
+            case POLICY -> visitor.onPolicy(artifact, ref);
+            case SCHEMA -> visitor.onSchema(artifact, ref);
+            case RULE -> visitor.onRule(artifact, ref);
+        }
+    }
+
+    private static long lastModified(Path directory) throws IOException {
+        try {
+            return Files.readAttributes(directory, BasicFileAttributes.class).lastModifiedTime().to(NANOSECONDS);
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns true if the relative path lies beneath one of the given relative directories.
+     */
+    private static boolean isBeneath(String relativePath, Set<String> directories) {
+        if (directories.contains("")) {
+            return true;
+        }
+        for (var i = relativePath.lastIndexOf('/'); i > 0; i = relativePath.lastIndexOf('/', i - 1)) {
+            if (directories.contains(relativePath.substring(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static int hash(Artifact artifact) {
+        var hash = artifact.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Entry(ArtifactType type, Artifact artifact, FileReference ref) {
+    }
+
+    /**
+     * Deduplicating table of length-prefixed UTF-8 strings.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int add(String value) {
+            return offsets.computeIfAbsent(value, v -> {
+                var offset = out.size();
+                var bytes = v.getBytes(UTF_8);
+                out.writeBytes(ByteBuffer.allocate(4).putInt(bytes.length).array());
+                out.writeBytes(bytes);
+                return offset;
+            });
+        }
+
+        byte[] bytes() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The instruments of the active {@link ProcessorMetrics}, created once and shared by all processor components.
+ */
+final class Instruments {
+    private static volatile Instruments current;
+
+    final ProcessorMetrics.Counter walkDirectories;
+    final ProcessorMetrics.Counter walkFiles;
+    final ProcessorMetrics.Counter walkErrors;
+    final ProcessorMetrics.Timer walkDuration;
+    final ProcessorMetrics.Counter visitorArtifacts;
+    final ProcessorMetrics.Counter visitorProblems;
+    final ProcessorMetrics.Counter lookupHits;
+    final ProcessorMetrics.Counter lookupMisses;
+    final ProcessorMetrics.Timer lookupLatency;
+    final ProcessorMetrics.Counter bytesRead;
+    final AtomicLong openFiles = new AtomicLong();
+    final AtomicLong indexSize = new AtomicLong();
+    /**
+     * True if lookups are timed.
+     */
+    final boolean timed;
+    /**
+     * True if content streams are metered.
+     */
+    final boolean metered;
+
+    private Instruments(ProcessorMetrics metrics) {
+        walkDirectories = metrics.counter(ProcessorMetrics.WALK_DIRECTORIES);
+        walkFiles = metrics.counter(ProcessorMetrics.WALK_FILES);
+        walkErrors = metrics.counter(ProcessorMetrics.WALK_ERRORS);
+        walkDuration = metrics.timer(ProcessorMetrics.WALK_DURATION);
+        visitorArtifacts = metrics.counter(ProcessorMetrics.VISITOR_ARTIFACTS);
+        visitorProblems = metrics.counter(ProcessorMetrics.VISITOR_PROBLEMS);
+        lookupHits = metrics.counter(ProcessorMetrics.LOOKUP_HITS);
+        lookupMisses = metrics.counter(ProcessorMetrics.LOOKUP_MISSES);
+        lookupLatency = metrics.timer(ProcessorMetrics.LOOKUP_LATENCY);
+        bytesRead = metrics.counter(ProcessorMetrics.CONTENT_BYTES_READ);
+        metrics.gauge(ProcessorMetrics.CONTENT_OPEN_FILES, openFiles::get);
+        metrics.gauge(ProcessorMetrics.INDEX_SIZE, indexSize::get);
+        timed = lookupLatency != ProcessorMetrics.Timer.NOOP;
+        metered = metrics != ProcessorMetrics.NOOP;
+    }
+
+    static Instruments get() {
+        var instruments = current;
+        if (instruments == null) {
+            synchronized (Instruments.class) {
+                instruments = current;
+                if (instruments == null) {
+                    var metrics = ServiceLoader.load(ProcessorMetrics.class).findFirst().orElse(ProcessorMetrics.NOOP);
+                    instruments = new Instruments(metrics);
+                    current = instruments;
+                }
+            }
+        }
+        return instruments;
+    }
+
+    static synchronized void install(ProcessorMetrics metrics) {
+        current = new Instruments(metrics);
+    }
+}
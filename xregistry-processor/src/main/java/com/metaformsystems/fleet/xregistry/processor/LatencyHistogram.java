@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in buckets whose bounds double from one microsecond. Bucket zero counts latencies below one
+ * microsecond and bucket {@code i} latencies from {@code 2^(i-1)} up to {@code 2^i} microseconds; the last bucket also
+ * counts everything above.
+ */
+public record LatencyHistogram(long[] counts) {
+    public static final int BUCKETS = 32;
+
+    public LatencyHistogram {
+        if (counts.length != BUCKETS) {
+            throw new IllegalArgumentException("Expected " + BUCKETS + " buckets: " + counts.length);
+        }
+        counts = counts.clone();
+    }
+
+    @Override
+    public long[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * Returns the exclusive upper bound of the bucket.
+     */
+    public static Duration upperBound(int bucket) {
+        return Duration.ofNanos(1000L << bucket);
+    }
+
+    public long count() {
+        return Arrays.stream(counts).sum();
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile, or zero if the histogram is empty.
+     *
+     * @param percentile a value from 0 to 100
+     */
+    public Duration percentile(double percentile) {
+        var count = count();
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        var rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        var seen = 0L;
+        for (var bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return upperBound(bucket);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LatencyHistogram other && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram[count=" + count() + ", p50=" + percentile(50) + ", p99=" + percentile(99) + "]";
+    }
+
+    /**
+     * Records latencies from multiple threads.
+     */
+    static class Recorder {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            var micros = nanos / 1000;
+            var bucket = micros <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            counts.incrementAndGet(bucket);
+        }
+
+        LatencyHistogram snapshot() {
+            var snapshot = new long[BUCKETS];
+            for (var bucket = 0; bucket < BUCKETS; bucket++) {
+                snapshot[bucket] = counts.get(bucket);
+            }
+            return new LatencyHistogram(snapshot);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indexes of OCI layers keyed by the digest of the layer blob and the walker settings that decide what a layer indexes
+ * to, used by {@link OciLayoutWalker}.
+ * <p>
+ * Since a digest identifies its content, entries never become stale and a layer referenced again by a later manifest is
+ * served without reading it. Walkers differing in {@link WalkerConfiguration#getMetadataFields() metadata fields},
+ * {@link WalkerConfiguration#isDigestContent() content digests} or {@link WalkerConfiguration#getFilenameGrammar()
+ * filename grammar} each cache their own index of a layer, so none of them is served an index built for another.
+ * Grammars are compared by identity. Layer content is held in memory. The least recently used layers are evicted beyond
+ * the maximum number of layers; their content stays reachable from indexes that still reference it. Instances are
+ * thread-safe.
+ */
+public class LayerCache {
+    private static final int DEFAULT_MAX_LAYERS = 16;
+
+    private final int maxLayers;
+    private final Map<Key, Entry> layers = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    private record Key(String digest, Set<String> metadataFields, boolean digestContent, FilenameGrammar filenameGrammar) {
+
+        Key(String digest, WalkerConfiguration configuration) {
+            this(digest, configuration.getMetadataFields(), configuration.isDigestContent(), configuration.getFilenameGrammar());
+        }
+    }
+
+    private record Entry(DeploymentIndex index, long bytes) {
+    }
+
+    public LayerCache() {
+        this(DEFAULT_MAX_LAYERS);
+    }
+
+    public LayerCache(int maxLayers) {
+        if (maxLayers < 1) {
+            throw new IllegalArgumentException("maxLayers must be positive: " + maxLayers);
+        }
+        this.maxLayers = maxLayers;
+    }
+
+    /**
+     * Returns true if the layer with the digest is cached for any walker settings, without affecting statistics or
+     * recency.
+     */
+    public boolean contains(String digest) {
+        synchronized (layers) {
+            return layers.keySet().stream().anyMatch(key -> key.digest().equals(digest));
+        }
+    }
+
+    public CacheStatistics statistics() {
+        synchronized (layers) {
+            return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), 0, layers.size(), bytes);
+        }
+    }
+
+    /**
+     * Removes all layers.
+     */
+    public void clear() {
+        synchronized (layers) {
+            layers.clear();
+            bytes = 0;
+        }
+    }
+
+    @Nullable
+    DeploymentIndex get(String digest, WalkerConfiguration configuration) {
+        synchronized (layers) {
+            var entry = layers.get(new Key(digest, configuration));
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.index();
+        }
+    }
+
+    void put(String digest, WalkerConfiguration configuration, DeploymentIndex index, long contentBytes) {
+        synchronized (layers) {
+            var previous = layers.put(new Key(digest, configuration), new Entry(index, contentBytes));
+            bytes += contentBytes - (previous != null ? previous.bytes() : 0);
+            var iterator = layers.values().iterator();
+            while (layers.size() > maxLayers && iterator.hasNext()) {
+                bytes -= iterator.next().bytes();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
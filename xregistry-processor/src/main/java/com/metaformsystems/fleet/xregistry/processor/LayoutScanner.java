@@ -0,0 +1,102 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+
+/**
+ * Scans a subtree of a file-system registry, reporting the layout directories and artifact files it contains. Used to
+ * reconcile parts of a registry without walking it in full.
+ */
+class LayoutScanner {
+
+    interface Listener {
+
+        /**
+         * Called for each layout directory, including the directory the scan starts from.
+         */
+        default void onDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+        }
+
+        /**
+         * Called for each artifact file.
+         */
+        default void onArtifact(RegistryLocation location, Path file, BasicFileAttributes attributes) {
+        }
+
+        void onError(String problem);
+    }
+
+    private final Path root;
+    private final RegistryLayout layout;
+
+    LayoutScanner(Path root, RegistryLayout layout) {
+        this.root = root;
+        this.layout = layout;
+    }
+
+    /**
+     * Scans the given directory, which must be the registry root or a layout directory beneath it.
+     *
+     * @param includeArtifacts whether to visit artifact files or only directories
+     */
+    void scan(Path directory, boolean includeArtifacts, Listener listener) throws IOException {
+        var depth = directory.equals(root) ? 0 : root.relativize(directory).getNameCount();
+        var maxDepth = layout.directoryDepth() - depth + (includeArtifacts ? 1 : 0);
+        Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (!dir.equals(root)) {
+                    var location = layout.locate(root.relativize(dir));
+                    if (location == null || location.isArtifact()) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                listener.onDirectory(dir, attributes);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                var location = layout.locate(root.relativize(file));
+                if (location == null) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (location.isArtifact()) {
+                    if (attributes.isRegularFile()) {
+                        listener.onArtifact(location, file, attributes);
+                    }
+                } else if (attributes.isDirectory()) {
+                    // directories at the maximum depth are reported as files
+                    listener.onDirectory(file, attributes);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                listener.onError(file + ":" + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A Merkle tree of SHA-256 hashes over the content of a {@link DeploymentIndex}.
+ * <p>
+ * Each artifact is a leaf whose hash covers its version and the digest of its content. Leaves are grouped by resource
+ * name, names by group, groups by {@link ArtifactType}, and the types form the root. The hash of each inner node covers
+ * the keys and hashes of its children in sorted order, so equal hashes mean equal subtrees, and the {@link #rootHash()
+ * root hash} tells whether anything changed at all.
+ * <p>
+ * {@link #diff(MerkleTree)} only descends into nodes whose hashes differ, merging their sorted children by key. Comparing
+ * nearly identical registries therefore takes time proportional to the number of changes times the fan-out along their
+ * paths, independent of the registry size. Building a tree reads the content of every artifact once, except for
+ * artifacts whose digest was computed during the walk (see {@link WalkerConfiguration#isDigestContent()}) and
+ * {@link StoredContent} whose digest is already known.
+ */
+public final class MerkleTree {
+    private static final byte LEAF = 0;
+    private static final byte NODE = 1;
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Comparator<Artifact> ORDER = Comparator.comparing(Artifact::group)
+            .thenComparing(Artifact::name)
+            .thenComparing(Artifact::version);
+
+    private final Node root;
+
+    /**
+     * A node keyed by name within its parent. Leaves carry their artifact and have no children.
+     */
+    private record Node(String key, byte[] hash, Node[] children, @Nullable Artifact artifact) {
+    }
+
+    private MerkleTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds the tree of the index, reading the content of every artifact.
+     *
+     * @throws UncheckedIOException if the content of an artifact cannot be read
+     */
+    public static MerkleTree of(DeploymentIndex index) {
+        var digest = sha256();
+        var order = new Integer[index.size()];
+        for (var id = 0; id < order.length; id++) {
+            order[id] = id;
+        }
+        Arrays.sort(order, Comparator.<Integer, String>comparing(id -> index.type(id).name())
+                .thenComparing(index::artifact, ORDER));
+        var typeNodes = new ArrayList<Node>();
+        var typeStart = 0;
+        for (var i = 1; i <= order.length; i++) {
+            var type = index.type(order[i - 1]);
+            if (i == order.length || index.type(order[i]) != type) {
+                var leaves = new Node[i - typeStart];
+                for (var leaf = 0; leaf < leaves.length; leaf++) {
+                    var id = order[typeStart + leaf];
+                    leaves[leaf] = leaf(index.artifact(id), contentDigest(index, id, digest), digest);
+                }
+                typeNodes.add(node(type.name(), groups(leaves, digest), digest));
+                typeStart = i;
+            }
+        }
+        return new MerkleTree(node("", typeNodes.toArray(Node[]::new), digest));
+    }
+
+    /**
+     * Returns the hex-encoded root hash, which differs between trees if any artifact, type or content differs.
+     */
+    public String rootHash() {
+        return HexFormat.of().formatHex(root.hash());
+    }
+
+    /**
+     * Returns the hex-encoded hash of all artifacts of the type, or null if there are none.
+     */
+    public @Nullable String hash(ArtifactType type) {
+        var node = child(root, type.name());
+        return node != null ? HexFormat.of().formatHex(node.hash()) : null;
+    }
+
+    /**
+     * Returns the hex-encoded leaf hash of the artifact, or null if it is not part of the tree.
+     */
+    public @Nullable String hash(Artifact artifact) {
+        for (var typeNode : root.children()) {
+            var group = child(typeNode, artifact.group());
+            var name = group != null ? child(group, artifact.name()) : null;
+            var leaf = name != null ? child(name, artifact.version()) : null;
+            if (leaf != null) {
+                return HexFormat.of().formatHex(leaf.hash());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the changes from the previous tree to this one.
+     */
+    public IndexDiff diff(MerkleTree previous) {
+        var added = new ArrayList<Artifact>();
+        var removed = new ArrayList<Artifact>();
+        var changed = new ArrayList<Artifact>();
+        diff(root, previous.root, added, removed, changed);
+        if (!added.isEmpty() && !removed.isEmpty()) {
+            // an artifact whose type changed is in different subtrees of the two trees
+            var retyped = new HashSet<>(added);
+            retyped.retainAll(removed);
+            if (!retyped.isEmpty()) {
+                added.removeAll(retyped);
+                removed.removeAll(retyped);
+                changed.addAll(retyped);
+            }
+        }
+        return new IndexDiff(added, removed, changed);
+    }
+
+    private static void diff(Node current, Node previous, List<Artifact> added, List<Artifact> removed, List<Artifact> changed) {
+        if (Arrays.equals(current.hash(), previous.hash())) {
+            return;
+        }
+        if (current.artifact() != null) {
+            changed.add(current.artifact());
+            return;
+        }
+        var currentChildren = current.children();
+        var previousChildren = previous.children();
+        var i = 0;
+        var j = 0;
+        while (i < currentChildren.length || j < previousChildren.length) {
+            var order = i == currentChildren.length ? 1
+                    : j == previousChildren.length ? -1
+                    : currentChildren[i].key().compareTo(previousChildren[j].key());
+            if (order < 0) {
+                leaves(currentChildren[i++], added);
+            } else if (order > 0) {
+                leaves(previousChildren[j++], removed);
+            } else {
+                diff(currentChildren[i++], previousChildren[j++], added, removed, changed);
+            }
+        }
+    }
+
+    private static void leaves(Node node, List<Artifact> artifacts) {
+        if (node.artifact() != null) {
+            artifacts.add(node.artifact());
+            return;
+        }
+        for (var child : node.children()) {
+            leaves(child, artifacts);
+        }
+    }
+
+    /**
+     * Groups sorted leaves into name nodes and the name nodes into group nodes.
+     */
+    private static Node[] groups(Node[] leaves, MessageDigest digest) {
+        var groups = new ArrayList<Node>();
+        var names = new ArrayList<Node>();
+        var nameStart = 0;
+        for (var i = 1; i <= leaves.length; i++) {
+            var previous = leaves[i - 1].artifact();
+            var next = i < leaves.length ? leaves[i].artifact() : null;
+            var groupEnds = next == null || !next.group().equals(previous.group());
+            if (groupEnds || !next.name().equals(previous.name())) {
+                names.add(node(previous.name(), Arrays.copyOfRange(leaves, nameStart, i), digest));
+                nameStart = i;
+            }
+            if (groupEnds) {
+                groups.add(node(previous.group(), names.toArray(Node[]::new), digest));
+                names.clear();
+            }
+        }
+        return groups.toArray(Node[]::new);
+    }
+
+    private static Node leaf(Artifact artifact, byte[] contentDigest, MessageDigest digest) {
+        digest.update(LEAF);
+        digest.update(artifact.version().getBytes(UTF_8));
+        digest.update(LEAF);
+        digest.update(contentDigest);
+        return new Node(artifact.version(), digest.digest(), NO_CHILDREN, artifact);
+    }
+
+    private static Node node(String key, Node[] children, MessageDigest digest) {
+        digest.update(NODE);
+        for (var child : children) {
+            digest.update(child.key().getBytes(UTF_8));
+            digest.update(LEAF);
+            digest.update(child.hash());
+        }
+        return new Node(key, digest.digest(), children, null);
+    }
+
+    private static byte[] contentDigest(DeploymentIndex index, int id, MessageDigest digest) {
+        var walked = index.metadata(id).sha256();
+        if (walked != null) {
+            return walked;
+        }
+        if (index.ref(id) instanceof StoredContent stored) {
+            return stored.sha256();
+        }
+        try (var stream = index.ref(id).get()) {
+            stream.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            return digest.digest();
+        } catch (IOException e) {
+            throw new UncheckedIOException(index.artifact(id) + ":" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finds a child by key, using binary search over the sorted children.
+     */
+    private static @Nullable Node child(Node node, String key) {
+        var children = node.children();
+        var low = 0;
+        var high = children.length - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var order = children[middle].key().compareTo(key);
+            if (order == 0) {
+                return children[middle];
+            }
+            if (order < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts a declared set of top-level fields from JSON artifact content with a streaming parser.
+ * <p>
+ * No document tree is built. The values of other fields, including nested objects, are skipped without being
+ * materialized. Parsing stops as soon as all declared fields have been read, so fields near the start of a large document
+ * are extracted without reading the rest of it, unless the extractor also digests content: then the rest of the content
+ * is read after parsing, so that the SHA-256 of the whole content is computed in the same pass. Instances are
+ * thread-safe.
+ */
+public class MetadataExtractor {
+    private final JsonFactory factory = JsonFactory.builder().disable(StreamReadFeature.AUTO_CLOSE_SOURCE).build();
+    private final Set<String> fields;
+    private final boolean digestContent;
+    private final ArtifactMetadata absent;
+
+    public MetadataExtractor(Set<String> fields) {
+        this(fields, false);
+    }
+
+    /**
+     * Creates an extractor of the fields that also computes the SHA-256 of the content if requested.
+     */
+    public MetadataExtractor(Set<String> fields, boolean digestContent) {
+        this.fields = Set.copyOf(fields);
+        this.digestContent = digestContent;
+        this.absent = new ArtifactMetadata(Map.of(), this.fields);
+    }
+
+    /**
+     * Reads the declared fields from the stream, which is closed afterward.
+     */
+    public ArtifactMetadata extract(InputStream stream) throws IOException {
+        if (!digestContent) {
+            if (fields.isEmpty()) {
+                stream.close();
+                return ArtifactMetadata.EMPTY;
+            }
+            try (stream; var parser = factory.createParser(stream)) {
+                var values = values(parser);
+                return values.isEmpty() ? absent : new ArtifactMetadata(values, fields);
+            }
+        }
+        var digest = sha256();
+        try (var in = new DigestInputStream(stream, digest)) {
+            Map<String, Object> values = Map.of();
+            if (!fields.isEmpty()) {
+                try (var parser = factory.createParser(in)) {
+                    values = values(parser);
+                }
+            }
+            // the digest covers the content the parser did not need
+            in.transferTo(OutputStream.nullOutputStream());
+            return new ArtifactMetadata(values, fields, digest.digest());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the values of the declared fields found at the top level of the content.
+     */
+    private Map<String, Object> values(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return Map.of();
+        }
+        var values = new HashMap<String, Object>();
+        var remaining = fields.size();
+        while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.currentName();
+            var token = parser.nextToken();
+            if (!fields.contains(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.START_ARRAY) {
+                var list = new ArrayList<String>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken().isScalarValue() && parser.currentToken() != JsonToken.VALUE_NULL) {
+                        list.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                values.put(field, List.copyOf(list));
+            } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                values.put(field, parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+            remaining--;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from a content stream and tracks it as an open file until it is closed.
+ */
+class MeteredInputStream extends FilterInputStream {
+    private final Instruments instruments;
+    private boolean closed;
+
+    MeteredInputStream(InputStream in, Instruments instruments) {
+        super(in);
+        this.instruments = instruments;
+        instruments.openFiles.incrementAndGet();
+    }
+
+    @Override
+    public int read() throws IOException {
+        var value = super.read();
+        if (value >= 0) {
+            instruments.bytesRead.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        var count = super.read(buffer, offset, length);
+        if (count > 0) {
+            instruments.bytesRead.add(count);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!closed) {
+                closed = true;
+                instruments.openFiles.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Modifier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Estimates heap sizes of objects from a model of the HotSpot object layout: an object header, references that are
+ * either compressed or full width, and alignment of each object. Instance sizes are derived from declared fields, so no
+ * object internals are accessed.
+ */
+class ObjectSizes {
+    private final int headerSize;
+    private final int arrayHeaderSize;
+    private final int referenceSize;
+    private final int alignment;
+    private final ClassValue<Long> shallowSizes = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return computeShallowSize(type);
+        }
+    };
+
+    ObjectSizes(boolean compressedOops, boolean compressedClassPointers, int alignment) {
+        this.headerSize = compressedClassPointers ? 12 : 16;
+        this.arrayHeaderSize = headerSize + 4;
+        this.referenceSize = compressedOops ? 4 : 8;
+        this.alignment = alignment;
+    }
+
+    /**
+     * Returns the model for the running JVM, falling back to the 64-bit defaults if the VM options cannot be read.
+     */
+    static ObjectSizes current() {
+        try {
+            var diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return new ObjectSizes(
+                    Boolean.parseBoolean(diagnostics.getVMOption("UseCompressedOops").getValue()),
+                    Boolean.parseBoolean(diagnostics.getVMOption("UseCompressedClassPointers").getValue()),
+                    Integer.parseInt(diagnostics.getVMOption("ObjectAlignmentInBytes").getValue()));
+        } catch (RuntimeException | LinkageError e) {
+            return new ObjectSizes(true, true, 8);
+        }
+    }
+
+    int referenceSize() {
+        return referenceSize;
+    }
+
+    /**
+     * Returns the size of an instance of the class, excluding the objects it references.
+     */
+    long shallowSize(Class<?> type) {
+        return shallowSizes.get(type);
+    }
+
+    /**
+     * Returns the size of an instance with the given number of reference fields and bytes of primitive fields, for
+     * classes whose fields are not visible, such as the nodes of JDK collections.
+     */
+    long instance(int references, int primitiveBytes) {
+        return align(headerSize + (long) references * referenceSize + primitiveBytes);
+    }
+
+    long array(int length, int elementSize) {
+        return align(arrayHeaderSize + (long) length * elementSize);
+    }
+
+    long referenceArray(int length) {
+        return array(length, referenceSize);
+    }
+
+    /**
+     * Returns the size of a string and its backing array, assuming compact strings.
+     */
+    long string(String value) {
+        var latin1 = true;
+        for (var i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        return shallowSize(String.class) + array(value.length(), latin1 ? 1 : 2);
+    }
+
+    /**
+     * Returns the size of a path, assuming it keeps its encoded form in a byte array as file system paths on Unix do.
+     */
+    long path(Object path) {
+        return shallowSize(path.getClass()) + array(path.toString().getBytes(UTF_8).length, 1);
+    }
+
+    long align(long size) {
+        return (size + alignment - 1) / alignment * alignment;
+    }
+
+    private long computeShallowSize(Class<?> type) {
+        long size = headerSize;
+        for (var current = type; current != null; current = current.getSuperclass()) {
+            for (var field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private int fieldSize(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return referenceSize;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Walks the xRegistry layers of an OCI image layout, as created by the packaging plugin.
+ * <p>
+ * The walker resolves the manifests listed in {@code index.json}, following nested indexes, and reads each layer whose
+ * media type is {@link #XREGISTRY_LAYER_MEDIA_TYPE} or an OCI tar layer type with a {@link TarArchiveWalker}. Layers
+ * are indexed once per digest: the resulting index is kept in a {@link LayerCache}, and a layer already in the cache is
+ * reported from there without reading its blob, so manifests sharing unchanged layers are walked at the cost of reporting
+ * their artifacts. The digest of each layer read is verified; layers with problems are reported but not cached.
+ * <p>
+ * Artifacts of later layers replace those of earlier ones. Statistics only count the entries of layers that were read.
+ * Layers are indexed and cached in full, and the {@link ArtifactSelection} of the configuration is applied when their
+ * artifacts are reported, so a cache can be shared by walkers with different selections. Layers are cached separately
+ * for each set of metadata fields, content digest setting and filename grammar, so walkers configured differently never
+ * report each other's metadata.
+ */
+public class OciLayoutWalker {
+    public static final String XREGISTRY_LAYER_MEDIA_TYPE = "application/vnd.dspace.xregistry.layer.v1+json";
+
+    private static final String OCI_LAYER_MEDIA_TYPE = "application/vnd.oci.image.layer.v1.tar";
+    private static final String OCI_INDEX_MEDIA_TYPE = "application/vnd.oci.image.index.v1+json";
+    private static final String REF_NAME_ANNOTATION = "org.opencontainers.image.ref.name";
+    private static final Pattern DIGEST = Pattern.compile("(sha256|sha512):([a-f0-9]+)");
+    private static final int MAX_INDEX_DEPTH = 4;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final XRegistryVisitor visitor;
+    private final WalkerConfiguration configuration;
+    private final LayerCache cache;
+    private WalkStatistics.Recorder statistics = new WalkStatistics.Recorder();
+
+    public OciLayoutWalker(XRegistryVisitor visitor, LayerCache cache) {
+        this(visitor, WalkerConfiguration.defaults(), cache);
+    }
+
+    /**
+     * Creates a walker passing the configuration to the walks of layer archives.
+     */
+    public OciLayoutWalker(XRegistryVisitor visitor, WalkerConfiguration configuration, LayerCache cache) {
+        this.visitor = visitor;
+        this.configuration = configuration;
+        this.cache = cache;
+    }
+
+    /**
+     * Walks all manifests of the layout.
+     *
+     * @return the statistics of the walk
+     */
+    public WalkStatistics walk(Path layoutRoot) {
+        return walk(layoutRoot, null);
+    }
+
+    /**
+     * Walks the manifests of the layout whose {@code org.opencontainers.image.ref.name} annotation matches the reference
+     * name, or all manifests if it is null.
+     *
+     * @return the statistics of the walk
+     */
+    public WalkStatistics walk(Path layoutRoot, @Nullable String refName) {
+        statistics = new WalkStatistics.Recorder();
+        visitor.onStart();
+        try {
+            if (!Files.isRegularFile(layoutRoot.resolve("oci-layout"))) {
+                throw new IOException("Not an OCI image layout");
+            }
+            walkIndex(layoutRoot, mapper.readTree(layoutRoot.resolve("index.json").toFile()), refName, 0);
+            visitor.onComplete();
+        } catch (IOException e) {
+            reportError(layoutRoot + ":" + e.getMessage(), e);
+        }
+        return finish();
+    }
+
+    private void walkIndex(Path layoutRoot, JsonNode index, @Nullable String refName, int depth) throws IOException {
+        if (depth > MAX_INDEX_DEPTH) {
+            throw new IOException("Image indexes nested too deeply");
+        }
+        for (var descriptor : index.path("manifests")) {
+            if (refName != null && !refName.equals(descriptor.path("annotations").path(REF_NAME_ANNOTATION).asText(null))) {
+                continue;
+            }
+            var blob = readBlob(layoutRoot, descriptor.path("digest").asText());
+            if (OCI_INDEX_MEDIA_TYPE.equals(descriptor.path("mediaType").asText())) {
+                walkIndex(layoutRoot, blob, null, depth + 1);
+            } else {
+                walkManifest(layoutRoot, blob);
+            }
+        }
+    }
+
+    private void walkManifest(Path layoutRoot, JsonNode manifest) {
+        for (var layer : manifest.path("layers")) {
+            var mediaType = layer.path("mediaType").asText();
+            if (XREGISTRY_LAYER_MEDIA_TYPE.equals(mediaType) || mediaType.startsWith(OCI_LAYER_MEDIA_TYPE)) {
+                var digest = layer.path("digest").asText();
+                try {
+                    walkLayer(layoutRoot, digest);
+                } catch (IOException e) {
+                    reportError(digest + ":" + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void walkLayer(Path layoutRoot, String digest) throws IOException {
+        var index = cache.get(digest, configuration);
+        if (index == null) {
+            index = indexLayer(layoutRoot, digest);
+            if (index == null) {
+                return;
+            }
+        }
+        var selection = configuration.getSelection();
+        for (var id = 0; id < index.size(); id++) {
+            if (selection.isAll() || selection.matches(index.type(id), index.artifact(id))) {
+                visitor.onArtifact(index.type(id), index.artifact(id), index.ref(id), index.metadata(id));
+            }
+        }
+    }
+
+    /**
+     * Indexes a layer blob, caching the index if the layer has no problems.
+     *
+     * @return the index or null if the layer has problems
+     */
+    private @Nullable DeploymentIndex indexLayer(Path layoutRoot, String digest) throws IOException {
+        var layerVisitor = new DeploymentIndexVisitor();
+        var arena = ContentArena.inMemory();
+        var messageDigest = messageDigest(digest);
+        try (var stream = new DigestInputStream(Files.newInputStream(blobPath(layoutRoot, digest)), messageDigest)) {
+            statistics.add(new TarArchiveWalker(layerVisitor, configuration.withSelection(ArtifactSelection.ALL), arena).walkNested(stream));
+            stream.transferTo(OutputStream.nullOutputStream());
+        }
+        var actual = HexFormat.of().formatHex(messageDigest.digest());
+        if (!digest.endsWith(":" + actual)) {
+            throw new IOException("Layer digest mismatch: " + actual);
+        }
+        var result = layerVisitor.validate();
+        if (!result.valid()) {
+            result.problems().forEach(visitor::onError);
+            return null;
+        }
+        var index = layerVisitor.getIndex();
+        cache.put(digest, configuration, index, arena.memoryBytes());
+        return index;
+    }
+
+    /**
+     * Returns the statistics of the walk, including those of the layers read, and records them to the active
+     * {@link ProcessorMetrics} as a single walk.
+     */
+    private WalkStatistics finish() {
+        var snapshot = statistics.snapshot();
+        var instruments = Instruments.get();
+        instruments.walkFiles.add(snapshot.filesVisited());
+        instruments.walkErrors.add(snapshot.errorCount());
+        instruments.walkDuration.record(snapshot.elapsed().toNanos());
+        return snapshot;
+    }
+
+    private JsonNode readBlob(Path layoutRoot, String digest) throws IOException {
+        try (InputStream stream = Files.newInputStream(blobPath(layoutRoot, digest))) {
+            return mapper.readTree(stream);
+        }
+    }
+
+    /**
+     * Returns the path of a blob, rejecting digests that are malformed or could escape the blob directory.
+     */
+    private static Path blobPath(Path layoutRoot, String digest) throws IOException {
+        var matcher = DIGEST.matcher(digest);
+        if (!matcher.matches()) {
+            throw new IOException("Unsupported digest: " + digest);
+        }
+        return layoutRoot.resolve("blobs").resolve(matcher.group(1)).resolve(matcher.group(2));
+    }
+
+    private static MessageDigest messageDigest(String digest) throws IOException {
+        try {
+            return MessageDigest.getInstance(digest.startsWith("sha512:") ? "SHA-512" : "SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void reportError(String problem, Throwable cause) {
+        statistics.error(cause);
+        visitor.onError(problem);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.util.ServiceLoader;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A service provider interface binding processor metrics to a metrics backend.
+ * <p>
+ * The processor creates its instruments once from the active metrics and records into them on hot paths, so
+ * implementations may perform lookups or registration when an instrument is created but should record cheaply. The active
+ * metrics are the ones passed to {@link #install(ProcessorMetrics)} or, if none were installed, the first implementation
+ * found by {@link ServiceLoader}, or {@link #NOOP}. Timings are only taken when a timer other than {@link Timer#NOOP} is
+ * bound. Implementations must be thread-safe.
+ * <p>
+ * Metrics recorded by the processor are named by the constants of this interface.
+ */
+public interface ProcessorMetrics {
+
+    /**
+     * Directories listed by walkers.
+     */
+    String WALK_DIRECTORIES = "xregistry.walk.directories";
+    /**
+     * Files visited by walkers.
+     */
+    String WALK_FILES = "xregistry.walk.files";
+    /**
+     * Errors reported by walkers.
+     */
+    String WALK_ERRORS = "xregistry.walk.errors";
+    /**
+     * The wall-clock time of walks.
+     */
+    String WALK_DURATION = "xregistry.walk.duration";
+    /**
+     * Artifacts received by index visitors.
+     */
+    String VISITOR_ARTIFACTS = "xregistry.visitor.artifacts";
+    /**
+     * Problems received by index visitors.
+     */
+    String VISITOR_PROBLEMS = "xregistry.visitor.problems";
+    /**
+     * Index lookups that found the artifact.
+     */
+    String LOOKUP_HITS = "xregistry.index.lookup.hits";
+    /**
+     * Index lookups that did not find the artifact.
+     */
+    String LOOKUP_MISSES = "xregistry.index.lookup.misses";
+    /**
+     * The latency of index lookups.
+     */
+    String LOOKUP_LATENCY = "xregistry.index.lookup.latency";
+    /**
+     * The number of artifacts in the index most recently published to a {@link DeploymentIndexHolder}.
+     */
+    String INDEX_SIZE = "xregistry.index.size";
+    /**
+     * Bytes of artifact content read from files.
+     */
+    String CONTENT_BYTES_READ = "xregistry.content.bytes.read";
+    /**
+     * Artifact content files currently open.
+     */
+    String CONTENT_OPEN_FILES = "xregistry.content.open.files";
+
+    ProcessorMetrics NOOP = new ProcessorMetrics() {
+        @Override
+        public Counter counter(String name) {
+            return Counter.NOOP;
+        }
+
+        @Override
+        public Timer timer(String name) {
+            return Timer.NOOP;
+        }
+
+        @Override
+        public void gauge(String name, LongSupplier value) {
+        }
+    };
+
+    /**
+     * Returns the counter with the given name.
+     */
+    Counter counter(String name);
+
+    /**
+     * Returns the timer with the given name.
+     */
+    Timer timer(String name);
+
+    /**
+     * Registers a gauge whose value is sampled by the backend.
+     */
+    void gauge(String name, LongSupplier value);
+
+    /**
+     * Makes the metrics active. Instruments are recreated, so later recordings go to the given metrics.
+     */
+    static void install(ProcessorMetrics metrics) {
+        Instruments.install(requireNonNull(metrics, "metrics cannot be null"));
+    }
+
+    /**
+     * A monotonically increasing count.
+     */
+    interface Counter {
+        Counter NOOP = amount -> {
+        };
+
+        void add(long amount);
+
+        default void increment() {
+            add(1);
+        }
+    }
+
+    /**
+     * A distribution of durations.
+     */
+    interface Timer {
+        Timer NOOP = nanos -> {
+        };
+
+        void record(long nanos);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Checks that the references between artifacts of a {@link DeploymentIndex} are complete.
+ * <p>
+ * The string values of the top-level reference fields of each artifact, by default {@code schemaref}, {@code policyref}
+ * and {@code ruleref}, are taken from the {@link ArtifactMetadata} of the index if the walk extracted them, and otherwise
+ * read from the content with a {@link MetadataExtractor}. A reference is either a
+ * resource path ({@code /schemas/[group]/[name]/[version]}) or an xRegistry id
+ * ({@code /schemagroups/[group]/schemas/[name]/versions/[version]}); the version may be omitted to refer to any version,
+ * and versions are matched semantically. Absolute URLs are not checked.
+ * <p>
+ * Artifacts are read and their references resolved in parallel. The references of {@link StoredContent} are extracted
+ * once per distinct digest. The resolved references form a graph, which is then checked for cycles with Tarjan's
+ * strongly connected components algorithm. Both phases take time linear in the number of artifacts and references.
+ */
+public class ReferenceValidator {
+    public static final Set<String> DEFAULT_FIELDS = Set.of("schemaref", "policyref", "ruleref");
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final Set<String> fields;
+    private final MetadataExtractor extractor;
+
+    public ReferenceValidator() {
+        this(DEFAULT_FIELDS);
+    }
+
+    public ReferenceValidator(Set<String> fields) {
+        this.fields = Set.copyOf(fields);
+        this.extractor = new MetadataExtractor(fields);
+    }
+
+    /**
+     * Returns the problems found, or an empty list if all references resolve and none are cyclic.
+     */
+    public List<String> validate(DeploymentIndex index) {
+        var event = new ValidationEvent();
+        event.begin();
+        var size = index.size();
+        var targets = new int[size][];
+        @SuppressWarnings("unchecked")
+        var problems = (List<String>[]) new List<?>[size];
+        var parsed = new ConcurrentHashMap<String, List<String>>();
+        IntStream.range(0, size).parallel().forEach(id -> {
+            var artifactProblems = new ArrayList<String>();
+            targets[id] = resolve(index, id, parsed, artifactProblems);
+            problems[id] = artifactProblems;
+        });
+
+        var result = new ArrayList<String>();
+        for (var artifactProblems : problems) {
+            result.addAll(artifactProblems);
+        }
+        findCycles(index, targets, result);
+        if (event.shouldCommit()) {
+            event.artifacts = size;
+            event.problems = result.size();
+            event.commit();
+        }
+        return result.isEmpty() ? emptyList() : result;
+    }
+
+    /**
+     * Returns the ids of the artifacts referenced by the given artifact, reporting references that cannot be read or
+     * resolved.
+     */
+    private int[] resolve(DeploymentIndex index, int id, Map<String, List<String>> parsed, List<String> problems) {
+        List<String> references;
+        try {
+            references = references(index.ref(id), index.metadata(id), parsed);
+        } catch (IOException | RuntimeException e) {
+            problems.add(describe(index, id) + ":" + e.getMessage());
+            return NO_TARGETS;
+        }
+        if (references.isEmpty()) {
+            return NO_TARGETS;
+        }
+        var resolved = new int[references.size()];
+        var count = 0;
+        for (var reference : references) {
+            if (reference.contains("://")) {
+                continue;
+            }
+            var target = resolve(index, reference);
+            if (target < 0) {
+                problems.add(describe(index, id) + ":unresolved reference " + reference);
+            } else {
+                resolved[count++] = target;
+            }
+        }
+        return Arrays.copyOf(resolved, count);
+    }
+
+    /**
+     * Returns the references from the metadata if it covers the reference fields, or extracts them from the content,
+     * memoized by digest for stored content.
+     */
+    private List<String> references(Supplier<InputStream> ref, ArtifactMetadata metadata, Map<String, List<String>> parsed)
+            throws IOException {
+        if (metadata.covers(fields)) {
+            return referencesOf(metadata);
+        }
+        var digest = ref instanceof StoredContent stored ? stored.digest() : null;
+        if (digest != null) {
+            var references = parsed.get(digest);
+            if (references != null) {
+                return references;
+            }
+        }
+        var references = referencesOf(extractor.extract(ref.get()));
+        if (digest != null) {
+            parsed.put(digest, references);
+        }
+        return references;
+    }
+
+    private List<String> referencesOf(ArtifactMetadata metadata) {
+        if (metadata.isEmpty()) {
+            return emptyList();
+        }
+        var references = new ArrayList<String>();
+        for (var field : fields) {
+            references.addAll(metadata.getAll(field));
+        }
+        return references;
+    }
+
+    /**
+     * Returns the id of the artifact a reference points to or -1.
+     */
+    private static int resolve(DeploymentIndex index, String reference) {
+        var segments = (reference.startsWith("/") ? reference.substring(1) : reference).split("/");
+        for (var type : ArtifactType.values()) {
+            if (segments[0].equals(type.resourcesName()) && (segments.length == 3 || segments.length == 4)) {
+                return find(index, type, segments[1], segments[2], segments.length == 4 ? segments[3] : null);
+            }
+            if (segments[0].equals(type.groupName()) && segments.length >= 4 && segments[2].equals(type.resourcesName())) {
+                if (segments.length == 4) {
+                    return find(index, type, segments[1], segments[3], null);
+                }
+                if (segments.length == 6 && RegistryLayout.VERSIONS.equals(segments[4])) {
+                    return find(index, type, segments[1], segments[3], segments[5]);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int find(DeploymentIndex index, ArtifactType type, String group, String name, @Nullable String version) {
+        if (version != null) {
+            var id = index.idOf(new Artifact(group, name, version));
+            if (id >= 0) {
+                return index.type(id) == type ? id : -1;
+            }
+        }
+        var parsed = version != null ? Version.parse(version) : null;
+        var candidates = index.listVersions(group, name, new VersionRange(parsed, true, parsed, true));
+        for (var i = candidates.size() - 1; i >= 0; i--) {
+            var id = index.idOf(candidates.get(i));
+            if (index.type(id) == type) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reports each strongly connected component with more than one artifact, or a single artifact referencing itself.
+     */
+    private static void findCycles(DeploymentIndex index, int[][] targets, List<String> problems) {
+        var size = targets.length;
+        var order = new int[size];
+        var low = new int[size];
+        var onStack = new boolean[size];
+        var stack = new int[size];
+        var callNodes = new int[size];
+        var callEdges = new int[size];
+        Arrays.fill(order, -1);
+        var counter = 0;
+        var top = 0;
+
+        for (var start = 0; start < size; start++) {
+            if (order[start] >= 0 || targets[start].length == 0) {
+                continue;
+            }
+            var depth = 0;
+            callNodes[0] = start;
+            callEdges[0] = 0;
+            order[start] = low[start] = counter++;
+            stack[top++] = start;
+            onStack[start] = true;
+            while (depth >= 0) {
+                var node = callNodes[depth];
+                if (callEdges[depth] < targets[node].length) {
+                    var target = targets[node][callEdges[depth]++];
+                    if (order[target] < 0) {
+                        order[target] = low[target] = counter++;
+                        stack[top++] = target;
+                        onStack[target] = true;
+                        depth++;
+                        callNodes[depth] = target;
+                        callEdges[depth] = 0;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], order[target]);
+                    }
+                    continue;
+                }
+                if (low[node] == order[node]) {
+                    var component = new ArrayList<String>();
+                    int member;
+                    do {
+                        member = stack[--top];
+                        onStack[member] = false;
+                        component.add(describe(index, member));
+                    } while (member != node);
+                    if (component.size() > 1 || references(targets[node], node)) {
+                        problems.add("reference cycle:" + String.join(" -> ", component.reversed()));
+                    }
+                }
+                depth--;
+                if (depth >= 0) {
+                    var parent = callNodes[depth];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+    }
+
+    private static boolean references(int[] targets, int node) {
+        for (var target : targets) {
+            if (target == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(DeploymentIndex index, int id) {
+        if (index.ref(id) instanceof FileReference fileReference) {
+            return fileReference.path().toString();
+        }
+        var artifact = index.artifact(id);
+        return artifact.group() + "/" + artifact.name() + "/" + artifact.version();
+    }
+}
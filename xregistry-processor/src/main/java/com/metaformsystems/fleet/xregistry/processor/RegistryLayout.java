@@ -0,0 +1,112 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * The supported file-system registry layouts.
+ */
+public enum RegistryLayout {
+
+    /**
+     * {@code [resource type]/[group].[resource name].[version].[ext]}
+     *
+     * @see CompactFileSystemWalker
+     */
+    COMPACT(1) {
+        @Override
+        public @Nullable RegistryLocation locate(Path relativePath, FilenameGrammar grammar) {
+            var type = typeOf(relativePath.getName(0).toString(), true);
+            if (type == null) {
+                return null;
+            }
+            return switch (relativePath.getNameCount()) {
+                case 1 -> new RegistryLocation(type, null, null, null);
+                case 2 -> {
+                    var artifact = grammar.parse(relativePath.getName(1).toString());
+                    yield artifact == null ? null : new RegistryLocation(type, artifact.group(), artifact.name(), artifact);
+                }
+                default -> null;
+            };
+        }
+    },
+
+    /**
+     * {@code [group type]/[group name]/[resource type]/[resource name]/versions/[version]}
+     *
+     * @see ExpandedFileSystemWalker
+     */
+    EXPANDED(5) {
+        @Override
+        public @Nullable RegistryLocation locate(Path relativePath, FilenameGrammar grammar) {
+            var type = typeOf(relativePath.getName(0).toString(), false);
+            var count = relativePath.getNameCount();
+            if (type == null || count > 6
+                    || count >= 3 && !type.resourcesName().equals(relativePath.getName(2).toString())
+                    || count >= 5 && !VERSIONS.equals(relativePath.getName(4).toString())) {
+                return null;
+            }
+            var group = count >= 2 ? relativePath.getName(1).toString() : null;
+            var name = count >= 4 ? relativePath.getName(3).toString() : null;
+            var artifact = count == 6 ? new Artifact(group, name, relativePath.getName(5).toString()) : null;
+            return new RegistryLocation(type, group, name, artifact);
+        }
+    };
+
+    static final String VERSIONS = "versions";
+
+    private final int directoryDepth;
+
+    RegistryLayout(int directoryDepth) {
+        this.directoryDepth = directoryDepth;
+    }
+
+    /**
+     * Returns the depth below the registry root of the directories that contain artifact files.
+     */
+    public int directoryDepth() {
+        return directoryDepth;
+    }
+
+    /**
+     * Resolves an entry given its path relative to the registry root.
+     *
+     * @return the location or null if the path is not part of the layout
+     */
+    @Nullable
+    public RegistryLocation locate(Path relativePath) {
+        return locate(relativePath, FilenameGrammar.DEFAULT);
+    }
+
+    /**
+     * Resolves an entry given its path relative to the registry root, parsing compact file names with the grammar.
+     *
+     * @return the location or null if the path is not part of the layout
+     */
+    @Nullable
+    public abstract RegistryLocation locate(Path relativePath, FilenameGrammar grammar);
+
+    private static @Nullable ArtifactType typeOf(String directoryName, boolean compact) {
+        for (var type : ArtifactType.values()) {
+            if (directoryName.equals(compact ? type.resourcesName() : type.groupName())) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The position of an entry within a registry layout. Directory entries have a null artifact and scope the artifacts they
+ * contain by type and, where known, group and resource name.
+ */
+public record RegistryLocation(ArtifactType type, @Nullable String group, @Nullable String name, @Nullable Artifact artifact) {
+
+    public RegistryLocation {
+        requireNonNull(type, "type cannot be null");
+    }
+
+    /**
+     * Returns true if the location is an artifact file rather than a directory.
+     */
+    public boolean isArtifact() {
+        return artifact != null;
+    }
+
+    /**
+     * Returns true if the given artifact of the given type is located at or beneath this location.
+     */
+    public boolean contains(ArtifactType type, Artifact artifact) {
+        if (this.type != type) {
+            return false;
+        }
+        if (this.artifact != null) {
+            return this.artifact.equals(artifact);
+        }
+        return (group == null || group.equals(artifact.group())) && (name == null || name.equals(artifact.name()));
+    }
+}
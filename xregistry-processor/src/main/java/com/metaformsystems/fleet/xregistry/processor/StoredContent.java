@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Artifact content held once per distinct SHA-256 digest by a {@link ContentStore} and shared by all artifacts with that
+ * content. Each call to {@link #get()} returns a new stream over the same bytes.
+ */
+public final class StoredContent implements Supplier<InputStream> {
+    private final byte[] sha256;
+    private final byte[] content;
+
+    StoredContent(byte[] sha256, byte[] content) {
+        this.sha256 = sha256;
+        this.content = content;
+    }
+
+    @Override
+    public InputStream get() {
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Returns the digest in the form {@code sha256:[hex]}.
+     */
+    public String digest() {
+        return "sha256:" + HexFormat.of().formatHex(sha256);
+    }
+
+    public int size() {
+        return content.length;
+    }
+
+    /**
+     * Returns the raw digest. The array must not be modified.
+     */
+    byte[] sha256() {
+        return sha256;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredContent[" + digest() + ", " + content.length + " bytes]";
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * Serializes callbacks to a visitor that is not thread-safe so it can be driven by a parallel walk.
+ */
+class SynchronizedVisitor implements XRegistryVisitor {
+    private final XRegistryVisitor delegate;
+
+    SynchronizedVisitor(XRegistryVisitor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void onStart() {
+        delegate.onStart();
+    }
+
+    @Override
+    public synchronized void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
+        delegate.onPolicy(artifact, ref);
+    }
+
+    @Override
+    public synchronized void onSchema(Artifact artifact, Supplier<InputStream> ref) {
+        delegate.onSchema(artifact, ref);
+    }
+
+    @Override
+    public synchronized void onRule(Artifact artifact, Supplier<InputStream> ref) {
+        delegate.onRule(artifact, ref);
+    }
+
+    @Override
+    public synchronized void onArtifact(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata metadata) {
+        delegate.onArtifact(type, artifact, ref, metadata);
+    }
+
+    @Override
+    public synchronized void onError(String problem) {
+        delegate.onError(problem);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        delegate.onComplete();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
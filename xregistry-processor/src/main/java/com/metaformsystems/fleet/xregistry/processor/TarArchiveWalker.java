@@ -0,0 +1,410 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Walks an xRegistry packaged as a tar archive, optionally gzip-compressed, in a single sequential pass without
+ * extracting it.
+ * <p>
+ * Each file entry is located in the {@link RegistryLayout#COMPACT compact} or {@link RegistryLayout#EXPANDED expanded}
+ * layout by its name, so both layouts are recognized without configuration. The registry may be at the root of the
+ * archive or in a single top-level directory, as in OCI layers created by the packaging plugin. The content of artifact entries is copied
+ * into a {@link ContentArena} and reported with a reference to it; other entries are skipped. POSIX ustar, GNU long
+ * names and pax extended headers are supported; links and special files are ignored. Compression is detected from the
+ * content.
+ * <p>
+ * Entries outside the {@link ArtifactSelection} of the configuration are skipped without copying their content.
+ * <p>
+ * The arena is owned by the caller and must remain open while the references reported by the walk are used. Archive
+ * walks read no directories, so their statistics have no listings.
+ */
+public class TarArchiveWalker {
+    private static final int BLOCK_SIZE = 512;
+    private static final int MAX_HEADER_CONTENT = 1 << 20;
+
+    private final XRegistryVisitor visitor;
+    private final WalkerConfiguration configuration;
+    private final ContentArena arena;
+    private final @Nullable MetadataExtractor metadataExtractor;
+    private WalkStatistics.Recorder statistics = new WalkStatistics.Recorder();
+
+    public TarArchiveWalker(XRegistryVisitor visitor, ContentArena arena) {
+        this(visitor, WalkerConfiguration.defaults(), arena);
+    }
+
+    /**
+     * Creates a walker using the file name grammar and metadata fields of the configuration. Archives are always read
+     * sequentially.
+     */
+    public TarArchiveWalker(XRegistryVisitor visitor, WalkerConfiguration configuration, ContentArena arena) {
+        this.visitor = visitor;
+        this.configuration = configuration;
+        this.arena = arena;
+        this.metadataExtractor = configuration.readsContent()
+                ? new MetadataExtractor(configuration.getMetadataFields(), configuration.isDigestContent())
+                : null;
+    }
+
+    /**
+     * Walks the archive file.
+     *
+     * @return the statistics of the walk
+     */
+    public WalkStatistics walk(Path archive) {
+        statistics = new WalkStatistics.Recorder();
+        visitor.onStart();
+        try (var stream = Files.newInputStream(archive)) {
+            read(stream);
+            visitor.onComplete();
+        } catch (IOException e) {
+            reportError(archive + ":" + e.getMessage(), e);
+        }
+        return finish();
+    }
+
+    /**
+     * Walks an archive read from the stream, which is not closed.
+     *
+     * @return the statistics of the walk
+     */
+    public WalkStatistics walk(InputStream stream) {
+        walkArchive(stream);
+        return finish();
+    }
+
+    /**
+     * Walks an archive read from the stream like {@link #walk(InputStream)}, but leaves recording the statistics to the
+     * {@link ProcessorMetrics} to the caller, which walks the archive as part of a larger walk.
+     */
+    WalkStatistics walkNested(InputStream stream) {
+        walkArchive(stream);
+        return statistics.snapshot();
+    }
+
+    private void walkArchive(InputStream stream) {
+        statistics = new WalkStatistics.Recorder();
+        visitor.onStart();
+        try {
+            read(stream);
+            visitor.onComplete();
+        } catch (IOException e) {
+            reportError("archive:" + e.getMessage(), e);
+        }
+    }
+
+    private void read(InputStream stream) throws IOException {
+        var in = decompress(new BufferedInputStream(stream, 64 * 1024));
+        var header = new byte[BLOCK_SIZE];
+        String longName = null;
+        Map<String, String> extendedHeaders = Map.of();
+        while (true) {
+            var count = in.readNBytes(header, 0, BLOCK_SIZE);
+            if (count == 0 || count == BLOCK_SIZE && isZero(header)) {
+                return; // end of archive, tolerating a missing end marker
+            }
+            if (count < BLOCK_SIZE) {
+                throw new EOFException("Truncated tar header");
+            }
+            if (!hasValidChecksum(header)) {
+                throw new IOException("Invalid tar header checksum");
+            }
+            var typeFlag = (char) header[156];
+            var size = extendedHeaders.containsKey("size") ? parseSize(extendedHeaders.get("size")) : parseNumber(header, 124, 12);
+            switch (typeFlag) {
+                case 'L' -> {
+                    longName = trimNul(new String(readHeaderContent(in, size), UTF_8));
+                    skipPadding(in, size);
+                    continue;
+                }
+                case 'x' -> {
+                    extendedHeaders = parseExtendedHeaders(readHeaderContent(in, size));
+                    skipPadding(in, size);
+                    continue;
+                }
+                case '0', '\0', '7' -> {
+                    var name = extendedHeaders.getOrDefault("path", longName != null ? longName : headerName(header));
+                    processEntry(in, normalize(name), size);
+                }
+                default -> in.skipNBytes(size); // directories, links, global headers and special files
+            }
+            skipPadding(in, size);
+            longName = null;
+            extendedHeaders = Map.of();
+        }
+    }
+
+    private void processEntry(InputStream in, String name, long size) throws IOException {
+        var event = new FileDispatchEvent();
+        event.begin();
+        statistics.fileVisited();
+        var location = locate(name);
+        if (location == null || location.artifact() == null || !isSelected(location)) {
+            statistics.fileSkipped();
+            in.skipNBytes(size);
+            return;
+        }
+        var type = location.type();
+        var artifact = location.artifact();
+        var start = System.nanoTime();
+        var ref = arena.store(in, size);
+        var metadata = ArtifactMetadata.EMPTY;
+        if (metadataExtractor != null) {
+            try {
+                metadata = metadataExtractor.extract(ref.get());
+            } catch (IOException e) {
+                reportError(name + ":" + e.getMessage(), e);
+                return;
+            }
+        }
+        visitor.onArtifact(type, artifact, ref, metadata);
+        statistics.typeWork(type, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.path = name;
+            event.artifact = artifact.group() + "/" + artifact.name() + "/" + artifact.version();
+            event.artifactType = type.name();
+            event.bytes = size;
+            event.commit();
+        }
+    }
+
+    private boolean isSelected(RegistryLocation location) {
+        var selection = configuration.getSelection();
+        return selection.isAll() || selection.matches(location.type(), location.artifact());
+    }
+
+    private @Nullable RegistryLocation locate(String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        Path path;
+        try {
+            path = Path.of(name);
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        var location = locate(path);
+        if (location == null && path.getNameCount() > 1) {
+            location = locate(path.subpath(1, path.getNameCount()));
+        }
+        return location;
+    }
+
+    private @Nullable RegistryLocation locate(Path path) {
+        for (var layout : RegistryLayout.values()) {
+            var location = layout.locate(path, configuration.getFilenameGrammar());
+            if (location != null && location.artifact() != null) {
+                return location;
+            }
+        }
+        return null;
+    }
+
+    private void reportError(String problem, Throwable cause) {
+        statistics.error(cause);
+        visitor.onError(problem);
+    }
+
+    private WalkStatistics finish() {
+        var snapshot = statistics.snapshot();
+        var instruments = Instruments.get();
+        instruments.walkFiles.add(snapshot.filesVisited());
+        instruments.walkErrors.add(snapshot.errorCount());
+        instruments.walkDuration.record(snapshot.elapsed().toNanos());
+        return snapshot;
+    }
+
+    private static InputStream decompress(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        var first = in.read();
+        var second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024);
+        }
+        return in;
+    }
+
+    private static byte[] readHeaderContent(InputStream in, long size) throws IOException {
+        if (size < 0 || size > MAX_HEADER_CONTENT) {
+            throw new IOException("Invalid tar extended header size: " + size);
+        }
+        var content = in.readNBytes((int) size);
+        if (content.length < size) {
+            throw new EOFException("Truncated tar extended header");
+        }
+        return content;
+    }
+
+    private static void skipPadding(InputStream in, long size) throws IOException {
+        var padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+        in.skipNBytes(padding);
+    }
+
+    /**
+     * Returns the entry name, joining the prefix of POSIX ustar headers. GNU headers use the prefix field for other data.
+     */
+    private static String headerName(byte[] header) {
+        var name = field(header, 0, 100);
+        var posix = header[257] == 'u' && header[258] == 's' && header[259] == 't' && header[260] == 'a' && header[261] == 'r' && header[262] == 0;
+        if (posix) {
+            var prefix = field(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static String normalize(String name) {
+        var start = 0;
+        while (true) {
+            if (name.startsWith("./", start)) {
+                start += 2;
+            } else if (name.startsWith("/", start)) {
+                start++;
+            } else {
+                break;
+            }
+        }
+        return name.substring(start);
+    }
+
+    /**
+     * Parses pax records of the form {@code "<length> <key>=<value>\n"}, where the length counts the bytes of the record.
+     */
+    private static Map<String, String> parseExtendedHeaders(byte[] content) throws IOException {
+        var headers = new HashMap<String, String>();
+        var position = 0;
+        while (position < content.length) {
+            var space = position;
+            while (space < content.length && content[space] != ' ') {
+                space++;
+            }
+            if (space == content.length) {
+                throw new IOException("Invalid pax header record");
+            }
+            int length;
+            try {
+                length = Integer.parseInt(new String(content, position, space - position, UTF_8));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid pax header record");
+            }
+            if (length <= 0 || position + length > content.length) {
+                throw new IOException("Invalid pax header record length: " + length);
+            }
+            if (length < space - position + 2 || content[position + length - 1] != '\n') {
+                throw new IOException("Invalid pax header record");
+            }
+            var record = new String(content, space + 1, position + length - space - 2, UTF_8);
+            var separator = record.indexOf('=');
+            if (separator > 0) {
+                headers.put(record.substring(0, separator), record.substring(separator + 1));
+            }
+            position += length;
+        }
+        return headers;
+    }
+
+    /**
+     * Parses the decimal value of a pax {@code size} record, which must not be negative.
+     */
+    private static long parseSize(String value) throws IOException {
+        long size;
+        try {
+            size = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid pax size");
+        }
+        if (size < 0) {
+            throw new IOException("Invalid pax size");
+        }
+        return size;
+    }
+
+    /**
+     * Parses a numeric header field in octal or, if its high bit is set, in big-endian base-256.
+     */
+    private static long parseNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            var value = (long) (header[offset] & 0x7F);
+            for (var i = 1; i < length; i++) {
+                value = (value << 8) | (header[offset + i] & 0xFF);
+            }
+            return value;
+        }
+        var value = 0L;
+        var i = offset;
+        var end = offset + length;
+        while (i < end && (header[i] == ' ' || header[i] == 0)) {
+            i++;
+        }
+        for (; i < end && header[i] != ' ' && header[i] != 0; i++) {
+            if (header[i] < '0' || header[i] > '7') {
+                throw new IOException("Invalid octal number in tar header");
+            }
+            value = (value << 3) + (header[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean hasValidChecksum(byte[] header) throws IOException {
+        var expected = parseNumber(header, 148, 8);
+        long unsigned = 0;
+        long signed = 0;
+        for (var i = 0; i < BLOCK_SIZE; i++) {
+            var value = i >= 148 && i < 156 ? (byte) ' ' : header[i];
+            unsigned += value & 0xFF;
+            signed += value;
+        }
+        return expected == unsigned || expected == signed;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        var end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, UTF_8);
+    }
+
+    private static String trimNul(String value) {
+        var end = value.indexOf('\0');
+        return end >= 0 ? value.substring(0, end) : value;
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (var value : block) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
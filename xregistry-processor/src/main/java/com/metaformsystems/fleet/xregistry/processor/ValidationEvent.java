@@ -0,0 +1,36 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when the references of a {@link DeploymentIndex} are validated.
+ */
+@Name("com.metaformsystems.fleet.xregistry.Validation")
+@Label("Reference Validation")
+@Category({ "Fleet Tooling", "xRegistry" })
+@Description("Validation of the references between indexed artifacts")
+final class ValidationEvent extends Event {
+    @Label("Artifacts")
+    int artifacts;
+
+    @Label("Problems")
+    int problems;
+}
@@ -0,0 +1,207 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An artifact version ordered by semantic versioning rules.
+ * <p>
+ * Parsing is lenient. The extension of a version file in an expanded registry ({@code 1.0.0-rc1.json}) is dropped
+ * before the version is split, so that it does not become part of the pre-release; only document extensions
+ * ({@code json}, {@code yaml} and {@code yml}) are recognized, since other trailing segments cannot be told apart from
+ * pre-release identifiers. An optional {@code v} prefix is dropped, the leading dot-separated numeric segments form the
+ * release, a {@code -} starts the pre-release and a {@code +} starts build metadata, which is ignored. Non-numeric
+ * segments following the release do not take part in semantic comparison. Missing release segments compare as zero, so {@code 1} and {@code 1.0.0} are equivalent,
+ * and a pre-release sorts before its release.
+ * <p>
+ * Versions that are semantically equivalent but spelled differently are ordered by their text, so the ordering is
+ * consistent with {@link #equals(Object)}.
+ */
+public final class Version implements Comparable<Version> {
+    private static final long[] NO_SEGMENTS = new long[0];
+    private static final String[] EXTENSIONS = { ".json", ".yaml", ".yml" };
+
+    private final String value;
+    private final long[] release;
+    private final String @Nullable [] preRelease;
+
+    private Version(String value, long[] release, String @Nullable [] preRelease) {
+        this.value = value;
+        this.release = release;
+        this.preRelease = preRelease;
+    }
+
+    public static Version parse(String value) {
+        requireNonNull(value, "value cannot be null");
+        var text = stripExtension(value);
+        var build = text.indexOf('+');
+        if (build >= 0) {
+            text = text.substring(0, build);
+        }
+        String[] preRelease = null;
+        var dash = text.indexOf('-');
+        if (dash >= 0) {
+            preRelease = text.substring(dash + 1).split("\\.");
+            text = text.substring(0, dash);
+        }
+        if (text.length() > 1 && (text.charAt(0) == 'v' || text.charAt(0) == 'V') && isDigit(text.charAt(1))) {
+            text = text.substring(1);
+        }
+        var segments = text.split("\\.");
+        var release = new long[segments.length];
+        var count = 0;
+        while (count < segments.length && isNumeric(segments[count])) {
+            release[count] = parseSegment(segments[count]);
+            count++;
+        }
+        return new Version(value, count == 0 ? NO_SEGMENTS : Arrays.copyOf(release, count), preRelease);
+    }
+
+    /**
+     * Returns the release segment at the given position, or zero if the version has fewer segments.
+     */
+    public long segment(int position) {
+        return position < release.length ? release[position] : 0;
+    }
+
+    /**
+     * Returns the number of release segments.
+     */
+    public int segments() {
+        return release.length;
+    }
+
+    public boolean isPreRelease() {
+        return preRelease != null;
+    }
+
+    /**
+     * Compares the release and pre-release of two versions, ignoring their spelling.
+     */
+    public int compareSemantically(Version other) {
+        var length = Math.max(release.length, other.release.length);
+        for (var i = 0; i < length; i++) {
+            var result = Long.compare(segment(i), other.segment(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        if (preRelease == null || other.preRelease == null) {
+            return preRelease == null ? (other.preRelease == null ? 0 : 1) : -1;
+        }
+        var common = Math.min(preRelease.length, other.preRelease.length);
+        for (var i = 0; i < common; i++) {
+            var result = compareIdentifiers(preRelease[i], other.preRelease[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(preRelease.length, other.preRelease.length);
+    }
+
+    @Override
+    public int compareTo(@NotNull Version other) {
+        var result = compareSemantically(other);
+        return result != 0 ? result : value.compareTo(other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Version version && value.equals(version.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    /**
+     * Returns the lowest possible version with the given release, which sorts before all of its pre-releases.
+     */
+    static Version lowest(long... release) {
+        var value = new StringBuilder();
+        for (var segment : release) {
+            value.append(value.isEmpty() ? "" : ".").append(segment);
+        }
+        return new Version(value.append("-0").toString(), release, new String[]{ "0" });
+    }
+
+    /**
+     * Returns the estimated size of this version, excluding its text, which is usually shared with an artifact.
+     */
+    long footprint(ObjectSizes sizes) {
+        var size = sizes.shallowSize(Version.class) + (release.length > 0 ? sizes.array(release.length, Long.BYTES) : 0);
+        if (preRelease != null) {
+            size += sizes.referenceArray(preRelease.length);
+            for (var identifier : preRelease) {
+                size += sizes.string(identifier);
+            }
+        }
+        return size;
+    }
+
+    private static String stripExtension(String value) {
+        for (var extension : EXTENSIONS) {
+            var start = value.length() - extension.length();
+            if (start > 0 && value.regionMatches(true, start, extension, 0, extension.length())) {
+                return value.substring(0, start);
+            }
+        }
+        return value;
+    }
+
+    private static int compareIdentifiers(String left, String right) {
+        var leftNumeric = isNumeric(left);
+        var rightNumeric = isNumeric(right);
+        if (leftNumeric && rightNumeric) {
+            return Long.compare(parseSegment(left), parseSegment(right));
+        }
+        if (leftNumeric != rightNumeric) {
+            return leftNumeric ? -1 : 1;
+        }
+        return left.compareTo(right);
+    }
+
+    private static boolean isNumeric(String segment) {
+        if (segment.isEmpty() || segment.length() > 18) {
+            return false;
+        }
+        for (var i = 0; i < segment.length(); i++) {
+            if (!isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static long parseSegment(String segment) {
+        return Long.parseLong(segment);
+    }
+}
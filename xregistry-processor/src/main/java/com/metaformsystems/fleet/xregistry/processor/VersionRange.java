@@ -0,0 +1,162 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A range of versions with optional lower and upper bounds. Bounds are compared with
+ * {@link Version#compareSemantically(Version)}.
+ * <p>
+ * Supported notations are:
+ * <ul>
+ *     <li>{@code 1.2} - exactly the given version</li>
+ *     <li>{@code ^1.2} - compatible versions, from {@code 1.2} up to but excluding {@code 2.0}; for {@code ^0.2} up to
+ *     {@code 0.3}</li>
+ *     <li>{@code ~1.2} - patch versions, from {@code 1.2} up to but excluding {@code 1.3}</li>
+ *     <li>{@code 1.x}, {@code 1.2.*} - any version with the given leading segments</li>
+ *     <li>{@code [1.0,2.0)}, {@code (,2.0]}, {@code [1.0,)} - intervals with inclusive or exclusive bounds</li>
+ *     <li>{@code *} - any version</li>
+ * </ul>
+ * Ranges derived from a prefix exclude the pre-releases of their upper bound, so {@code 2.0-rc1} is not in {@code ^1.0}.
+ */
+public record VersionRange(@Nullable Version lower, boolean lowerInclusive, @Nullable Version upper, boolean upperInclusive) {
+
+    public static final VersionRange ANY = new VersionRange(null, false, null, false);
+
+    public static VersionRange parse(String range) {
+        var text = range.trim();
+        if (text.isEmpty() || text.equals("*") || text.equalsIgnoreCase("x")) {
+            return ANY;
+        }
+        var first = text.charAt(0);
+        if (first == '[' || first == '(') {
+            return parseInterval(range, text);
+        }
+        if (first == '^' || first == '~') {
+            var version = Version.parse(text.substring(1));
+            var release = release(range, version);
+            return new VersionRange(version, true, first == '^' ? caretUpper(release) : tildeUpper(release), false);
+        }
+        var wildcard = wildcardPrefix(text);
+        if (wildcard != null) {
+            var release = release(range, Version.parse(wildcard));
+            return new VersionRange(Version.parse(wildcard), true, Version.lowest(increment(release, release.length - 1)), false);
+        }
+        var version = Version.parse(text);
+        release(range, version);
+        return new VersionRange(version, true, version, true);
+    }
+
+    /**
+     * Returns true if the version lies within this range.
+     */
+    public boolean contains(Version version) {
+        return isAboveLower(version) && isBelowUpper(version);
+    }
+
+    boolean isAboveLower(Version version) {
+        if (lower == null) {
+            return true;
+        }
+        var result = version.compareSemantically(lower);
+        return lowerInclusive ? result >= 0 : result > 0;
+    }
+
+    boolean isBelowUpper(Version version) {
+        if (upper == null) {
+            return true;
+        }
+        var result = version.compareSemantically(upper);
+        return upperInclusive ? result <= 0 : result < 0;
+    }
+
+    private static VersionRange parseInterval(String range, String text) {
+        var last = text.charAt(text.length() - 1);
+        if (text.length() < 2 || last != ']' && last != ')') {
+            throw invalid(range);
+        }
+        var body = text.substring(1, text.length() - 1);
+        var comma = body.indexOf(',');
+        if (comma < 0) {
+            if (text.charAt(0) != '[' || last != ']') {
+                throw invalid(range);
+            }
+            var version = Version.parse(body.trim());
+            release(range, version);
+            return new VersionRange(version, true, version, true);
+        }
+        var lower = bound(range, body.substring(0, comma));
+        var upper = bound(range, body.substring(comma + 1));
+        return new VersionRange(lower, text.charAt(0) == '[', upper, last == ']');
+    }
+
+    private static @Nullable Version bound(String range, String text) {
+        var trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+        var version = Version.parse(trimmed);
+        release(range, version);
+        return version;
+    }
+
+    private static @Nullable String wildcardPrefix(String text) {
+        for (var suffix : new String[]{ ".x", ".X", ".*" }) {
+            if (text.endsWith(suffix)) {
+                return text.substring(0, text.length() - suffix.length());
+            }
+        }
+        return null;
+    }
+
+    private static long[] release(String range, Version version) {
+        if (version.segments() == 0) {
+            throw invalid(range);
+        }
+        var release = new long[version.segments()];
+        for (var i = 0; i < release.length; i++) {
+            release[i] = version.segment(i);
+        }
+        return release;
+    }
+
+    private static Version caretUpper(long[] release) {
+        for (var i = 0; i < release.length; i++) {
+            if (release[i] != 0) {
+                return Version.lowest(increment(release, i));
+            }
+        }
+        return Version.lowest(increment(release, release.length - 1));
+    }
+
+    private static Version tildeUpper(long[] release) {
+        return Version.lowest(increment(release, release.length == 1 ? 0 : 1));
+    }
+
+    /**
+     * Returns the leading segments up to the given position with the last one incremented.
+     */
+    private static long[] increment(long[] release, int position) {
+        var result = new long[position + 1];
+        System.arraycopy(release, 0, result, 0, position + 1);
+        result[position]++;
+        return result;
+    }
+
+    private static IllegalArgumentException invalid(String range) {
+        return new IllegalArgumentException("Invalid version range: " + range);
+    }
+}
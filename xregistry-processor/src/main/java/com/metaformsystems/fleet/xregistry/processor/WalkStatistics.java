@@ -0,0 +1,175 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timings of a walk, returned by {@link AbstractFileSystemWalker#walk(Path)}.
+ * <p>
+ * Errors are counted by the simple name of the exception that caused them. The time of each {@link ArtifactType} is the
+ * busy time of all work done for its directories; in parallel walks it is summed across tasks and can exceed the elapsed
+ * time. Listing latencies only cover reading directory entries, not processing them, and the slowest listings are kept
+ * with their directories.
+ *
+ * @param elapsed            the wall-clock time of the walk
+ * @param directoriesListed  the number of directories whose entries were read
+ * @param filesVisited       the number of regular files encountered
+ * @param filesSkipped       the number of visited files that were not reported as artifacts
+ * @param errors             error counts by type
+ * @param typeDurations      the busy time per artifact type
+ * @param listingLatency     the distribution of directory listing latencies
+ * @param slowestListings    the slowest directory listings, slowest first
+ */
+public record WalkStatistics(Duration elapsed,
+                             long directoriesListed,
+                             long filesVisited,
+                             long filesSkipped,
+                             Map<String, Long> errors,
+                             Map<ArtifactType, Duration> typeDurations,
+                             LatencyHistogram listingLatency,
+                             List<DirectoryListing> slowestListings) {
+
+    static final int SLOWEST_LISTINGS = 10;
+
+    /**
+     * A directory listing with the time taken to read its entries.
+     */
+    public record DirectoryListing(Path directory, int entries, Duration latency) {
+    }
+
+    public WalkStatistics {
+        errors = Collections.unmodifiableMap(new TreeMap<>(errors));
+        var durations = new EnumMap<ArtifactType, Duration>(ArtifactType.class);
+        durations.putAll(typeDurations);
+        typeDurations = Collections.unmodifiableMap(durations);
+        slowestListings = List.copyOf(slowestListings);
+    }
+
+    /**
+     * Returns the number of files reported as artifacts.
+     */
+    public long artifacts() {
+        return filesVisited - filesSkipped;
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Returns a human-readable summary of the statistics.
+     */
+    public String report() {
+        var report = new StringBuilder(String.format("walk took %d ms: %,d directories, %,d files, %,d skipped, %,d errors%n",
+                elapsed.toMillis(), directoriesListed, filesVisited, filesSkipped, errorCount()));
+        errors.forEach((type, count) -> report.append(String.format("  error %-30s %,10d%n", type, count)));
+        typeDurations.forEach((type, duration) -> report.append(String.format("  type  %-30s %,10d ms%n", type, duration.toMillis())));
+        report.append(String.format("  listing latency p50 %s, p99 %s%n", listingLatency.percentile(50), listingLatency.percentile(99)));
+        slowestListings.forEach(listing -> report.append(String.format("  slow  %s (%d entries) %s%n", listing.directory(), listing.entries(), listing.latency())));
+        return report.toString();
+    }
+
+    /**
+     * Collects the statistics of a walk from multiple threads.
+     */
+    static class Recorder {
+        private final long start = System.nanoTime();
+        private final LongAdder directoriesListed = new LongAdder();
+        private final LongAdder filesVisited = new LongAdder();
+        private final LongAdder filesSkipped = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LongAdder[] typeNanos = new LongAdder[ArtifactType.values().length];
+        private final LatencyHistogram.Recorder listingLatency = new LatencyHistogram.Recorder();
+        private final PriorityQueue<DirectoryListing> slowestListings = new PriorityQueue<>(Comparator.comparing(DirectoryListing::latency));
+        private volatile long slowListingThreshold;
+
+        Recorder() {
+            for (var i = 0; i < typeNanos.length; i++) {
+                typeNanos[i] = new LongAdder();
+            }
+        }
+
+        void directoryListed(Path directory, int entries, long nanos) {
+            directoriesListed.increment();
+            listingLatency.record(nanos);
+            if (nanos > slowListingThreshold) {
+                synchronized (slowestListings) {
+                    slowestListings.add(new DirectoryListing(directory, entries, Duration.ofNanos(nanos)));
+                    if (slowestListings.size() > SLOWEST_LISTINGS) {
+                        slowestListings.poll();
+                        slowListingThreshold = slowestListings.peek().latency().toNanos();
+                    }
+                }
+            }
+        }
+
+        void fileVisited() {
+            filesVisited.increment();
+        }
+
+        void fileSkipped() {
+            filesSkipped.increment();
+        }
+
+        void error(Throwable cause) {
+            error(cause.getClass().getSimpleName());
+        }
+
+        void error(String type) {
+            errors.computeIfAbsent(type, t -> new LongAdder()).increment();
+        }
+
+        void typeWork(ArtifactType type, long nanos) {
+            typeNanos[type.ordinal()].add(nanos);
+        }
+
+        /**
+         * Adds the counters, errors and timings of a nested walk, except its elapsed time.
+         */
+        void add(WalkStatistics statistics) {
+            directoriesListed.add(statistics.directoriesListed());
+            filesVisited.add(statistics.filesVisited());
+            filesSkipped.add(statistics.filesSkipped());
+            statistics.errors().forEach((type, count) -> errors.computeIfAbsent(type, t -> new LongAdder()).add(count));
+            statistics.typeDurations().forEach((type, duration) -> typeWork(type, duration.toNanos()));
+        }
+
+        WalkStatistics snapshot() {
+            var errorCounts = new TreeMap<String, Long>();
+            errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+            var durations = new EnumMap<ArtifactType, Duration>(ArtifactType.class);
+            for (var type : ArtifactType.values()) {
+                durations.put(type, Duration.ofNanos(typeNanos[type.ordinal()].sum()));
+            }
+            List<DirectoryListing> slowest;
+            synchronized (slowestListings) {
+                slowest = slowestListings.stream().sorted(Comparator.comparing(DirectoryListing::latency).reversed()).toList();
+            }
+            return new WalkStatistics(Duration.ofNanos(System.nanoTime() - start), directoriesListed.sum(), filesVisited.sum(),
+                    filesSkipped.sum(), errorCounts, durations, listingLatency.snapshot(), slowest);
+        }
+    }
+}
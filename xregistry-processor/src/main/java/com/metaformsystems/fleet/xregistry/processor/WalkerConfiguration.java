@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Configures how a walker traverses an xRegistry.
+ * <p>
+ * By default, walks are sequential and run on the calling thread. Setting an {@link Executor} enables parallel mode, in
+ * which directory listings and visitor dispatch are split into tasks submitted to that executor, for example a
+ * {@link java.util.concurrent.ForkJoinPool} or a virtual-thread-per-task executor. The executor is owned by the caller
+ * and is not shut down by the walker. The parallelism setting caps the number of tasks that execute concurrently,
+ * regardless of how many threads the executor provides.
+ * <p>
+ * If metadata fields are set, each artifact file is read once during the walk and the declared top-level fields are
+ * passed to {@link XRegistryVisitor#onArtifact}. Artifacts whose content cannot be read or parsed are reported as errors
+ * and skipped. If content digests are enabled, each artifact file is read in full in that
+ * pass and its SHA-256 is passed along with the metadata, so that {@link MerkleTree} leaves need not read the content
+ * again.
+ * <p>
+ * An {@link ArtifactSelection} restricts the artifacts that are reported and prunes the parts of the registry that cannot
+ * contain selected artifacts from the walk.
+ */
+public class WalkerConfiguration {
+    private Executor executor;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Set<String> metadataFields = Set.of();
+    private boolean digestContent;
+    private FilenameGrammar filenameGrammar = FilenameGrammar.DEFAULT;
+    private ArtifactSelection selection = ArtifactSelection.ALL;
+
+    private WalkerConfiguration() {
+    }
+
+    /**
+     * Returns the default, sequential configuration.
+     */
+    public static WalkerConfiguration defaults() {
+        return Builder.newInstance().build();
+    }
+
+    /**
+     * Returns the executor used in parallel mode or null if walks are sequential.
+     */
+    @Nullable
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the maximum number of walk tasks that execute concurrently in parallel mode.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the top-level fields extracted from each artifact, or an empty set if no metadata is extracted.
+     */
+    public Set<String> getMetadataFields() {
+        return metadataFields;
+    }
+
+    /**
+     * Returns true if the SHA-256 of each artifact file is computed during the walk.
+     */
+    public boolean isDigestContent() {
+        return digestContent;
+    }
+
+    /**
+     * Returns true if artifact files are read during the walk, either to extract metadata or to digest their content.
+     */
+    boolean readsContent() {
+        return !metadataFields.isEmpty() || digestContent;
+    }
+
+    /**
+     * Returns the grammar used to parse file names in compact registries.
+     */
+    public FilenameGrammar getFilenameGrammar() {
+        return filenameGrammar;
+    }
+
+    /**
+     * Returns the selection of artifacts to report, which selects all artifacts by default.
+     */
+    public ArtifactSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Returns a copy of this configuration with the given selection.
+     */
+    WalkerConfiguration withSelection(ArtifactSelection selection) {
+        var copy = new WalkerConfiguration();
+        copy.executor = executor;
+        copy.parallelism = parallelism;
+        copy.metadataFields = metadataFields;
+        copy.digestContent = digestContent;
+        copy.filenameGrammar = filenameGrammar;
+        copy.selection = selection;
+        return copy;
+    }
+
+    public static class Builder {
+        private final WalkerConfiguration configuration;
+
+        private Builder() {
+            configuration = new WalkerConfiguration();
+        }
+
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        public Builder executor(Executor executor) {
+            configuration.executor = executor;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            configuration.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder metadataFields(Set<String> metadataFields) {
+            configuration.metadataFields = Set.copyOf(metadataFields);
+            return this;
+        }
+
+        public Builder digestContent(boolean digestContent) {
+            configuration.digestContent = digestContent;
+            return this;
+        }
+
+        public Builder filenameGrammar(FilenameGrammar filenameGrammar) {
+            configuration.filenameGrammar = filenameGrammar;
+            return this;
+        }
+
+        public Builder selection(ArtifactSelection selection) {
+            configuration.selection = selection;
+            return this;
+        }
+
+        public WalkerConfiguration build() {
+            if (configuration.parallelism < 1) {
+                throw new IllegalArgumentException("parallelism must be at least 1: " + configuration.parallelism);
+            }
+            return configuration;
+        }
+    }
+}
@@ -21,6 +21,12 @@
  * stream data.
  * <p>
  * Note that artifact references may be invoked multiple times to provide the actual stream data.
+ * <p>
+ * Thread-safety: {@link #onStart()} and {@link #onComplete()} are always invoked on the thread that started the walk.
+ * {@link #onStart()} happens-before all other callbacks and all other callbacks happen-before {@link #onComplete()}.
+ * Sequential walks invoke every callback on the walking thread. Parallel walks may invoke the artifact and error
+ * callbacks concurrently from multiple threads and in no particular order, but only if the visitor reports itself as
+ * {@link #isThreadSafe() thread-safe}. Otherwise, the walker serializes the callbacks.
  */
 public interface XRegistryVisitor {
 
@@ -45,6 +51,20 @@ default void onStart() {
      */
     void onRule(Artifact artifact, Supplier<InputStream> ref);
 
+    /**
+     * Called when an artifact is encountered, together with the metadata extracted from its content. Metadata is only
+     * extracted if fields are configured with {@link WalkerConfiguration.Builder#metadataFields(java.util.Set)} and is
+     * empty otherwise. If the content cannot be read or parsed, the artifact is reported to {@link #onError} instead and
+     * is not passed to this method. By default, dispatches to {@link #onPolicy}, {@link #onSchema} or {@link #onRule}.
+     */
+    default void onArtifact(ArtifactType type, Artifact artifact, Supplier<InputStream> ref, ArtifactMetadata metadata) {
+        switch (type) {
+            case POLICY -> onPolicy(artifact, ref);
+            case SCHEMA -> onSchema(artifact, ref);
+            case RULE -> onRule(artifact, ref);
+        }
+    }
+
     /**
      * Called when an error is encountered.
      */
@@ -56,5 +76,11 @@ default void onStart() {
     default void onComplete() {
     }
 
+    /**
+     * Returns true if the artifact and error callbacks of this visitor may be invoked concurrently.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 
 }
@@ -0,0 +1,64 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactKeyTableTest {
+
+    @Test
+    void verifyDenseIdsAndInterning() {
+        var keys = new ArtifactKeyTable(1);
+        for (var i = 0; i < 1000; i++) {
+            assertThat(keys.add(new Artifact(new String("dspacex"), "policy" + (i % 10), "1." + i))).isEqualTo(i);
+        }
+
+        assertThat(keys.size()).isEqualTo(1000);
+        assertThat(keys.add(new Artifact("dspacex", "policy3", "1.3"))).isEqualTo(3);
+        assertThat(keys.idOf(new Artifact("dspacex", "policy3", "1.3"))).isEqualTo(3);
+        assertThat(keys.idOf(new Artifact("dspacex", "policy3", "2.0"))).isEqualTo(-1);
+        assertThat(keys.idOf("dspacex")).isEqualTo(-1);
+        assertThat(keys.artifact(999).group()).isSameAs(keys.artifact(0).group());
+        assertThat(keys.artifact(10).name()).isSameAs(keys.artifact(0).name());
+    }
+
+    @Test
+    void verifyArtifactMap() {
+        var keys = new ArtifactKeyTable();
+        var first = new ArtifactMap<String>(keys);
+        var second = new ArtifactMap<String>(keys);
+        var shared = new Artifact("dspacex", "generic-access", "1.0");
+        var other = new Artifact("dspacex", "membership", "1.0");
+
+        first.put(shared, "a");
+        second.put(other, "b");
+        second.put(shared, "c");
+
+        assertThat(keys.size()).isEqualTo(2);
+        assertThat(first.get(shared)).isEqualTo("a");
+        assertThat(first.get(other)).isNull();
+        assertThat(first.get(keys.idOf(shared))).isEqualTo("a");
+        assertThat(second.keySet()).containsExactly(shared, other);
+        assertThat(second.put(shared, "d")).isEqualTo("c");
+        assertThat(second.size()).isEqualTo(2);
+
+        second.entrySet().removeIf(entry -> entry.getValue().equals("d"));
+        assertThat(second.keySet()).containsExactly(other);
+        assertThat(second.remove(other)).isEqualTo("b");
+        assertThat(second.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactSelectionTest {
+
+    @Test
+    void verifyDefaultSelectsAll() {
+        assertThat(ArtifactSelection.ALL.isAll()).isTrue();
+        assertThat(ArtifactSelection.ALL.matches(ArtifactType.SCHEMA, new Artifact("any", "name", "not-a-version"))).isTrue();
+    }
+
+    @Test
+    void verifyCriteria() {
+        var selection = ArtifactSelection.Builder.newInstance()
+                .types(Set.of(ArtifactType.POLICY))
+                .groups(Set.of("dspacex"))
+                .names(Set.of("member*", "access-?", "a.b"))
+                .versions("~1.2")
+                .build();
+
+        assertThat(selection.isAll()).isFalse();
+        assertThat(selection.matches(ArtifactType.POLICY, new Artifact("dspacex", "membership", "1.2.3"))).isTrue();
+        assertThat(selection.matches(ArtifactType.SCHEMA, new Artifact("dspacex", "membership", "1.2.3"))).isFalse();
+        assertThat(selection.matches(ArtifactType.POLICY, new Artifact("other", "membership", "1.2.3"))).isFalse();
+        assertThat(selection.matches(ArtifactType.POLICY, new Artifact("dspacex", "membership", "1.3"))).isFalse();
+        assertThat(selection.includesName("access-1")).isTrue();
+        assertThat(selection.includesName("access-10")).isFalse();
+        assertThat(selection.includesName("a.b")).isTrue();
+        assertThat(selection.includesName("axb")).isFalse();
+        assertThat(selection.includesVersion("1.2.0.json")).isTrue();
+    }
+}
@@ -15,8 +15,13 @@
 package com.metaformsystems.fleet.xregistry.processor;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -39,4 +44,41 @@ void verifyCompact() {
         assertThat(index.rules().size()).isEqualTo(1);
     }
 
-}
\ No newline at end of file
+    @Test
+    void verifyCompact_prunesUnselectedTypes() {
+        var selection = ArtifactSelection.Builder.newInstance().types(Set.of(ArtifactType.POLICY, ArtifactType.RULE)).build();
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().selection(selection).build();
+
+        var statistics = new CompactFileSystemWalker(visitor, configuration).walk(Paths.get("src/test/resources/xregistry-compact"));
+
+        assertThat(visitor.getIndex().artifacts().size()).isEqualTo(2);
+        assertThat(visitor.getIndex().schemas().size()).isEqualTo(0);
+        assertThat(statistics.directoriesListed()).isEqualTo(3);
+    }
+
+    @Test
+    void verifyCompact_filtersParsedNamesBeforeStat(@TempDir Path root) throws IOException {
+        var policies = Files.createDirectories(root.resolve("policies"));
+        Files.writeString(policies.resolve("acme.access-policy.1.0.json"), "{}");
+        Files.writeString(policies.resolve("acme.access-policy.2.1.json"), "{}");
+        Files.writeString(policies.resolve("acme.usage-policy.2.0.json"), "{}");
+        Files.writeString(policies.resolve("other.access-policy.2.0.json"), "{}");
+        Files.writeString(policies.resolve("README"), "");
+
+        var selection = ArtifactSelection.Builder.newInstance()
+                .groups(Set.of("acme"))
+                .names(Set.of("access-*"))
+                .versions("^2.0")
+                .build();
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().selection(selection).build();
+        var statistics = new CompactFileSystemWalker(visitor, configuration).walk(root);
+
+        assertThat(visitor.getIndex().artifacts().size()).isEqualTo(1);
+        assertThat(visitor.getIndex().findArtifact(new Artifact("acme", "access-policy", "2.1"))).isNotNull();
+        // the selected artifact and the unparseable file are stat'ed, the others are pruned by name
+        assertThat(statistics.filesVisited()).isEqualTo(2);
+        assertThat(statistics.filesSkipped()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompositeDeploymentIndexTest {
+    private static final Artifact ACCESS = new Artifact("dspacex", "generic-access", "1.0");
+    private static final Artifact MEMBERSHIP = new Artifact("dspacex", "membership", "1.0");
+    private static final Artifact REGION = new Artifact("eu", "residency", "1.0");
+
+    @Test
+    void verifyLaterLayersTakePrecedence(@TempDir Path tempDir) throws IOException {
+        var base = write(tempDir.resolve("base"), "policies/dspacex.generic-access.1.0.json", "base");
+        write(base, "schemas/dspacex.membership.1.0.json", "base");
+        var overlay = write(tempDir.resolve("overlay"), "policies/dspacex.generic-access.1.0.json", "overlay");
+        write(overlay, "policies/eu.residency.1.0.json", "overlay");
+
+        var composite = CompositeDeploymentIndex.Builder.newInstance()
+                .layer("base", base, RegistryLayout.COMPACT)
+                .layer("overlay", overlay, RegistryLayout.COMPACT)
+                .build();
+
+        assertThat(composite.validate().valid()).isTrue();
+        assertThat(composite.index().size()).isEqualTo(3);
+        assertThat(read(composite.findArtifact(ACCESS))).isEqualTo("overlay");
+        assertThat(read(composite.findArtifact(MEMBERSHIP))).isEqualTo("base");
+        assertThat(read(composite.findArtifact("base", ACCESS))).isEqualTo("base");
+        assertThat(composite.layerOf(ACCESS)).isEqualTo("overlay");
+        assertThat(composite.layerOf(MEMBERSHIP)).isEqualTo("base");
+        assertThat(composite.layersDefining(ACCESS)).containsExactly("overlay", "base");
+        assertThat(composite.statistics()).containsKeys("base", "overlay");
+    }
+
+    @Test
+    void verifyOverrideReplacesType() {
+        var base = DeploymentIndex.Builder.newInstance().put(ArtifactType.POLICY, ACCESS, content("policy")).build();
+        var tenant = DeploymentIndex.Builder.newInstance().put(ArtifactType.RULE, ACCESS, content("rule")).build();
+
+        var composite = CompositeDeploymentIndex.Builder.newInstance()
+                .layer("base", base)
+                .layer("tenant", tenant)
+                .build();
+
+        assertThat(composite.index().typeOf(ACCESS)).isEqualTo(ArtifactType.RULE);
+        assertThat(composite.index().policies()).isEmpty();
+    }
+
+    @Test
+    void verifyPerLayerQueries() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < 1000; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("group" + i % 10, "name" + i, "1.0"), content("policy"));
+        }
+        var composite = CompositeDeploymentIndex.Builder.newInstance()
+                .layer("base", builder.build())
+                .layer("empty", DeploymentIndex.Builder.newInstance().build())
+                .build();
+
+        for (var i = 0; i < 1000; i++) {
+            var artifact = new Artifact("group" + i % 10, "name" + i, "1.0");
+            assertThat(composite.findArtifact("base", artifact)).isNotNull();
+            assertThat(composite.findArtifact("empty", artifact)).isNull();
+            assertThat(composite.layersDefining(artifact)).containsExactly("base");
+        }
+        assertThat(composite.findArtifact("base", REGION)).isNull();
+    }
+
+    @Test
+    void verifyLayerProblemsReported(@TempDir Path tempDir) throws IOException {
+        var base = write(tempDir.resolve("base"), "policies/dspacex.generic-access.1.0.json", "base");
+
+        var composite = CompositeDeploymentIndex.Builder.newInstance()
+                .layer("base", base, RegistryLayout.COMPACT)
+                .layer("missing", tempDir.resolve("missing"), RegistryLayout.COMPACT)
+                .build();
+
+        assertThat(composite.validate().valid()).isFalse();
+        assertThat(composite.validate().problems()).allMatch(problem -> problem.startsWith("missing: "));
+        assertThat(read(composite.findArtifact(ACCESS))).isEqualTo("base");
+    }
+
+    @Test
+    void verifyDuplicateLayerRejected() {
+        var index = DeploymentIndex.Builder.newInstance().build();
+
+        assertThatThrownBy(() -> CompositeDeploymentIndex.Builder.newInstance().layer("base", index).layer("base", index))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Path write(Path root, String file, String content) throws IOException {
+        var path = root.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        return root;
+    }
+
+    private static Supplier<InputStream> content(String content) {
+        return () -> new ByteArrayInputStream(content.getBytes(UTF_8));
+    }
+
+    private static String read(Supplier<InputStream> ref) throws IOException {
+        try (var stream = ref.get()) {
+            return new String(stream.readAllBytes(), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentDeploymentIndexVisitorTest {
+
+    @Test
+    void verifyParallelWalkMatchesSequentialIndex(@TempDir Path root) throws IOException {
+        createRegistry(root, 20, 10);
+        var sequential = new DeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(sequential).walk(root);
+
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+        var pool = new ForkJoinPool(4);
+        try {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(pool).parallelism(4).build();
+            new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(visitor.validate().valid()).isTrue();
+        var index = visitor.getIndex();
+        assertThat(index.size()).isEqualTo(200);
+        assertThat(index.artifacts().keySet()).containsExactlyInAnyOrderElementsOf(sequential.getIndex().artifacts().keySet());
+        assertThat(index.typeOf(new Artifact("group19", "resource9", "1.0.json"))).isEqualTo(ArtifactType.POLICY);
+    }
+
+    @Test
+    void verifyConcurrentProducers() throws InterruptedException {
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+        var start = new CountDownLatch(1);
+        var threads = 8;
+        var perThread = 1000;
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (var thread = 0; thread < threads; thread++) {
+                var group = "group" + thread;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (var i = 0; i < perThread; i++) {
+                        var metadata = i == 0 ? new ArtifactMetadata(Map.of("title", group)) : ArtifactMetadata.EMPTY;
+                        visitor.onArtifact(ArtifactType.SCHEMA, new Artifact(group, "name" + i, "1.0"), content(), metadata);
+                    }
+                    visitor.onError(group + " failed");
+                });
+            }
+            start.countDown();
+        }
+        visitor.onComplete();
+
+        var index = visitor.getIndex();
+        assertThat(index.size()).isEqualTo(threads * perThread);
+        assertThat(index.schemas().size()).isEqualTo(threads * perThread);
+        assertThat(index.metadata(new Artifact("group3", "name0", "1.0")).get("title")).isEqualTo("group3");
+        assertThat(index.metadata(new Artifact("group3", "name1", "1.0")).isEmpty()).isTrue();
+        assertThat(visitor.validate().problems()).hasSize(threads);
+    }
+
+    @Test
+    void verifyMergedBuffersReleaseContent() throws Exception {
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+        var artifact = new Artifact("dspacex", "generic-access", "1.0");
+        var pool = Executors.newSingleThreadExecutor();
+        try {
+            var replaced = pool.submit(() -> {
+                var bytes = new byte[1024];
+                Supplier<InputStream> ref = () -> new ByteArrayInputStream(bytes);
+                visitor.onPolicy(artifact, ref);
+                return new WeakReference<>(ref);
+            }).get();
+            visitor.getIndex();
+            visitor.onPolicy(artifact, content());
+            visitor.getIndex();
+
+            // the pool thread keeps its buffer, which must no longer reference the replaced content
+            for (var i = 0; i < 10 && replaced.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertThat(replaced.get()).isNull();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void verifyArtifactsAccumulateAcrossWalks(@TempDir Path root) throws IOException {
+        createRegistry(root, 2, 2);
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(visitor).walk(root);
+        var first = visitor.getIndex();
+
+        visitor.onPolicy(new Artifact("extra", "policy", "1.0"), content());
+        visitor.onPolicy(new Artifact("group0", "resource0", "1.0.json"), content());
+
+        assertThat(first.size()).isEqualTo(4);
+        assertThat(visitor.getIndex().size()).isEqualTo(5);
+        assertThat(visitor.getIndex()).isSameAs(visitor.getIndex());
+    }
+
+    private static Supplier<InputStream> content() {
+        return () -> new ByteArrayInputStream(new byte[0]);
+    }
+
+    private void createRegistry(Path root, int groups, int resources) throws IOException {
+        for (var group = 0; group < groups; group++) {
+            for (var resource = 0; resource < resources; resource++) {
+                var versions = root.resolve("policygroups/group" + group + "/policies/resource" + resource + "/versions");
+                Files.createDirectories(versions);
+                Files.writeString(versions.resolve("1.0.json"), "{}");
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCacheTest {
+
+    @Test
+    void verifyHitsAndInvalidation(@TempDir Path root) throws IOException {
+        var file = root.resolve("policies/dspacex.generic-access.v1.json");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "{\"versionid\": \"1\"}");
+
+        var visitor = new DeploymentIndexVisitor();
+        new CompactFileSystemWalker(visitor).walk(root);
+        var cache = new ContentCache(1024, Duration.ZERO);
+        var index = cache.wrap(visitor.getIndex());
+        var ref = index.findArtifact(new Artifact("dspacex", "generic-access", "v1"));
+
+        assertThat(read(ref)).isEqualTo("{\"versionid\": \"1\"}");
+        assertThat(read(ref)).isEqualTo("{\"versionid\": \"1\"}");
+        assertThat(cache.statistics().misses()).isEqualTo(1);
+        assertThat(cache.statistics().hits()).isEqualTo(1);
+
+        Files.writeString(file, "{\"versionid\": \"2\"}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+
+        assertThat(read(ref)).isEqualTo("{\"versionid\": \"2\"}");
+        assertThat(cache.statistics().invalidations()).isEqualTo(1);
+        assertThat(cache.statistics().misses()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyEviction(@TempDir Path root) throws IOException {
+        var cache = new ContentCache(25);
+        var first = cache.wrap(write(root.resolve("first.json"), "0123456789"));
+        var second = cache.wrap(write(root.resolve("second.json"), "1234567890"));
+        var third = cache.wrap(write(root.resolve("third.json"), "2345678901"));
+        var large = cache.wrap(write(root.resolve("large.json"), "0123456789".repeat(3)));
+
+        read(first);
+        read(second);
+        read(first);
+        read(third);
+
+        var statistics = cache.statistics();
+        assertThat(statistics.evictions()).isEqualTo(1);
+        assertThat(statistics.entries()).isEqualTo(2);
+        assertThat(statistics.bytes()).isEqualTo(20);
+
+        read(first);
+        assertThat(cache.statistics().hits()).isEqualTo(2);
+
+        assertThat(read(large)).hasSize(30);
+        assertThat(cache.statistics().entries()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyIdenticalContentHeldOnce(@TempDir Path root) throws IOException {
+        var cache = new ContentCache(1024);
+        var first = cache.wrap(write(root.resolve("first.json"), "0123456789"));
+        var second = cache.wrap(write(root.resolve("second.json"), "0123456789"));
+
+        read(first);
+        read(second);
+
+        assertThat(cache.statistics().entries()).isEqualTo(1);
+        assertThat(cache.statistics().bytes()).isEqualTo(10);
+    }
+
+    @Test
+    void verifyWalkDigestsServeSharedContent(@TempDir Path root) throws IOException {
+        Files.createDirectories(root.resolve("policies"));
+        Files.writeString(root.resolve("policies/dspacex.generic-access.1.0.json"), "{\"title\":\"access\"}");
+        Files.writeString(root.resolve("policies/tenant.generic-access.1.0.json"), "{\"title\":\"access\"}");
+        var visitor = new DeploymentIndexVisitor();
+        new CompactFileSystemWalker(visitor, WalkerConfiguration.Builder.newInstance().digestContent(true).build()).walk(root);
+        var cache = new ContentCache(1024, Duration.ZERO);
+        var index = cache.wrap(visitor.getIndex());
+
+        assertThat(read(index.findArtifact(new Artifact("dspacex", "generic-access", "1.0")))).isEqualTo("{\"title\":\"access\"}");
+        assertThat(read(index.findArtifact(new Artifact("tenant", "generic-access", "1.0")))).isEqualTo("{\"title\":\"access\"}");
+
+        var statistics = cache.statistics();
+        assertThat(statistics.misses()).isEqualTo(1);
+        assertThat(statistics.hits()).isEqualTo(1);
+        assertThat(statistics.entries()).isEqualTo(1);
+    }
+
+    private FileReference write(Path file, String content) throws IOException {
+        Files.writeString(file, content);
+        return FileReference.of(file, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    private String read(Supplier<InputStream> ref) throws IOException {
+        try (var stream = ref.get()) {
+            return new String(stream.readAllBytes());
+        }
+    }
+}
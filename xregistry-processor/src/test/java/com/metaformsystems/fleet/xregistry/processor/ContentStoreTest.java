@@ -0,0 +1,133 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentStoreTest {
+
+    @Test
+    void verifyDuplicatesShared(@TempDir Path root) throws IOException {
+        Files.createDirectories(root.resolve("policies"));
+        Files.createDirectories(root.resolve("schemas"));
+        Files.writeString(root.resolve("policies/dspacex.generic-access.1.0.json"), "{\"title\":\"access\"}");
+        Files.writeString(root.resolve("policies/dspacex.generic-access.2.0.json"), "{\"title\":\"access\"}");
+        Files.writeString(root.resolve("schemas/dspacex.membership.1.0.json"), "{}");
+        Files.writeString(root.resolve("schemas/tenant.membership.1.0.json"), "{}");
+        var store = new ContentStore();
+        var visitor = new ConcurrentDeploymentIndexVisitor();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(executor).build();
+            new CompactFileSystemWalker(store.wrap(visitor), configuration).walk(root);
+        }
+
+        var index = visitor.getIndex();
+        assertThat(index.size()).isEqualTo(4);
+        var first = index.findArtifact(new Artifact("dspacex", "generic-access", "1.0"));
+        assertThat(first).isInstanceOf(StoredContent.class);
+        assertThat(index.findArtifact(new Artifact("dspacex", "generic-access", "2.0"))).isSameAs(first);
+        assertThat(index.findArtifact(new Artifact("tenant", "membership", "1.0")))
+                .isSameAs(index.findArtifact(new Artifact("dspacex", "membership", "1.0")));
+        assertThat(read(first)).isEqualTo("{\"title\":\"access\"}");
+        var usage = store.usage();
+        assertThat(usage.artifacts()).isEqualTo(4);
+        assertThat(usage.contents()).isEqualTo(2);
+        assertThat(usage.bytesDeduplicated()).isEqualTo(20);
+        assertThat(usage.duplicationRatio()).isEqualTo(2.0);
+    }
+
+    @Test
+    void verifyWrapIndex() {
+        var reads = new AtomicInteger();
+        var index = DeploymentIndex.Builder.newInstance()
+                .put(ArtifactType.POLICY, new Artifact("group", "policy", "1.0"), content("same", reads))
+                .put(ArtifactType.POLICY, new Artifact("group", "policy", "2.0"), content("same", reads))
+                .put(ArtifactType.RULE, new Artifact("group", "rule", "1.0"), content("other", reads))
+                .build();
+
+        var stored = new ContentStore().wrap(index);
+        var readsAfterStore = reads.get();
+        stored.merkleTree();
+
+        assertThat(readsAfterStore).isEqualTo(3);
+        assertThat(reads.get()).isEqualTo(readsAfterStore);
+        assertThat(stored.merkleTree().rootHash()).isEqualTo(index.merkleTree().rootHash());
+        assertThat(((StoredContent) stored.findArtifact(new Artifact("group", "rule", "1.0"))).digest())
+                .isEqualTo("sha256:d9298a10d1b0735837dc4bd85dac641b0f3cef27a47e5d53a54f2f3f5b2fcffa");
+    }
+
+    @Test
+    void verifyWalkDigestsReused() throws Exception {
+        var reads = new AtomicInteger();
+        var sha256 = MessageDigest.getInstance("SHA-256").digest("same".getBytes(UTF_8));
+        var metadata = new ArtifactMetadata(Map.of(), Set.of(), sha256);
+        var index = DeploymentIndex.Builder.newInstance()
+                .put(ArtifactType.POLICY, new Artifact("group", "policy", "1.0"), content("same", reads), metadata)
+                .put(ArtifactType.POLICY, new Artifact("group", "policy", "2.0"), content("same", reads), metadata)
+                .build();
+
+        var stored = new ContentStore().wrap(index);
+
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(stored.findArtifact(new Artifact("group", "policy", "2.0"))).isSameAs(stored.findArtifact(new Artifact("group", "policy", "1.0")));
+        assertThat(stored.merkleTree().rootHash()).isEqualTo(index.merkleTree().rootHash());
+    }
+
+    @Test
+    void verifyReferencesOfStoredContent() {
+        var reads = new AtomicInteger();
+        var content = "{\"schemaref\":\"/schemas/group/membership/1.0\"}";
+        var builder = DeploymentIndex.Builder.newInstance()
+                .put(ArtifactType.SCHEMA, new Artifact("group", "membership", "1.0"), content("{}", reads));
+        for (var i = 0; i < 10; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("group", "policy", i + ".0"), content(content, reads));
+        }
+        var index = new ContentStore().wrap(builder.build());
+
+        var problems = new ReferenceValidator(Set.of("schemaref")).validate(index);
+
+        assertThat(problems).isEmpty();
+    }
+
+    private static Supplier<InputStream> content(String content, AtomicInteger reads) {
+        return () -> {
+            reads.incrementAndGet();
+            return new ByteArrayInputStream(content.getBytes(UTF_8));
+        };
+    }
+
+    private static String read(Supplier<InputStream> ref) throws IOException {
+        try (var stream = ref.get()) {
+            return new String(stream.readAllBytes(), UTF_8);
+        }
+    }
+}
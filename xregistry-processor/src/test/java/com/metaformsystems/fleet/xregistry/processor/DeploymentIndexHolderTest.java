@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeploymentIndexHolderTest {
+
+    @Test
+    void verifyPublish() {
+        var holder = new DeploymentIndexHolder();
+        var index = index(1);
+
+        assertThat(holder.getIndex().size()).isEqualTo(0);
+        assertThat(holder.publish(index)).isEqualTo(1);
+        assertThat(holder.getIndex()).isSameAs(index);
+        assertThat(holder.version()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyPinnedSnapshotReleasedAfterClose() {
+        var released = new CopyOnWriteArrayList<DeploymentIndex>();
+        var initial = index(1);
+        var holder = new DeploymentIndexHolder(initial, released::add);
+
+        try (var snapshot = holder.pin()) {
+            holder.publish(index(2));
+
+            assertThat(snapshot.index()).isSameAs(initial);
+            assertThat(snapshot.version()).isEqualTo(0);
+            assertThat(released).isEmpty();
+            assertThat(holder.retainedSnapshots()).isEqualTo(1);
+        }
+
+        assertThat(released).containsExactly(initial);
+        assertThat(holder.retainedSnapshots()).isEqualTo(0);
+    }
+
+    @Test
+    void verifyUnpinnedSnapshotReleasedOnPublish() {
+        var released = new CopyOnWriteArrayList<DeploymentIndex>();
+        var initial = index(1);
+        var holder = new DeploymentIndexHolder(initial, released::add);
+        holder.pin().close();
+
+        holder.publish(index(2));
+
+        assertThat(released).containsExactly(initial);
+        assertThat(holder.pin().index().size()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyConcurrentReadersDuringPublishes() throws Exception {
+        var released = new CopyOnWriteArrayList<DeploymentIndex>();
+        var holder = new DeploymentIndexHolder(index(0), released::add);
+        var stop = new AtomicBoolean();
+        var failure = new AtomicReference<Throwable>();
+        var readers = new ArrayList<Thread>();
+        for (var i = 0; i < 4; i++) {
+            readers.add(Thread.ofPlatform().start(() -> {
+                while (!stop.get()) {
+                    try (var snapshot = holder.pin()) {
+                        if (released.contains(snapshot.index())) {
+                            failure.set(new AssertionError("pinned snapshot was released"));
+                        }
+                    }
+                }
+            }));
+        }
+        for (var size = 1; size <= 200; size++) {
+            holder.publish(index(size % 10));
+        }
+        stop.set(true);
+        for (var reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(holder.version()).isEqualTo(200);
+        assertThat(released).hasSize(200);
+        assertThat(holder.retainedSnapshots()).isEqualTo(0);
+    }
+
+    @Test
+    void verifyReload() {
+        var holder = new DeploymentIndexHolder();
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            assertThat(holder.reload(() -> index(3), executor).join()).isEqualTo(1);
+            assertThat(holder.getIndex().size()).isEqualTo(3);
+
+            var failed = holder.reload(() -> {
+                throw new IllegalStateException("registry unavailable");
+            }, executor);
+
+            assertThatThrownBy(failed::join).isInstanceOf(CompletionException.class);
+            assertThat(holder.version()).isEqualTo(1);
+        }
+    }
+
+    private static DeploymentIndex index(int size) {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < size; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("group", "name" + i, "1.0"), () -> new ByteArrayInputStream(new byte[0]));
+        }
+        return builder.build();
+    }
+}
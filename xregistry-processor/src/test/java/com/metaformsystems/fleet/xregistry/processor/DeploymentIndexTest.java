@@ -0,0 +1,201 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeploymentIndexTest {
+
+    @Test
+    void verifyTypedViews() {
+        var policy = new Artifact("dspacex", "generic-access", "1.0");
+        var schema = new Artifact("dspacex", "membership", "1.0");
+        var rule = new Artifact("dspacex", "membership-rule", "1");
+
+        var index = DeploymentIndex.Builder.newInstance(3)
+                .put(ArtifactType.POLICY, policy, content())
+                .put(ArtifactType.SCHEMA, schema, content())
+                .put(ArtifactType.RULE, rule, content())
+                .build();
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.artifacts().keySet()).containsExactly(policy, schema, rule);
+        assertThat(index.policies().keySet()).containsExactly(policy);
+        assertThat(index.schemas().size()).isEqualTo(1);
+        assertThat(index.schemas().get(policy)).isNull();
+        assertThat(index.rules().containsKey(rule)).isTrue();
+        assertThat(index.typeOf(schema)).isEqualTo(ArtifactType.SCHEMA);
+        assertThat(index.findArtifact(new Artifact("dspacex", "membership", "2.0"))).isNull();
+        assertThatThrownBy(() -> index.policies().put(schema, content())).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void verifyBuilderReuse() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < 100; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("dspacex", "policy" + i, "1.0"), content());
+        }
+        var first = builder.build();
+
+        builder.removeIf((type, artifact) -> artifact.name().endsWith("0"));
+        builder.put(ArtifactType.RULE, new Artifact("dspacex", "policy5", "1.0"), content());
+        var second = builder.build();
+
+        assertThat(first.policies().size()).isEqualTo(100);
+        assertThat(second.size()).isEqualTo(90);
+        assertThat(second.policies().size()).isEqualTo(89);
+        assertThat(second.typeOf(new Artifact("dspacex", "policy5", "1.0"))).isEqualTo(ArtifactType.RULE);
+        assertThat(second.findArtifact(new Artifact("dspacex", "policy10", "1.0"))).isNull();
+        assertThat(second.findArtifact(new Artifact("dspacex", "policy99", "1.0"))).isNotNull();
+    }
+
+    @Test
+    void verifyBuilderCompactsAfterChurn() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        var metadata = new ArtifactMetadata(Map.of("kind", "access"));
+        builder.put(ArtifactType.SCHEMA, new Artifact("dspacex", "membership", "1.0"), content(), metadata);
+        for (var version = 0; version < 10_000; version++) {
+            builder.put(ArtifactType.POLICY, new Artifact("dspacex", "generic-access", "1." + version), content());
+            if (version > 0) {
+                builder.remove(new Artifact("dspacex", "generic-access", "1." + (version - 1)));
+            }
+        }
+
+        assertThat(builder.size()).isEqualTo(2);
+        assertThat(builder.capacity()).isLessThanOrEqualTo(130);
+        var index = builder.build();
+        assertThat(index.findLatest("dspacex", "generic-access")).isEqualTo(new Artifact("dspacex", "generic-access", "1.9999"));
+        assertThat(index.typeOf(new Artifact("dspacex", "membership", "1.0"))).isEqualTo(ArtifactType.SCHEMA);
+        assertThat(index.metadata(index.idOf(new Artifact("dspacex", "membership", "1.0")))).isEqualTo(metadata);
+    }
+
+    @Test
+    void verifyIncrementalBuildMatchesFullBuild() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < 1000; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("group" + i % 10, "policy" + i, "1.0"), content());
+        }
+        var base = builder.buildIncremental();
+        var random = new Random(42);
+        var metadata = new ArtifactMetadata(Map.of("kind", "access"));
+
+        for (var batch = 0; batch < 50; batch++) {
+            for (var change = 0; change < 5; change++) {
+                var artifact = new Artifact("group" + random.nextInt(10), "policy" + random.nextInt(1100), "1.0");
+                switch (random.nextInt(3)) {
+                    case 0 -> builder.remove(artifact);
+                    case 1 -> builder.put(ArtifactType.RULE, artifact, content(), metadata);
+                    default -> builder.put(ArtifactType.POLICY, artifact, content());
+                }
+            }
+            var incremental = builder.buildIncremental();
+            var full = builder.build();
+
+            assertThat(incremental.size()).isEqualTo(full.size());
+            assertThat(incremental.artifacts().keySet()).containsExactlyInAnyOrderElementsOf(full.artifacts().keySet());
+            assertThat(incremental.rules().size()).isEqualTo(full.rules().size());
+            for (var id = 0; id < incremental.size(); id++) {
+                var artifact = incremental.artifact(id);
+                assertThat(incremental.idOf(artifact)).isEqualTo(id);
+                assertThat(incremental.type(id)).isEqualTo(full.typeOf(artifact));
+                assertThat(incremental.ref(id)).isSameAs(full.findArtifact(artifact));
+                assertThat(incremental.metadata(id)).isEqualTo(full.metadata(artifact));
+            }
+            assertThat(incremental.findArtifact(new Artifact("group0", "policy2000", "1.0"))).isNull();
+        }
+        assertThat(base.overlaidChanges()).isEqualTo(0);
+    }
+
+    @Test
+    void verifyIncrementalBuildOverlaysChanges() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < 10_000; i++) {
+            builder.put(ArtifactType.POLICY, new Artifact("dspacex", "policy" + i, "1.0"), content());
+        }
+        builder.buildIncremental();
+
+        builder.remove(new Artifact("dspacex", "policy5", "1.0"));
+        builder.put(ArtifactType.SCHEMA, new Artifact("dspacex", "membership", "1.0"), content());
+        var index = builder.buildIncremental();
+
+        assertThat(index.overlaidChanges()).isEqualTo(2);
+        assertThat(index.size()).isEqualTo(10_000);
+        assertThat(index.schemas().keySet()).containsExactly(new Artifact("dspacex", "membership", "1.0"));
+        assertThat(index.findArtifact(new Artifact("dspacex", "policy5", "1.0"))).isNull();
+
+        for (var i = 0; i < 1000; i++) {
+            builder.remove(new Artifact("dspacex", "policy" + i, "1.0"));
+        }
+        assertThat(builder.buildIncremental().overlaidChanges()).isEqualTo(0);
+    }
+
+    @Test
+    void verifyVersionLookups() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var version : new String[]{ "1.0", "1.2", "1.10", "2.0-rc1", "0.9" }) {
+            builder.put(ArtifactType.POLICY, new Artifact("dspacex", "generic-access", version), content());
+        }
+        builder.put(ArtifactType.POLICY, new Artifact("dspacex", "membership", "3.0"), content());
+        var index = builder.build();
+
+        assertThat(index.findLatest("dspacex", "generic-access")).isEqualTo(new Artifact("dspacex", "generic-access", "2.0-rc1"));
+        assertThat(index.resolve("dspacex", "generic-access", "1.x")).isEqualTo(new Artifact("dspacex", "generic-access", "1.10"));
+        assertThat(index.resolve("dspacex", "generic-access", "[1.0,1.10)")).isEqualTo(new Artifact("dspacex", "generic-access", "1.2"));
+        assertThat(index.resolve("dspacex", "generic-access", "^1.0")).isEqualTo(new Artifact("dspacex", "generic-access", "1.10"));
+        assertThat(index.resolve("dspacex", "generic-access", "^3.0")).isNull();
+        assertThat(index.findLatest("dspacex", "unknown")).isNull();
+
+        var updated = builder.put(ArtifactType.POLICY, new Artifact("dspacex", "generic-access", "1.11"), content()).build();
+        assertThat(updated.resolve("dspacex", "generic-access", "^1.0")).isEqualTo(new Artifact("dspacex", "generic-access", "1.11"));
+        assertThat(index.resolve("dspacex", "generic-access", "^1.0")).isEqualTo(new Artifact("dspacex", "generic-access", "1.10"));
+    }
+
+    @Test
+    void verifyNavigation() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var group : new String[]{ "dspacex", "dspace", "catenax" }) {
+            for (var name : new String[]{ "membership", "generic-access", "manufacturer" }) {
+                for (var version : new String[]{ "1.10", "1.2", "2.0" }) {
+                    builder.put(ArtifactType.POLICY, new Artifact(group, name, version), content());
+                }
+            }
+        }
+        var index = builder.build();
+
+        assertThat(index.listGroups("")).containsExactly("catenax", "dspace", "dspacex");
+        assertThat(index.listGroups("dspace")).containsExactly("dspace", "dspacex");
+        assertThat(index.listGroups("x")).isEmpty();
+        assertThat(index.listNames("dspacex", "m")).containsExactly("manufacturer", "membership");
+        assertThat(index.listNames("unknown", "")).isEmpty();
+        assertThat(index.listArtifacts("catenax").size()).isEqualTo(9);
+        assertThat(index.listArtifacts("catenax").get(0)).isEqualTo(new Artifact("catenax", "generic-access", "1.2"));
+        assertThat(index.listVersions("dspace", "membership")).extracting(Artifact::version).containsExactly("1.2", "1.10", "2.0");
+        assertThat(index.listVersions("dspace", "membership", VersionRange.parse("[1.5,3)"))).extracting(Artifact::version)
+                .containsExactly("1.10", "2.0");
+    }
+
+    private static Supplier<InputStream> content() {
+        return () -> new ByteArrayInputStream(new byte[0]);
+    }
+}
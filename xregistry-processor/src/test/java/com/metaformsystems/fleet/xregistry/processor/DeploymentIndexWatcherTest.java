@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeploymentIndexWatcherTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void verifyCompactChanges(@TempDir Path root) throws Exception {
+        Files.createDirectories(root.resolve("policies"));
+        Files.writeString(root.resolve("policies/dspacex.generic-access.v1.0.json"), "{}");
+
+        try (var watcher = new DeploymentIndexWatcher(root, RegistryLayout.COMPACT)) {
+            watcher.start();
+            assertThat(watcher.getIndex().policies().size()).isEqualTo(1);
+            var initialVersion = watcher.getHolder().version();
+
+            var added = new Artifact("dspacex", "generic-access", "v2.0");
+            Files.writeString(root.resolve("policies/dspacex.generic-access.v2.0.json"), "{}");
+            await(() -> watcher.getIndex().findArtifact(added) != null);
+            assertThat(watcher.getHolder().version()).isGreaterThan(initialVersion);
+
+            Files.delete(root.resolve("policies/dspacex.generic-access.v1.0.json"));
+            await(() -> watcher.getIndex().artifacts().size() == 1);
+
+            Files.createDirectories(root.resolve("rules"));
+            Files.writeString(root.resolve("rules/dspacex.membership-rule.v1.json"), "{}");
+            await(() -> watcher.getIndex().rules().size() == 1);
+
+            assertThat(watcher.getIndex().policies().keySet()).containsExactly(added);
+        }
+    }
+
+    @Test
+    void verifyExpandedChanges(@TempDir Path root) throws Exception {
+        var versions = root.resolve("policygroups/dspacex/policies/generic-access/versions");
+        Files.createDirectories(versions);
+        Files.writeString(versions.resolve("1.0.json"), "{}");
+
+        try (var watcher = new DeploymentIndexWatcher(root, RegistryLayout.EXPANDED)) {
+            watcher.start();
+            assertThat(watcher.getIndex().artifacts().size()).isEqualTo(1);
+
+            var newVersions = root.resolve("policygroups/tenant/policies/custom-access/versions");
+            Files.createDirectories(newVersions);
+            Files.writeString(newVersions.resolve("1.0.json"), "{}");
+            await(() -> watcher.getIndex().findArtifact(new Artifact("tenant", "custom-access", "1.0.json")) != null);
+
+            Files.delete(versions.resolve("1.0.json"));
+            await(() -> watcher.getIndex().findArtifact(new Artifact("dspacex", "generic-access", "1.0.json")) == null);
+
+            assertThat(watcher.getIndex().policies().size()).isEqualTo(1);
+        }
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
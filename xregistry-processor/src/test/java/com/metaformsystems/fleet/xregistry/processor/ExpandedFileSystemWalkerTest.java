@@ -15,8 +15,18 @@
 package com.metaformsystems.fleet.xregistry.processor;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -36,4 +46,155 @@ void verifyExpanded() {
         assertThat(index.artifacts().size()).isEqualTo(1);
         assertThat(index.policies().size()).isEqualTo(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void verifyExpanded_parallel(@TempDir Path root) throws IOException {
+        createRegistry(root, 20, 10);
+
+        var visitor = new DeploymentIndexVisitor();
+        var pool = new ForkJoinPool(4);
+        try {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(pool).parallelism(2).build();
+            new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(visitor.validate().valid()).isTrue();
+        assertThat(visitor.getIndex().policies().size()).isEqualTo(200);
+        assertThat(visitor.getIndex().findArtifact(new Artifact("group19", "resource9", "1.0.json"))).isNotNull();
+    }
+
+    @Test
+    void verifyExpanded_virtualThreads(@TempDir Path root) throws IOException {
+        createRegistry(root, 10, 10);
+
+        var visitor = new DeploymentIndexVisitor();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(executor).build();
+            new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+        }
+
+        assertThat(visitor.validate().valid()).isTrue();
+        assertThat(visitor.getIndex().artifacts().size()).isEqualTo(100);
+    }
+
+    @Test
+    void verifyExpanded_runsAtMostParallelismTasks(@TempDir Path root) throws IOException {
+        createRegistry(root, 10, 10);
+
+        var visitor = new ConcurrencyVisitor();
+        var pool = Executors.newFixedThreadPool(8);
+        try {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(pool).parallelism(2).build();
+            new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(visitor.artifacts.get()).isEqualTo(100);
+        assertThat(visitor.maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void verifyExpanded_skipsNonArtifactEntries(@TempDir Path root) throws IOException {
+        createRegistry(root, 1, 1);
+        Files.writeString(root.resolve("policygroups/meta.json"), "{}");
+        Files.writeString(root.resolve("policygroups/group0/policies/meta.json"), "{}");
+        Files.createDirectories(root.resolve("policygroups/group0/policies/resource0/versions/nested"));
+        Files.createDirectories(root.resolve("unknown"));
+
+        var visitor = new DeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(visitor).walk(root);
+
+        assertThat(visitor.validate().valid()).isTrue();
+        assertThat(visitor.getIndex().artifacts().size()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyExpanded_prunesUnselectedDirectories(@TempDir Path root) throws IOException {
+        createRegistry(root, 3, 3);
+        Files.writeString(root.resolve("policygroups/group1/policies/resource1/versions/2.0.json"), "{}");
+        Files.createDirectories(root.resolve("schemagroups/group1/schemas/resource1/versions"));
+
+        var selection = ArtifactSelection.Builder.newInstance()
+                .types(Set.of(ArtifactType.POLICY))
+                .groups(Set.of("group1"))
+                .names(Set.of("resource1*"))
+                .versions("^2.0")
+                .build();
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().selection(selection).build();
+        var statistics = new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+
+        assertThat(visitor.getIndex().artifacts().size()).isEqualTo(1);
+        assertThat(visitor.getIndex().findArtifact(new Artifact("group1", "resource1", "2.0.json"))).isNotNull();
+        // the root, the type directory, the resources of group1 and the versions of resource1
+        assertThat(statistics.directoriesListed()).isEqualTo(4);
+        assertThat(statistics.filesVisited()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyExpanded_versionsOrderedWithoutExtension(@TempDir Path root) throws IOException {
+        var versions = Files.createDirectories(root.resolve("policygroups/dspacex/policies/generic-access/versions"));
+        for (var version : new String[]{ "1.0.0-rc.json", "1.0.0.json", "1.0.0-rc.1.json", "0.9.json" }) {
+            Files.writeString(versions.resolve(version), "{}");
+        }
+
+        var visitor = new DeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(visitor).walk(root);
+
+        var index = visitor.getIndex();
+        assertThat(index.findLatest("dspacex", "generic-access")).isEqualTo(new Artifact("dspacex", "generic-access", "1.0.0.json"));
+        assertThat(index.resolve("dspacex", "generic-access", "^1.0")).isEqualTo(new Artifact("dspacex", "generic-access", "1.0.0.json"));
+        assertThat(index.resolve("dspacex", "generic-access", "[1.0.0-rc,1.0.0)"))
+                .isEqualTo(new Artifact("dspacex", "generic-access", "1.0.0-rc.1.json"));
+        assertThat(index.resolve("dspacex", "generic-access", "[1.0.0-rc,1.0.0-rc]"))
+                .isEqualTo(new Artifact("dspacex", "generic-access", "1.0.0-rc.json"));
+    }
+
+    private void createRegistry(Path root, int groups, int resources) throws IOException {
+        for (var group = 0; group < groups; group++) {
+            for (var resource = 0; resource < resources; resource++) {
+                var versions = root.resolve("policygroups/group" + group + "/policies/resource" + resource + "/versions");
+                Files.createDirectories(versions);
+                Files.writeString(versions.resolve("1.0.json"), "{}");
+            }
+        }
+    }
+
+    /**
+     * Records how many artifacts are reported concurrently.
+     */
+    private static class ConcurrencyVisitor implements XRegistryVisitor {
+        private final AtomicInteger artifacts = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        @Override
+        public void onPolicy(Artifact artifact, Supplier<InputStream> ref) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            artifacts.incrementAndGet();
+            running.decrementAndGet();
+        }
+
+        @Override
+        public void onSchema(Artifact artifact, Supplier<InputStream> ref) {
+        }
+
+        @Override
+        public void onRule(Artifact artifact, Supplier<InputStream> ref) {
+        }
+
+        @Override
+        public void onError(String problem) {
+            throw new IllegalStateException(problem);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return true;
+        }
+    }
+}
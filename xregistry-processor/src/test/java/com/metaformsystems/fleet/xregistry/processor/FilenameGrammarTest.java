@@ -0,0 +1,79 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilenameGrammarTest {
+
+    @Test
+    void verifyDefaultMatchesSplitParsing() {
+        var random = new Random(42);
+        var alphabet = "ab.-é";
+        for (var i = 0; i < 10_000; i++) {
+            var filename = new StringBuilder();
+            for (var length = random.nextInt(12); length > 0; length--) {
+                filename.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            var expected = splitParse(filename.toString());
+            assertThat(FilenameGrammar.DEFAULT.parse(filename)).isEqualTo(expected);
+            var bytes = ("/" + filename).getBytes(UTF_8);
+            assertThat(FilenameGrammar.DEFAULT.parse(bytes, 1, bytes.length - 1)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void verifyCustomGrammar() {
+        var grammar = FilenameGrammar.Builder.newInstance()
+                .separator('_')
+                .extensions(Set.of("json", "schema.json"))
+                .build();
+
+        assertThat(grammar.parse("dspacex_membership_1.0_schema.json")).isEqualTo(new Artifact("dspacex", "membership", "1.0"));
+        assertThat(grammar.parse("dspacex_membership_1.0_json")).isEqualTo(new Artifact("dspacex", "membership", "1.0"));
+        assertThat(grammar.parse("dspacex_membership_1.0_yaml")).isNull();
+
+        var singleToken = FilenameGrammar.Builder.newInstance().dottedVersions(false).build();
+        assertThat(singleToken.parse("dspacex.membership.v1.json")).isEqualTo(new Artifact("dspacex", "membership", "v1"));
+        assertThat(singleToken.parse("dspacex.membership.1.0.json")).isNull();
+    }
+
+    /**
+     * The original split-based parsing, kept as a reference for the default grammar.
+     */
+    private static Artifact splitParse(String filename) {
+        if (filename.isEmpty()) {
+            return null;
+        }
+        var tokens = filename.split("\\.");
+        if (tokens.length < 4) {
+            return null;
+        }
+        var version = new StringBuilder();
+        for (var i = 2; i < tokens.length - 1; i++) {
+            if (i > 2) {
+                version.append(".");
+            }
+            version.append(tokens[i]);
+        }
+        return new Artifact(tokens[0], tokens[1], version.toString());
+    }
+}
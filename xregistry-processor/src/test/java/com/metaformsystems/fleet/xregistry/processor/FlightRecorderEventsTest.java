@@ -0,0 +1,61 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderEventsTest {
+    private static final String PREFIX = "com.metaformsystems.fleet.xregistry.";
+
+    @Test
+    void verifyEvents(@TempDir Path tempDir) throws IOException {
+        var file = tempDir.resolve("walk.jfr");
+        try (var recording = new Recording()) {
+            for (var name : new String[]{ "DirectoryListing", "FileDispatch", "IndexBuild", "Validation", "ContentOpen" }) {
+                recording.enable(PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+
+            var visitor = new DeploymentIndexVisitor(new ReferenceValidator());
+            new CompactFileSystemWalker(visitor).walk(Paths.get("src/test/resources/xregistry-compact"));
+            visitor.validate();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        var events = RecordingFile.readAllEvents(file);
+        assertThat(events).extracting(event -> name(event).substring(PREFIX.length()))
+                .contains("DirectoryListing", "FileDispatch", "IndexBuild", "Validation", "ContentOpen");
+        assertThat(events).filteredOn(event -> name(event).equals(PREFIX + "FileDispatch")).hasSize(3)
+                .allMatch(event -> event.getLong("bytes") > 0 && event.getString("path").endsWith(".json"));
+        assertThat(events).filteredOn(event -> name(event).equals(PREFIX + "IndexBuild"))
+                .anyMatch(event -> event.getInt("artifacts") == 3);
+    }
+
+    private static String name(RecordedEvent event) {
+        return event.getEventType().getName();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.HIERARCHY;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.KEYS;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.METADATA;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.PATHS;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.REFERENCES;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.STRINGS;
+import static com.metaformsystems.fleet.xregistry.processor.IndexFootprint.Component.STRUCTURE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexFootprintTest {
+    private static final ObjectSizes SIZES = new ObjectSizes(true, true, 8);
+
+    @Test
+    void verifyObjectSizes() {
+        assertThat(SIZES.shallowSize(Artifact.class)).isEqualTo(24);
+        assertThat(SIZES.shallowSize(FileReference.class)).isEqualTo(32);
+        assertThat(SIZES.array(3, 1)).isEqualTo(24);
+        assertThat(SIZES.referenceArray(4)).isEqualTo(32);
+        assertThat(SIZES.string("1.0")).isEqualTo(SIZES.shallowSize(String.class) + 24);
+        assertThat(new ObjectSizes(false, false, 8).shallowSize(Artifact.class)).isEqualTo(40);
+    }
+
+    @Test
+    void verifyComponents(@TempDir Path root) {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < 10; i++) {
+            var version = "1." + i;
+            builder.put(ArtifactType.POLICY, new Artifact("dspacex", "generic-access", version),
+                    new FileReference(root.resolve("dspacex.generic-access." + version + ".json"), 10, 0),
+                    i == 0 ? new ArtifactMetadata(Map.of("title", "Generic access")) : ArtifactMetadata.EMPTY);
+        }
+        var index = builder.build();
+
+        var footprint = IndexFootprint.of(index, SIZES);
+
+        assertThat(footprint.artifacts()).isEqualTo(10);
+        assertThat(footprint.bytes(KEYS)).isEqualTo(10 * 24);
+        // the group and name are interned and counted once
+        assertThat(footprint.bytes(STRINGS)).isEqualTo(SIZES.string("dspacex") + SIZES.string("generic-access") + 10 * SIZES.string("1.0"));
+        assertThat(footprint.bytes(REFERENCES)).isEqualTo(10 * 32);
+        assertThat(footprint.bytes(PATHS)).isGreaterThan(10 * SIZES.array(root.toString().length(), 1));
+        assertThat(footprint.bytes(METADATA)).isPositive();
+        assertThat(footprint.bytes(STRUCTURE)).isPositive();
+        assertThat(footprint.bytes(HIERARCHY)).isZero();
+        assertThat(footprint.total()).isEqualTo(footprint.bytes().values().stream().mapToLong(Long::longValue).sum());
+        assertThat(footprint.report()).contains("10 artifacts").contains("strings");
+
+        index.findLatest("dspacex", "generic-access");
+        assertThat(IndexFootprint.of(index, SIZES).bytes(HIERARCHY)).isPositive();
+    }
+
+    /**
+     * Guards against memory regressions: an index of in-memory references without metadata stays within a fixed budget
+     * per artifact.
+     */
+    @Test
+    void verifyBudget() {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var group = 0; group < 10; group++) {
+            for (var name = 0; name < 10; name++) {
+                for (var version = 0; version < 10; version++) {
+                    builder.put(ArtifactType.SCHEMA, new Artifact("group" + group, "name" + name, "1." + version), () -> null);
+                }
+            }
+        }
+
+        var footprint = IndexFootprint.of(builder.build(), SIZES);
+
+        assertThat(footprint.bytesPerArtifact()).isLessThan(64);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexSnapshotTest {
+
+    @Test
+    void verifyFindArtifact(@TempDir Path temp) throws IOException {
+        var root = Paths.get("src/test/resources/xregistry-compact");
+        var visitor = new DeploymentIndexVisitor();
+        new CompactFileSystemWalker(visitor).walk(root);
+
+        var snapshotFile = temp.resolve("index.snapshot");
+        IndexSnapshot.write(visitor.getIndex(), root, RegistryLayout.COMPACT, snapshotFile);
+
+        var snapshot = IndexSnapshot.open(snapshotFile, root, RegistryLayout.COMPACT);
+        assertThat(snapshot.size()).isEqualTo(3);
+
+        var ref = snapshot.findArtifact(new Artifact("dspacex", "membership-rule", "v1"));
+        assertThat(ref).isNotNull();
+        assertThat(ref.path()).isEqualTo(root.resolve("rules/dspacex.membership-rule.v1.json"));
+        assertThat(ref.size()).isEqualTo(Files.size(ref.path()));
+        assertThat(snapshot.findArtifact(new Artifact("dspacex", "membership-rule", "v2"))).isNull();
+    }
+
+    @Test
+    void verifyRefresh(@TempDir Path temp) throws IOException {
+        var root = temp.resolve("registry");
+        var policies = root.resolve("policygroups/dspacex/policies");
+        var modified = policies.resolve("generic-access/versions/1.0.json");
+        var removed = policies.resolve("generic-access/versions/2.0.json");
+        write(modified, "{}");
+        write(removed, "{}");
+        write(policies.resolve("membership/versions/1.0.json"), "{}");
+
+        var visitor = new DeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(visitor).walk(root);
+        var snapshotFile = temp.resolve("index.snapshot");
+        IndexSnapshot.write(visitor.getIndex(), root, RegistryLayout.EXPANDED, snapshotFile);
+
+        Files.writeString(modified, "{\"versionid\": \"1.0\"}");
+        Files.setLastModifiedTime(modified, FileTime.fromMillis(Files.getLastModifiedTime(modified).toMillis() + 1000));
+        Files.delete(removed);
+        write(policies.resolve("custom-access/versions/1.0.json"), "{}");
+
+        var refreshed = new DeploymentIndexVisitor();
+        IndexSnapshot.open(snapshotFile, root, RegistryLayout.EXPANDED).refresh(refreshed);
+
+        assertThat(refreshed.validate().valid()).isTrue();
+        var index = refreshed.getIndex();
+        assertThat(index.policies().keySet()).containsExactlyInAnyOrder(
+                new Artifact("dspacex", "generic-access", "1.0.json"),
+                new Artifact("dspacex", "membership", "1.0.json"),
+                new Artifact("dspacex", "custom-access", "1.0.json"));
+        var ref = (FileReference) index.findArtifact(new Artifact("dspacex", "generic-access", "1.0.json"));
+        assertThat(ref.size()).isEqualTo(Files.size(modified));
+        assertThat(ref.isStale()).isFalse();
+    }
+
+    private void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MerkleTreeTest {
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void verifyEqualContentHasEqualRootHash() {
+        var index = registry(100).build();
+        var copy = registry(100).build();
+
+        assertThat(index.merkleTree().rootHash()).isEqualTo(copy.merkleTree().rootHash());
+        assertThat(index.diff(copy).isEmpty()).isTrue();
+    }
+
+    @Test
+    void verifyDiff() {
+        var previous = registry(100).build();
+        var changed = new Artifact("group3", "name5", "1.0");
+        var removed = new Artifact("group7", "name1", "2.0");
+        var added = new Artifact("group7", "name1", "3.0");
+        var current = registry(100)
+                .put(ArtifactType.POLICY, changed, content("changed"))
+                .remove(removed)
+                .put(ArtifactType.POLICY, added, content("added"))
+                .build();
+
+        var diff = current.diff(previous);
+
+        assertThat(diff.changed()).containsExactly(changed);
+        assertThat(diff.removed()).containsExactly(removed);
+        assertThat(diff.added()).containsExactly(added);
+        assertThat(current.merkleTree().rootHash()).isNotEqualTo(previous.merkleTree().rootHash());
+        assertThat(current.merkleTree().hash(ArtifactType.SCHEMA)).isEqualTo(previous.merkleTree().hash(ArtifactType.SCHEMA));
+    }
+
+    @Test
+    void verifyTypeChangeReportedAsChanged() {
+        var artifact = new Artifact("group1", "name0", "1.0");
+        var previous = registry(10).build();
+        var current = registry(10).put(ArtifactType.RULE, artifact, content(artifact.toString())).build();
+
+        var diff = current.diff(previous);
+
+        assertThat(diff.changed()).containsExactly(artifact);
+        assertThat(diff.added()).isEmpty();
+        assertThat(diff.removed()).isEmpty();
+    }
+
+    @Test
+    void verifyDiffUsesOnlyHashes() {
+        var previous = registry(1000).build();
+        var current = registry(1000).put(ArtifactType.POLICY, new Artifact("group3", "name5", "1.0"), content("changed")).build();
+        previous.merkleTree();
+        current.merkleTree();
+        var readsBefore = reads.get();
+
+        assertThat(current.diff(previous).size()).isEqualTo(1);
+        assertThat(reads.get()).isEqualTo(readsBefore);
+    }
+
+    @Test
+    void verifyLeafHash() {
+        var index = registry(10).build();
+        var tree = index.merkleTree();
+
+        assertThat(tree.hash(new Artifact("group1", "name0", "1.0"))).isNotNull();
+        assertThat(tree.hash(new Artifact("group1", "name0", "9.0"))).isNull();
+        assertThat(tree.hash(ArtifactType.RULE)).isNull();
+    }
+
+    @Test
+    void verifyUnreadableContent() {
+        var index = DeploymentIndex.Builder.newInstance()
+                .put(ArtifactType.POLICY, new Artifact("group", "name", "1.0"), new FileReference(Path.of("does-not-exist.json"), 0, 0))
+                .build();
+
+        assertThatThrownBy(index::merkleTree).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void verifyLeavesUseDigestsComputedDuringWalk(@TempDir Path root) throws IOException {
+        for (var i = 0; i < 5; i++) {
+            var versions = root.resolve("policygroups/group" + i + "/policies/policy/versions");
+            Files.createDirectories(versions);
+            Files.writeString(versions.resolve("1.0.json"), "{\"policyid\": \"policy" + i + "\"}");
+        }
+        var lazy = new DeploymentIndexVisitor();
+        new ExpandedFileSystemWalker(lazy).walk(root);
+        var expected = lazy.getIndex().merkleTree();
+
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().digestContent(true).build();
+        new ExpandedFileSystemWalker(visitor, configuration).walk(root);
+        try (var files = Files.walk(root)) {
+            for (var file : files.filter(Files::isRegularFile).toList()) {
+                Files.delete(file);
+            }
+        }
+
+        var index = visitor.getIndex();
+        assertThat(index.metadata(new Artifact("group0", "policy", "1.0.json")).contentDigest()).startsWith("sha256:");
+        assertThat(index.merkleTree().rootHash()).isEqualTo(expected.rootHash());
+        assertThat(index.diff(lazy.getIndex()).isEmpty()).isTrue();
+    }
+
+    /**
+     * Creates a registry of policies in ten groups with two versions each, and one schema.
+     */
+    private DeploymentIndex.Builder registry(int names) {
+        var builder = DeploymentIndex.Builder.newInstance();
+        for (var i = 0; i < names; i++) {
+            for (var version : new String[]{ "1.0", "2.0" }) {
+                var artifact = new Artifact("group" + i % 10, "name" + i / 10, version);
+                builder.put(ArtifactType.POLICY, artifact, content(artifact.toString()));
+            }
+        }
+        return builder.put(ArtifactType.SCHEMA, new Artifact("schemas", "membership", "1.0"), content("schema"));
+    }
+
+    private Supplier<InputStream> content(String content) {
+        return () -> {
+            reads.incrementAndGet();
+            return new ByteArrayInputStream(content.getBytes(UTF_8));
+        };
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetadataExtractorTest {
+
+    @Test
+    void verifyStopsOnceFieldsAreFound() throws IOException {
+        var extractor = new MetadataExtractor(Set.of("policyid", "versionid"));
+        var content = "{\"policyid\": \"generic-access\", \"nested\": {\"versionid\": \"0\"}, \"versionid\": 1, \"rest\": [ this is not json";
+
+        var metadata = extractor.extract(new ByteArrayInputStream(content.getBytes(UTF_8)));
+
+        assertThat(metadata.get("policyid")).isEqualTo("generic-access");
+        assertThat(metadata.get("versionid")).isEqualTo("1");
+        assertThat(metadata.fields()).containsExactlyInAnyOrder("policyid", "versionid");
+    }
+
+    @Test
+    void verifyDigestsWholeContent() throws IOException, NoSuchAlgorithmException {
+        var extractor = new MetadataExtractor(Set.of("policyid"), true);
+        var content = "{\"policyid\": \"generic-access\", \"rest\": [ this is not json";
+        var expected = "sha256:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(UTF_8)));
+
+        var metadata = extractor.extract(new ByteArrayInputStream(content.getBytes(UTF_8)));
+
+        assertThat(metadata.get("policyid")).isEqualTo("generic-access");
+        assertThat(metadata.contentDigest()).isEqualTo(expected);
+        assertThat(new MetadataExtractor(Set.of(), true).extract(new ByteArrayInputStream(content.getBytes(UTF_8))).contentDigest())
+                .isEqualTo(expected);
+        assertThat(extractor.extract(new ByteArrayInputStream("[]".getBytes(UTF_8))).contentDigest()).isNotNull();
+    }
+
+    @Test
+    void verifyWalkAttachesMetadata() {
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance()
+                .metadataFields(Set.of("versionid", "appliesTo", "schemaref", "policydefinition"))
+                .build();
+        new CompactFileSystemWalker(visitor, configuration).walk(Paths.get("src/test/resources/xregistry-compact"));
+
+        assertThat(visitor.validate().valid()).isTrue();
+        var index = visitor.getIndex();
+        var rule = index.metadata(new Artifact("dspacex", "membership-rule", "v1"));
+        assertThat(rule.get("schemaref")).isEqualTo("/schemas/dspace-x/membership/1.0");
+        assertThat(rule.getAll("appliesTo")).containsExactly("label:dspacex");
+        var policy = index.metadata(new Artifact("dspacex", "generic-access", "v1.0"));
+        assertThat(policy.fields()).containsExactly("versionid");
+        assertThat(index.metadata(new Artifact("dspacex", "unknown", "v1")).isEmpty()).isTrue();
+    }
+
+    @Test
+    void verifyArtifactWithMalformedMetadataSkipped(@TempDir Path tempDir) throws IOException {
+        var policies = Files.createDirectories(tempDir.resolve("policies"));
+        Files.writeString(policies.resolve("dspacex.a.1.0.json"), "{\"title\": [");
+        Files.writeString(policies.resolve("dspacex.b.1.0.json"), "{\"title\": \"b\"}");
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().metadataFields(Set.of("title")).build();
+
+        new CompactFileSystemWalker(visitor, configuration).walk(tempDir);
+
+        assertThat(visitor.validate().problems()).hasSize(1).anySatisfy(problem -> assertThat(problem).contains("dspacex.a.1.0.json:"));
+        var index = visitor.getIndex();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.metadata(new Artifact("dspacex", "b", "1.0")).get("title")).isEqualTo("b");
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OciLayoutWalkerTest {
+    private static final String LAYER = OciLayoutWalker.XREGISTRY_LAYER_MEDIA_TYPE;
+
+    @TempDir
+    private Path layout;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(layout.resolve("oci-layout"), "{\"imageLayoutVersion\":\"1.0.0\"}");
+    }
+
+    @Test
+    void verifyLayerIndexed() throws IOException {
+        var layer = blob(new TarWriter()
+                .directory("xregistry/")
+                .file("xregistry/policies/dspacex.generic-access.1.0.json", "policy")
+                .file("xregistry/schemas/dspacex.membership.1.0.json", "schema")
+                .toTarGz());
+        index(manifest("v1", layer));
+        var visitor = new DeploymentIndexVisitor();
+
+        var statistics = new OciLayoutWalker(visitor, new LayerCache()).walk(layout);
+
+        assertThat(visitor.validate().valid()).isTrue();
+        assertThat(statistics.artifacts()).isEqualTo(2);
+        var index = visitor.getIndex();
+        assertThat(read(index.findArtifact(new Artifact("dspacex", "generic-access", "1.0")))).isEqualTo("policy");
+        assertThat(index.typeOf(new Artifact("dspacex", "membership", "1.0"))).isEqualTo(ArtifactType.SCHEMA);
+    }
+
+    @Test
+    void verifyUnchangedLayerReused() throws IOException {
+        var shared = blob(new TarWriter().file("xregistry/policies/dspacex.generic-access.1.0.json", "policy").toTar());
+        var changed = blob(new TarWriter().file("xregistry/rules/dspacex.membership.1.0.json", "rule").toTar());
+        index(manifest("v1", shared), manifest("v2", shared, changed));
+        var cache = new LayerCache();
+
+        new OciLayoutWalker(new DeploymentIndexVisitor(), cache).walk(layout, "v1");
+        var visitor = new DeploymentIndexVisitor();
+        var statistics = new OciLayoutWalker(visitor, cache).walk(layout, "v2");
+
+        assertThat(visitor.validate().valid()).isTrue();
+        assertThat(visitor.getIndex().size()).isEqualTo(2);
+        assertThat(read(visitor.getIndex().findArtifact(new Artifact("dspacex", "generic-access", "1.0")))).isEqualTo("policy");
+        assertThat(statistics.filesVisited()).isEqualTo(1);
+        assertThat(cache.statistics().hits()).isEqualTo(1);
+        assertThat(cache.statistics().misses()).isEqualTo(2);
+        assertThat(cache.statistics().entries()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyWalkRecordedOnce() throws IOException {
+        var first = blob(new TarWriter().file("xregistry/policies/dspacex.first.1.0.json", "first").toTar());
+        var second = blob(new TarWriter().file("xregistry/policies/dspacex.second.1.0.json", "second").toTar());
+        index(manifest("v1", first, second));
+        var metrics = new ProcessorMetricsTest.RecordingMetrics();
+        ProcessorMetrics.install(metrics);
+        try {
+            new OciLayoutWalker(new DeploymentIndexVisitor(), new LayerCache()).walk(layout);
+
+            assertThat(metrics.count(ProcessorMetrics.WALK_FILES)).isEqualTo(2);
+            assertThat(metrics.count(ProcessorMetrics.WALK_DURATION)).isEqualTo(1);
+        } finally {
+            ProcessorMetrics.install(ProcessorMetrics.NOOP);
+        }
+    }
+
+    @Test
+    void verifyLayerCachedPerMetadataFields() throws IOException {
+        var layer = blob(new TarWriter().file("xregistry/policies/dspacex.generic-access.1.0.json", "{\"a\": \"1\", \"b\": \"2\"}").toTar());
+        index(manifest("v1", layer));
+        var cache = new LayerCache();
+        var artifact = new Artifact("dspacex", "generic-access", "1.0");
+
+        var first = new DeploymentIndexVisitor();
+        new OciLayoutWalker(first, configuration(Set.of("a")), cache).walk(layout);
+        var second = new DeploymentIndexVisitor();
+        new OciLayoutWalker(second, configuration(Set.of("b")), cache).walk(layout);
+        var third = new DeploymentIndexVisitor();
+        new OciLayoutWalker(third, configuration(Set.of("a")), cache).walk(layout);
+
+        assertThat(first.getIndex().metadata(artifact).get("a")).isEqualTo("1");
+        assertThat(second.getIndex().metadata(artifact).get("a")).isNull();
+        assertThat(second.getIndex().metadata(artifact).get("b")).isEqualTo("2");
+        assertThat(third.getIndex().metadata(artifact).get("a")).isEqualTo("1");
+        assertThat(cache.statistics().entries()).isEqualTo(2);
+        assertThat(cache.statistics().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyLayerCachedPerDigestSetting() throws IOException {
+        var layer = blob(new TarWriter().file("xregistry/policies/dspacex.generic-access.1.0.json", "{\"a\": \"1\"}").toTar());
+        index(manifest("v1", layer));
+        var cache = new LayerCache();
+        var artifact = new Artifact("dspacex", "generic-access", "1.0");
+
+        var plain = new DeploymentIndexVisitor();
+        new OciLayoutWalker(plain, configuration(Set.of("a")), cache).walk(layout);
+        var digested = new DeploymentIndexVisitor();
+        var digesting = WalkerConfiguration.Builder.newInstance().metadataFields(Set.of("a")).digestContent(true).build();
+        new OciLayoutWalker(digested, digesting, cache).walk(layout);
+        var again = new DeploymentIndexVisitor();
+        new OciLayoutWalker(again, configuration(Set.of("a")), cache).walk(layout);
+
+        assertThat(plain.getIndex().metadata(artifact).contentDigest()).isNull();
+        assertThat(digested.getIndex().metadata(artifact).contentDigest()).startsWith("sha256:");
+        assertThat(digested.getIndex().metadata(artifact).get("a")).isEqualTo("1");
+        assertThat(again.getIndex().metadata(artifact).contentDigest()).isNull();
+        assertThat(cache.statistics().entries()).isEqualTo(2);
+        assertThat(cache.statistics().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyLayerCachedPerFilenameGrammar() throws IOException {
+        var layer = blob(new TarWriter().file("xregistry/policies/dspacex.generic-access.1.0.json", "policy").toTar());
+        index(manifest("v1", layer));
+        var cache = new LayerCache();
+
+        new OciLayoutWalker(new DeploymentIndexVisitor(), cache).walk(layout);
+        var grammar = FilenameGrammar.Builder.newInstance().build();
+        new OciLayoutWalker(new DeploymentIndexVisitor(), WalkerConfiguration.Builder.newInstance().filenameGrammar(grammar).build(), cache)
+                .walk(layout);
+
+        assertThat(cache.statistics().entries()).isEqualTo(2);
+        assertThat(cache.statistics().hits()).isEqualTo(0);
+    }
+
+    @Test
+    void verifyLeastRecentlyUsedLayerEvicted() throws IOException {
+        var first = blob(new TarWriter().file("xregistry/policies/dspacex.first.1.0.json", "first").toTar());
+        var second = blob(new TarWriter().file("xregistry/policies/dspacex.second.1.0.json", "second").toTar());
+        index(manifest("v1", first), manifest("v2", second));
+        var cache = new LayerCache(1);
+
+        new OciLayoutWalker(new DeploymentIndexVisitor(), cache).walk(layout);
+
+        assertThat(cache.contains(first)).isFalse();
+        assertThat(cache.contains(second)).isTrue();
+        assertThat(cache.statistics().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyDigestMismatchReported() throws IOException {
+        var layer = blob(new TarWriter().file("xregistry/policies/dspacex.generic-access.1.0.json", "policy").toTar());
+        var path = layout.resolve("blobs/sha256").resolve(layer.substring("sha256:".length()));
+        Files.write(path, new TarWriter().file("xregistry/policies/dspacex.tampered.1.0.json", "policy").toTar());
+        index(manifest("v1", layer));
+        var visitor = new DeploymentIndexVisitor();
+        var cache = new LayerCache();
+
+        var statistics = new OciLayoutWalker(visitor, cache).walk(layout);
+
+        assertThat(visitor.validate().valid()).isFalse();
+        assertThat(visitor.validate().problems()).anyMatch(problem -> problem.contains("digest mismatch"));
+        assertThat(statistics.errorCount()).isEqualTo(1);
+        assertThat(cache.contains(layer)).isFalse();
+    }
+
+    @Test
+    void verifyMalformedDigestRejected() throws IOException {
+        index(manifest("v1", "sha256:../../oci-layout"));
+        var visitor = new DeploymentIndexVisitor();
+
+        new OciLayoutWalker(visitor, new LayerCache()).walk(layout);
+
+        assertThat(visitor.validate().problems()).anyMatch(problem -> problem.contains("Unsupported digest"));
+    }
+
+    private static WalkerConfiguration configuration(Set<String> metadataFields) {
+        return WalkerConfiguration.Builder.newInstance().metadataFields(metadataFields).build();
+    }
+
+    /**
+     * Writes a manifest with the layers and returns its descriptor for the index.
+     */
+    private String manifest(String refName, String... layers) throws IOException {
+        var descriptors = new StringBuilder();
+        for (var layer : layers) {
+            descriptors.append(descriptors.isEmpty() ? "" : ",")
+                    .append("{\"mediaType\":\"").append(LAYER).append("\",\"digest\":\"").append(layer).append("\",\"size\":0}");
+        }
+        var digest = blob(("{\"schemaVersion\":2,\"mediaType\":\"application/vnd.oci.image.manifest.v1+json\",\"layers\":["
+                + descriptors + "]}").getBytes(UTF_8));
+        return "{\"mediaType\":\"application/vnd.oci.image.manifest.v1+json\",\"digest\":\"" + digest
+                + "\",\"annotations\":{\"org.opencontainers.image.ref.name\":\"" + refName + "\"}}";
+    }
+
+    private void index(String... manifests) throws IOException {
+        Files.writeString(layout.resolve("index.json"), "{\"schemaVersion\":2,\"manifests\":[" + String.join(",", manifests) + "]}");
+    }
+
+    private String blob(byte[] content) throws IOException {
+        var digest = digest(content);
+        var directory = Files.createDirectories(layout.resolve("blobs/sha256"));
+        Files.write(directory.resolve(digest.substring("sha256:".length())), content);
+        return digest;
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            return "sha256:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String read(Supplier<InputStream> ref) throws IOException {
+        try (var stream = ref.get()) {
+            return new String(stream.readAllBytes(), UTF_8);
+        }
+    }
+}
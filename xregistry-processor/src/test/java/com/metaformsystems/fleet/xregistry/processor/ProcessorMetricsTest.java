@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.CONTENT_BYTES_READ;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.CONTENT_OPEN_FILES;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.INDEX_SIZE;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.LOOKUP_HITS;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.LOOKUP_LATENCY;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.LOOKUP_MISSES;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.VISITOR_ARTIFACTS;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.WALK_DIRECTORIES;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.WALK_DURATION;
+import static com.metaformsystems.fleet.xregistry.processor.ProcessorMetrics.WALK_FILES;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProcessorMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        ProcessorMetrics.install(ProcessorMetrics.NOOP);
+    }
+
+    @Test
+    void verifyRecording() throws IOException {
+        var metrics = new RecordingMetrics();
+        ProcessorMetrics.install(metrics);
+
+        var visitor = new DeploymentIndexVisitor();
+        new CompactFileSystemWalker(visitor).walk(Paths.get("src/test/resources/xregistry-compact"));
+        var index = visitor.getIndex();
+
+        assertThat(metrics.count(WALK_DIRECTORIES)).isEqualTo(4);
+        assertThat(metrics.count(WALK_FILES)).isEqualTo(3);
+        assertThat(metrics.count(WALK_DURATION)).isEqualTo(1);
+        assertThat(metrics.count(VISITOR_ARTIFACTS)).isEqualTo(3);
+        assertThat(metrics.gauges.get(INDEX_SIZE).getAsLong()).isZero();
+        new DeploymentIndexHolder().publish(index);
+        DeploymentIndex.Builder.newInstance().build();
+        assertThat(metrics.gauges.get(INDEX_SIZE).getAsLong()).isEqualTo(3);
+
+        var ref = index.findArtifact(new Artifact("dspacex", "generic-access", "v1.0"));
+        index.findArtifact(new Artifact("dspacex", "generic-access", "v2.0"));
+        assertThat(metrics.count(LOOKUP_HITS)).isEqualTo(1);
+        assertThat(metrics.count(LOOKUP_MISSES)).isEqualTo(1);
+        assertThat(metrics.count(LOOKUP_LATENCY)).isEqualTo(2);
+
+        try (var stream = ref.get()) {
+            assertThat(metrics.gauges.get(CONTENT_OPEN_FILES).getAsLong()).isEqualTo(1);
+            var length = stream.readAllBytes().length;
+            assertThat(metrics.count(CONTENT_BYTES_READ)).isEqualTo(length);
+        }
+        assertThat(metrics.gauges.get(CONTENT_OPEN_FILES).getAsLong()).isZero();
+    }
+
+    @Test
+    void verifyMetadataReadsMetered() throws IOException {
+        var metrics = new RecordingMetrics();
+        ProcessorMetrics.install(metrics);
+        var root = Paths.get("src/test/resources/xregistry-compact");
+        var configuration = WalkerConfiguration.Builder.newInstance().digestContent(true).build();
+
+        new CompactFileSystemWalker(new DeploymentIndexVisitor(), configuration).walk(root);
+
+        long bytes;
+        try (var files = Files.walk(root)) {
+            bytes = files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+        assertThat(metrics.count(CONTENT_BYTES_READ)).isEqualTo(bytes);
+        assertThat(metrics.gauges.get(CONTENT_OPEN_FILES).getAsLong()).isZero();
+    }
+
+    @Test
+    void verifyNoopDoesNotWrap() throws IOException {
+        ProcessorMetrics.install(ProcessorMetrics.NOOP);
+        var visitor = new DeploymentIndexVisitor();
+        new CompactFileSystemWalker(visitor).walk(Paths.get("src/test/resources/xregistry-compact"));
+
+        try (var stream = visitor.getIndex().findArtifact(new Artifact("dspacex", "generic-access", "v1.0")).get()) {
+            assertThat(stream).matches(s -> !(s instanceof MeteredInputStream));
+        }
+    }
+
+    /**
+     * Counts increments and recorded timings by metric name.
+     */
+    static class RecordingMetrics implements ProcessorMetrics {
+        private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+        private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public Counter counter(String name) {
+            return adder(name)::add;
+        }
+
+        @Override
+        public Timer timer(String name) {
+            var adder = adder(name);
+            return nanos -> adder.increment();
+        }
+
+        @Override
+        public void gauge(String name, LongSupplier value) {
+            gauges.put(name, value);
+        }
+
+        long count(String name) {
+            return adder(name).sum();
+        }
+
+        private LongAdder adder(String name) {
+            return counts.computeIfAbsent(name, n -> new LongAdder());
+        }
+    }
+}
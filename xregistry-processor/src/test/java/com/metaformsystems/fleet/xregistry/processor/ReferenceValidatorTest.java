@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceValidatorTest {
+
+    @Test
+    void verifyCompleteReferences(@TempDir Path root) throws IOException {
+        write(root, "schemas/dspacex.membership.1.0.json", "{\"type\": \"object\"}");
+        write(root, "rules/dspacex.membership-rule.1.json", "{\"schemaref\": \"/schemas/dspacex/membership/1.0\"}");
+        write(root, "rules/dspacex.access-rule.1.json", "{\"nested\": {\"schemaref\": \"/schemas/unknown/x/1\"}, \"schemaref\": \"/schemagroups/dspacex/schemas/membership\"}");
+
+        var visitor = new DeploymentIndexVisitor(new ReferenceValidator());
+        new CompactFileSystemWalker(visitor).walk(root);
+
+        assertThat(visitor.validate().valid()).isTrue();
+    }
+
+    @Test
+    void verifyDanglingAndCyclicReferences(@TempDir Path root) throws IOException {
+        write(root, "schemas/dspacex.a.1.json", "{\"schemaref\": \"/schemagroups/dspacex/schemas/b/versions/1.0\"}");
+        write(root, "schemas/dspacex.b.1.json", "{\"schemaref\": [\"/schemas/dspacex/a/1\"]}");
+        write(root, "schemas/dspacex.c.1.json", "{\"schemaref\": \"/schemas/dspacex/c/1\"}");
+        write(root, "rules/dspacex.rule.1.json", "{\"schemaref\": \"/schemas/dspacex/rule/1\", \"policyref\": \"https://example.com/policy\"}");
+
+        var visitor = new DeploymentIndexVisitor(new ReferenceValidator());
+        new CompactFileSystemWalker(visitor).walk(root);
+        var result = visitor.validate();
+
+        assertThat(result.valid()).isFalse();
+        assertThat(result.problems()).hasSize(3);
+        assertThat(result.problems()).anySatisfy(problem -> assertThat(problem).endsWith("unresolved reference /schemas/dspacex/rule/1"));
+        assertThat(result.problems()).anySatisfy(problem -> assertThat(problem).startsWith("reference cycle:").contains("dspacex.a.1.json", "dspacex.b.1.json"));
+        assertThat(result.problems()).anySatisfy(problem -> assertThat(problem).startsWith("reference cycle:").contains("dspacex.c.1.json"));
+    }
+
+    @Test
+    void verifyReferencesFromWalkMetadata(@TempDir Path root) throws IOException {
+        write(root, "schemas/dspacex.membership.1.0.json", "{\"type\": \"object\"}");
+        write(root, "rules/dspacex.membership-rule.1.json", "{\"schemaref\": \"/schemas/dspacex/membership/1.0\"}");
+
+        var visitor = new DeploymentIndexVisitor(new ReferenceValidator());
+        var configuration = WalkerConfiguration.Builder.newInstance().metadataFields(ReferenceValidator.DEFAULT_FIELDS).build();
+        new CompactFileSystemWalker(visitor, configuration).walk(root);
+        // the references were extracted during the walk, so the content is not read again
+        Files.delete(root.resolve("schemas/dspacex.membership.1.0.json"));
+        Files.delete(root.resolve("rules/dspacex.membership-rule.1.json"));
+
+        assertThat(visitor.validate().valid()).isTrue();
+    }
+
+    @Test
+    void verifyCompactFixture() {
+        var visitor = new DeploymentIndexVisitor(new ReferenceValidator());
+        new CompactFileSystemWalker(visitor).walk(Paths.get("src/test/resources/xregistry-compact"));
+
+        // the fixture rule refers to group dspace-x while its schema is in group dspacex
+        assertThat(visitor.validate().problems()).anySatisfy(problem -> assertThat(problem).endsWith("unresolved reference /schemas/dspace-x/membership/1.0"));
+    }
+
+    private static void write(Path root, String file, String content) throws IOException {
+        var path = root.resolve(file);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TarArchiveWalkerTest {
+
+    @Test
+    void verifyCompactArchive(@TempDir Path tempDir) throws IOException {
+        var archive = tempDir.resolve("registry.tar.gz");
+        Files.write(archive, new TarWriter()
+                .directory("policies/")
+                .file("policies/dspacex.generic-access.1.0.json", "{\"title\":\"Generic access\"}")
+                .file("./schemas/dspacex.membership.1.0.json", "{}")
+                .file("rules/README", "not an artifact")
+                .toTarGz());
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().metadataFields(Set.of("title")).build();
+
+        try (var arena = ContentArena.inMemory()) {
+            var statistics = new TarArchiveWalker(visitor, configuration, arena).walk(archive);
+
+            assertThat(visitor.validate().valid()).isTrue();
+            assertThat(statistics.filesVisited()).isEqualTo(3);
+            assertThat(statistics.filesSkipped()).isEqualTo(1);
+            var index = visitor.getIndex();
+            assertThat(index.size()).isEqualTo(2);
+            var policy = new Artifact("dspacex", "generic-access", "1.0");
+            assertThat(read(index.findArtifact(policy))).isEqualTo("{\"title\":\"Generic access\"}");
+            assertThat(index.metadata(policy).get("title")).isEqualTo("Generic access");
+            assertThat(index.typeOf(new Artifact("dspacex", "membership", "1.0"))).isEqualTo(ArtifactType.SCHEMA);
+        }
+    }
+
+    @Test
+    void verifyExpandedArchiveWithLongNames() throws IOException {
+        var group = "a-group-with-a-name-that-is-long-enough-to-exceed-the-tar-name-field";
+        var tar = new TarWriter()
+                .file("xregistry.json", "{}")
+                .file("policygroups/" + group + "/policies/generic-access/versions/1.0.json", "policy")
+                .pax()
+                .file("schemagroups/" + group + "/schemas/membership/versions/2.0.json", "schema")
+                .toTar();
+        var visitor = new DeploymentIndexVisitor();
+
+        try (var arena = ContentArena.inMemory()) {
+            new TarArchiveWalker(visitor, arena).walk(new ByteArrayInputStream(tar));
+
+            assertThat(visitor.validate().valid()).isTrue();
+            var index = visitor.getIndex();
+            assertThat(read(index.findArtifact(new Artifact(group, "generic-access", "1.0.json")))).isEqualTo("policy");
+            assertThat(read(index.findArtifact(new Artifact(group, "membership", "2.0.json")))).isEqualTo("schema");
+        }
+    }
+
+    @Test
+    void verifySpilledContent(@TempDir Path tempDir) throws IOException {
+        var tar = new TarWriter()
+                .file("policies/dspacex.a.1.0.json", "first")
+                .file("policies/dspacex.b.1.0.json", "second".repeat(1000))
+                .toTar();
+        var visitor = new DeploymentIndexVisitor();
+
+        try (var arena = new ContentArena(5, tempDir)) {
+            new TarArchiveWalker(visitor, arena).walk(new ByteArrayInputStream(tar));
+
+            assertThat(arena.memoryBytes()).isEqualTo(5);
+            assertThat(arena.spilledBytes()).isEqualTo(6000);
+            var index = visitor.getIndex();
+            assertThat(read(index.findArtifact(new Artifact("dspacex", "a", "1.0")))).isEqualTo("first");
+            assertThat(read(index.findArtifact(new Artifact("dspacex", "b", "1.0")))).isEqualTo("second".repeat(1000));
+        }
+    }
+
+    @Test
+    void verifyCorruptArchive() {
+        var tar = new TarWriter().file("policies/dspacex.a.1.0.json", "first").toTar();
+        tar[0] ^= 1;
+        var visitor = new DeploymentIndexVisitor();
+
+        var statistics = new TarArchiveWalker(visitor, ContentArena.inMemory()).walk(new ByteArrayInputStream(tar));
+
+        assertThat(visitor.validate().valid()).isFalse();
+        assertThat(statistics.errors()).containsEntry("IOException", 1L);
+    }
+
+    @Test
+    void verifyInvalidPaxSize() {
+        for (var size : new String[]{ "-5", "12x" }) {
+            var tar = new TarWriter().paxHeader("size", size).file("policies/dspacex.a.1.0.json", "first").toTar();
+            var visitor = new DeploymentIndexVisitor();
+
+            var statistics = new TarArchiveWalker(visitor, ContentArena.inMemory()).walk(new ByteArrayInputStream(tar));
+
+            assertThat(visitor.validate().problems()).anySatisfy(problem -> assertThat(problem).endsWith("Invalid pax size"));
+            assertThat(statistics.errors()).containsEntry("IOException", 1L);
+        }
+    }
+
+    @Test
+    void verifyMalformedPaxRecord() {
+        for (var records : new String[]{ "1 x", "3 ab", "12", "6 a=bc" }) {
+            var tar = new TarWriter().paxRecords(records).file("policies/dspacex.a.1.0.json", "first").toTar();
+            var visitor = new DeploymentIndexVisitor();
+
+            var statistics = new TarArchiveWalker(visitor, ContentArena.inMemory()).walk(new ByteArrayInputStream(tar));
+
+            assertThat(visitor.validate().problems()).anySatisfy(problem -> assertThat(problem).endsWith("Invalid pax header record"));
+            assertThat(statistics.errors()).containsEntry("IOException", 1L);
+        }
+    }
+
+    @Test
+    void verifyArtifactWithMalformedMetadataSkipped() {
+        var tar = new TarWriter()
+                .file("policies/dspacex.a.1.0.json", "{\"title\": [")
+                .file("policies/dspacex.b.1.0.json", "{\"title\": \"b\"}")
+                .toTar();
+        var visitor = new DeploymentIndexVisitor();
+        var configuration = WalkerConfiguration.Builder.newInstance().metadataFields(Set.of("title")).build();
+
+        var statistics = new TarArchiveWalker(visitor, configuration, ContentArena.inMemory()).walk(new ByteArrayInputStream(tar));
+
+        assertThat(visitor.validate().problems()).hasSize(1).anySatisfy(problem -> assertThat(problem).startsWith("policies/dspacex.a.1.0.json:"));
+        assertThat(statistics.errors()).hasSize(1);
+        var index = visitor.getIndex();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.metadata(new Artifact("dspacex", "b", "1.0")).get("title")).isEqualTo("b");
+    }
+
+    private static String read(Supplier<InputStream> ref) throws IOException {
+        try (var stream = ref.get()) {
+            return new String(stream.readAllBytes(), UTF_8);
+        }
+    }
+}
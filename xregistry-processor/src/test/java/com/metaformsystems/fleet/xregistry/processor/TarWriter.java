@@ -0,0 +1,138 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes tar archives for tests. Names longer than the header field are written with a GNU long name entry or, if
+ * requested, a pax extended header.
+ */
+class TarWriter {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private boolean pax;
+
+    TarWriter pax() {
+        pax = true;
+        return this;
+    }
+
+    TarWriter directory(String name) {
+        write(header(name, 0, '5', false));
+        return this;
+    }
+
+    TarWriter file(String name, String content) {
+        var bytes = content.getBytes(UTF_8);
+        if (name.length() >= 100) {
+            var nameBytes = name.getBytes(UTF_8);
+            if (pax) {
+                paxHeader("path", name);
+            } else {
+                write(header("././@LongLink", nameBytes.length + 1, 'L', true));
+                write(nameBytes);
+                write(new byte[]{ 0 });
+                pad(out.size());
+            }
+            name = name.substring(0, 99);
+        }
+        write(header(name, bytes.length, '0', false));
+        write(bytes);
+        pad(out.size());
+        return this;
+    }
+
+    /**
+     * Writes a pax extended header with a single record, which applies to the next entry.
+     */
+    TarWriter paxHeader(String key, String value) {
+        // the record length includes its own digits
+        var record = (" " + key + "=" + value + "\n").getBytes(UTF_8).length;
+        var length = record;
+        while (String.valueOf(length).length() + record != length) {
+            length = String.valueOf(length).length() + record;
+        }
+        return paxRecords(length + " " + key + "=" + value + "\n");
+    }
+
+    /**
+     * Writes a pax extended header with the given records as they are, which need not be well-formed.
+     */
+    TarWriter paxRecords(String records) {
+        var paxContent = records.getBytes(UTF_8);
+        write(header("PaxHeader", paxContent.length, 'x', false));
+        write(paxContent);
+        pad(out.size());
+        return this;
+    }
+
+    byte[] toTar() {
+        write(new byte[1024]);
+        return out.toByteArray();
+    }
+
+    byte[] toTarGz() throws IOException {
+        var tar = toTar();
+        var compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(tar);
+        }
+        return compressed.toByteArray();
+    }
+
+    private byte[] header(String name, long size, char type, boolean gnu) {
+        var header = new byte[512];
+        put(header, 0, name, 100);
+        put(header, 100, "0000644", 8);
+        put(header, 108, "0000000", 8);
+        put(header, 116, "0000000", 8);
+        put(header, 124, String.format("%011o", size), 12);
+        put(header, 136, "00000000000", 12);
+        header[156] = (byte) type;
+        if (gnu) {
+            put(header, 257, "ustar  ", 8);
+        } else {
+            put(header, 257, "ustar", 6);
+            put(header, 263, "00", 2);
+        }
+        for (var i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        var checksum = 0;
+        for (var value : header) {
+            checksum += value & 0xFF;
+        }
+        put(header, 148, String.format("%06o", checksum), 7);
+        return header;
+    }
+
+    private void pad(int size) {
+        write(new byte[(512 - size % 512) % 512]);
+    }
+
+    private void write(byte[] bytes) {
+        out.writeBytes(bytes);
+    }
+
+    private static void put(byte[] header, int offset, String value, int length) {
+        var bytes = value.getBytes(UTF_8);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VersionRangeTest {
+
+    @Test
+    void verifyVersionOrdering() {
+        var versions = new ArrayList<>(List.of("1.10", "1.2", "v1.2.1", "1.2.0-rc.2", "1.2.0-rc.10", "1.2.0-alpha", "2", "1.0.json"));
+        versions.sort((left, right) -> Version.parse(left).compareTo(Version.parse(right)));
+
+        assertThat(versions).containsExactly("1.0.json", "1.2.0-alpha", "1.2.0-rc.2", "1.2.0-rc.10", "1.2", "v1.2.1", "1.10", "2");
+        assertThat(Version.parse("1").compareSemantically(Version.parse("1.0.0"))).isEqualTo(0);
+        assertThat(Version.parse("1").compareTo(Version.parse("1.0.0"))).isNotEqualTo(0);
+    }
+
+    @Test
+    void verifyExtensionDroppedBeforePreRelease() {
+        assertThat(Version.parse("1.0.0-rc1.json").isPreRelease()).isTrue();
+        assertThat(Version.parse("1.0.0-rc1.json").compareSemantically(Version.parse("1.0.0-rc1"))).isEqualTo(0);
+        assertThat(Version.parse("1.0.0-rc1.json").compareTo(Version.parse("1.0.0.json"))).isNegative();
+        assertThat(Version.parse("1.0.0-rc1.json").compareTo(Version.parse("1.0.0-rc2.json"))).isNegative();
+        assertThat(Version.parse("1.0.0-rc.2.yaml").compareTo(Version.parse("1.0.0-rc.10.yaml"))).isNegative();
+        assertThat(Version.parse("1.0.0-alpha.beta").compareTo(Version.parse("1.0.0-alpha"))).isPositive();
+        assertThat(VersionRange.parse("^1.0").contains(Version.parse("1.0.0-rc1.json"))).isFalse();
+        assertThat(VersionRange.parse("[1.0.0-rc1,1.0.0-rc1]").contains(Version.parse("1.0.0-rc1.json"))).isTrue();
+    }
+
+    @Test
+    void verifyRanges() {
+        assertThat(VersionRange.parse("^1.0").contains(Version.parse("1.9.3"))).isTrue();
+        assertThat(VersionRange.parse("^1.0").contains(Version.parse("2.0-rc1"))).isFalse();
+        assertThat(VersionRange.parse("^1.0").contains(Version.parse("1.0-rc1"))).isFalse();
+        assertThat(VersionRange.parse("^0.2").contains(Version.parse("0.3"))).isFalse();
+        assertThat(VersionRange.parse("~1.2").contains(Version.parse("1.2.7"))).isTrue();
+        assertThat(VersionRange.parse("~1.2").contains(Version.parse("1.3"))).isFalse();
+        assertThat(VersionRange.parse("1.x").contains(Version.parse("1.4"))).isTrue();
+        assertThat(VersionRange.parse("[1.0,2.0)").contains(Version.parse("2.0"))).isFalse();
+        assertThat(VersionRange.parse("(1.0,2.0]").contains(Version.parse("1.0"))).isFalse();
+        assertThat(VersionRange.parse("(,2.0]").contains(Version.parse("0.1"))).isTrue();
+        assertThat(VersionRange.parse("1.0").contains(Version.parse("1.0.json"))).isTrue();
+        assertThat(VersionRange.parse("*").contains(Version.parse("anything"))).isTrue();
+        assertThatThrownBy(() -> VersionRange.parse("[1.0,2.0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VersionRange.parse("^latest")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
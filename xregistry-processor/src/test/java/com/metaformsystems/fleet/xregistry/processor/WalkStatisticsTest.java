@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2025 Metaform Systems, Inc.
+ *
+ *  This program and the accompanying materials are made available under the
+ *  terms of the Apache License, Version 2.0 which is available at
+ *  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  SPDX-License-Identifier: Apache-2.0
+ *
+ *  Contributors:
+ *       Metaform Systems, Inc. - initial API and implementation
+ *
+ */
+
+package com.metaformsystems.fleet.xregistry.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalkStatisticsTest {
+
+    @Test
+    void verifyCounters(@TempDir Path root) throws IOException {
+        createRegistry(root);
+
+        var statistics = new CompactFileSystemWalker(new DeploymentIndexVisitor()).walk(root);
+
+        assertThat(statistics.directoriesListed()).isEqualTo(3);
+        assertThat(statistics.filesVisited()).isEqualTo(4);
+        assertThat(statistics.filesSkipped()).isEqualTo(1);
+        assertThat(statistics.artifacts()).isEqualTo(3);
+        assertThat(statistics.errors()).isEmpty();
+        assertThat(statistics.typeDurations()).containsKeys(ArtifactType.POLICY, ArtifactType.SCHEMA, ArtifactType.RULE);
+        assertThat(statistics.listingLatency().count()).isEqualTo(3);
+        assertThat(statistics.slowestListings()).hasSize(3);
+        assertThat(statistics.slowestListings().get(0).latency().compareTo(statistics.slowestListings().get(2).latency())).isGreaterThanOrEqualTo(0);
+        assertThat(statistics.report()).contains("3 directories");
+    }
+
+    @Test
+    void verifyParallelWalk(@TempDir Path root) throws IOException {
+        createRegistry(root);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var configuration = WalkerConfiguration.Builder.newInstance().executor(executor).parallelism(4).build();
+
+            var statistics = new CompactFileSystemWalker(new DeploymentIndexVisitor(), configuration).walk(root);
+
+            assertThat(statistics.filesVisited()).isEqualTo(4);
+            assertThat(statistics.artifacts()).isEqualTo(3);
+            assertThat(statistics.typeDurations().get(ArtifactType.POLICY).isZero()).isFalse();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void verifyErrorsByType(@TempDir Path root) {
+        var visitor = new DeploymentIndexVisitor();
+
+        var statistics = new CompactFileSystemWalker(visitor).walk(root.resolve("missing"));
+
+        assertThat(statistics.errors()).containsEntry("NoSuchFileException", 1L);
+        assertThat(statistics.errorCount()).isEqualTo(1);
+        assertThat(visitor.validate().valid()).isFalse();
+    }
+
+    @Test
+    void verifyHistogram() {
+        var recorder = new LatencyHistogram.Recorder();
+        recorder.record(500);
+        for (var i = 0; i < 98; i++) {
+            recorder.record(3_000);
+        }
+        recorder.record(Duration.ofSeconds(1).toNanos());
+
+        var histogram = recorder.snapshot();
+
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.counts()[0]).isEqualTo(1);
+        assertThat(histogram.percentile(50)).isEqualTo(Duration.ofNanos(4_000));
+        assertThat(histogram.percentile(100)).isEqualTo(Duration.ofNanos(1000L << 20));
+    }
+
+    private static void createRegistry(Path root) throws IOException {
+        Files.createDirectories(root.resolve("policies"));
+        Files.createDirectories(root.resolve("schemas"));
+        Files.writeString(root.resolve("policies/dspacex.generic-access.1.0.json"), "{}");
+        Files.writeString(root.resolve("policies/README"), "not an artifact");
+        Files.writeString(root.resolve("schemas/dspacex.membership.1.0.json"), "{}");
+        Files.writeString(root.resolve("schemas/dspacex.membership.2.0.json"), "{}");
+    }
+}